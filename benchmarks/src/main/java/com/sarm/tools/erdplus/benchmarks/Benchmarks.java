@@ -0,0 +1,26 @@
+package com.sarm.tools.erdplus.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Shared benchmark helpers
+ */
+final class Benchmarks {
+
+    /**
+     * Swallows the generators progress messages so they are not part of the measurement
+     */
+    static final PrintStream QUIET = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    private Benchmarks() {
+    }
+}
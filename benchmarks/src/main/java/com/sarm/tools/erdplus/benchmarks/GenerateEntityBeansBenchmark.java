@@ -0,0 +1,53 @@
+package com.sarm.tools.erdplus.benchmarks;
+
+import com.sarm.tools.erdplus.services.ERDPlusGenerationReport;
+import com.sarm.tools.erdplus.services.impl.ERDPlusImportServiceImpl;
+import com.sarm.tools.erdplus.services.impl.ERDPlusInMemoryOutputSink;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generates every entity bean of the model into memory, from the bound model and streaming from the
+ * export. A new generator is created for each invocation so indexing is part of what is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateEntityBeansBenchmark {
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ERDPlusImportServiceImpl service;
+
+    @Setup(Level.Invocation)
+    public void createService() {
+        service = new ERDPlusImportServiceImpl(new ERDPlusInMemoryOutputSink(), "com.sarm.benchmark", parallelism);
+        service.setLog(Benchmarks.QUIET);
+    }
+
+    @Benchmark
+    public ERDPlusGenerationReport fromModel(ModelState state) {
+        return service.generateEntityBeans(state.model);
+    }
+
+    @Benchmark
+    public ERDPlusGenerationReport fromExport(ModelState state) throws IOException {
+        return service.generateEntityBeans(state.exportFile);
+    }
+}
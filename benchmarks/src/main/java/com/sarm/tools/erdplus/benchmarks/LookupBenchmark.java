@@ -0,0 +1,53 @@
+package com.sarm.tools.erdplus.benchmarks;
+
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.services.impl.ERDPlusImportServiceImpl;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Looks up the relationships of every entity in the model and builds the type spec of every entity,
+ * the two per entity steps whose cost grows with the model when lookups are not constant time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    private ERDPlusImportServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void createService() {
+        service = new ERDPlusImportServiceImpl(new File(System.getProperty("java.io.tmpdir")), "com.sarm.benchmark");
+        service.setLog(Benchmarks.QUIET);
+    }
+
+    @Benchmark
+    public void extractRelationshipsForEntity(ModelState state, Blackhole blackhole) {
+        for (ERDPlusShape entity : state.index.getEntities()) {
+            blackhole.consume(service.extractRelationshipsForEntity(state.model, entity.details.id));
+        }
+    }
+
+    @Benchmark
+    public void generateTypeSpecForEntity(ModelState state, Blackhole blackhole) {
+        for (ERDPlusShape entity : state.index.getEntities()) {
+            blackhole.consume(service.generateTypeSpecForEntity(state.index, entity));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.sarm.tools.erdplus.benchmarks;
+
+import com.sarm.tools.erdplus.model.ERDPlusEntityRelationshipModel;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import java.io.File;
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A synthetic model, and its export on disk, shared by the benchmarks. The size and shape of the
+ * model are set with the JMH parameters, e.g. <code>-p entities=50000 -p mix=1:1:0</code>.
+ */
+@State(Scope.Benchmark)
+public class ModelState {
+
+    @Param({"10", "100", "1000", "10000", "50000"})
+    public int entities;
+
+    @Param({"1.5"})
+    public double relationshipsPerEntity;
+
+    /**
+     * Weights of ONE_TO_MANY:MANY_TO_MANY:ONE_TO_ONE relationships
+     */
+    @Param({"3:1:1"})
+    public String mix;
+
+    public ERDPlusEntityRelationshipModel model;
+    public ERDPlusModelIndex index;
+    public File exportFile;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        SyntheticModelGenerator generator = new SyntheticModelGenerator()
+            .entities(entities)
+            .relationshipsPerEntity(relationshipsPerEntity)
+            .mix(mix);
+        model = generator.generate();
+        index = ERDPlusModelIndex.of(model);
+        exportFile = File.createTempFile("erdplus-benchmark", ".json");
+        generator.writeExport(model, exportFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteExport() {
+        exportFile.delete();
+    }
+}
@@ -0,0 +1,55 @@
+package com.sarm.tools.erdplus.benchmarks;
+
+import com.sarm.tools.erdplus.model.ERDPlusEntityRelationshipModel;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.services.impl.ERDPlusImportServiceImpl;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares binding the whole export with {@link ERDPlusImportServiceImpl#readModel(File)}, alone and then
+ * indexed, against streaming it straight into an index with {@link ERDPlusImportServiceImpl#readModelIndex(File)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadModelBenchmark {
+
+    private ERDPlusImportServiceImpl service;
+
+    @Setup(Level.Trial)
+    public void createService() {
+        service = new ERDPlusImportServiceImpl(new File(System.getProperty("java.io.tmpdir")), "com.sarm.benchmark");
+        service.setLog(Benchmarks.QUIET);
+    }
+
+    @Benchmark
+    public ERDPlusEntityRelationshipModel readModel(ModelState state) throws IOException {
+        return service.readModel(state.exportFile);
+    }
+
+    @Benchmark
+    public ERDPlusModelIndex readModelAndIndex(ModelState state) throws IOException {
+        return ERDPlusModelIndex.of(service.readModel(state.exportFile));
+    }
+
+    @Benchmark
+    public ERDPlusModelIndex readModelIndex(ModelState state) throws IOException {
+        return service.readModelIndex(state.exportFile);
+    }
+}
@@ -0,0 +1,270 @@
+package com.sarm.tools.erdplus.benchmarks;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sarm.tools.erdplus.model.ERDPlusConnector;
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
+import com.sarm.tools.erdplus.model.ERDPlusEntityRelationshipModel;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.ERDPlusSlot;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Builds ER models of a chosen size and shape to benchmark the generator with. Every entity takes part
+ * in at least one relationship, and the remaining relationships join randomly chosen entities. The
+ * same settings and seed always build the same model.
+ */
+public class SyntheticModelGenerator {
+
+    private int entities = 100;
+    private double relationshipsPerEntity = 1.5;
+    private int oneToManyWeight = 3;
+    private int manyToManyWeight = 1;
+    private int oneToOneWeight = 1;
+    private int attributesPerEntity = 2;
+    private long seed = 42L;
+
+    public SyntheticModelGenerator entities(int entities) {
+        this.entities = entities;
+        return this;
+    }
+
+    /**
+     * @param relationshipsPerEntity    The number of relationships to generate for each entity, at least 1
+     */
+    public SyntheticModelGenerator relationshipsPerEntity(double relationshipsPerEntity) {
+        this.relationshipsPerEntity = relationshipsPerEntity;
+        return this;
+    }
+
+    /**
+     * Sets the relative number of each type of relationship
+     */
+    public SyntheticModelGenerator mix(int oneToMany, int manyToMany, int oneToOne) {
+        if (oneToMany + manyToMany + oneToOne <= 0) {
+            throw new IllegalArgumentException("At least one relationship type needs a weight");
+        }
+        this.oneToManyWeight = oneToMany;
+        this.manyToManyWeight = manyToMany;
+        this.oneToOneWeight = oneToOne;
+        return this;
+    }
+
+    /**
+     * Sets the mix from a string of weights such as <code>3:1:1</code>, in the order one to many,
+     * many to many, one to one
+     */
+    public SyntheticModelGenerator mix(String weights) {
+        String[] parts = weights.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected ONE_TO_MANY:MANY_TO_MANY:ONE_TO_ONE weights but was " + weights);
+        }
+        return mix(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+
+    /**
+     * @param attributesPerEntity   The number of attribute shapes written to exports for each entity
+     */
+    public SyntheticModelGenerator attributesPerEntity(int attributesPerEntity) {
+        this.attributesPerEntity = attributesPerEntity;
+        return this;
+    }
+
+    public SyntheticModelGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public ERDPlusEntityRelationshipModel generate() {
+        Random random = new Random(seed);
+        ERDPlusEntityRelationshipModel model = new ERDPlusEntityRelationshipModel();
+        model.version = 2;
+        model.shapes = new ArrayList<>();
+        model.connectors = new ArrayList<>();
+
+        int id = 1;
+        for (int i = 0; i < entities; i++) {
+            model.shapes.add(shape(TYPE.ENTITY, id++, "Entity_" + i));
+        }
+
+        int relationships = entities < 2 ? 0 : Math.max(entities, (int) Math.round(entities * relationshipsPerEntity));
+        for (int r = 0; r < relationships; r++) {
+            // Chain every entity to the next first so none are left out, then pick pairs at random
+            int first = r < entities ? r : random.nextInt(entities);
+            int second = r < entities ? (r + 1) % entities : random.nextInt(entities - 1);
+            if (r >= entities && second >= first) {
+                second++;
+            }
+            RELATIONSHIP_TYPE type = nextType(random);
+
+            ERDPlusShape rel = shape(TYPE.RELATIONSHIP, id++, "relates_" + r);
+            rel.details.slots = new ArrayList<>(2);
+            rel.details.slots.add(slot(0, type == RELATIONSHIP_TYPE.MANY_TO_MANY ? "many" : "one", first + 1));
+            rel.details.slots.add(slot(1, type == RELATIONSHIP_TYPE.ONE_TO_ONE ? "one" : "many", second + 1));
+            model.shapes.add(rel);
+
+            model.connectors.add(connector(id++, 0, first + 1, rel.details.id));
+            model.connectors.add(connector(id++, 1, second + 1, rel.details.id));
+        }
+        return model;
+    }
+
+    private RELATIONSHIP_TYPE nextType(Random random) {
+        int pick = random.nextInt(oneToManyWeight + manyToManyWeight + oneToOneWeight);
+        if (pick < oneToManyWeight) {
+            return RELATIONSHIP_TYPE.ONE_TO_MANY;
+        }
+        if (pick < oneToManyWeight + manyToManyWeight) {
+            return RELATIONSHIP_TYPE.MANY_TO_MANY;
+        }
+        return RELATIONSHIP_TYPE.ONE_TO_ONE;
+    }
+
+    /**
+     * Writes the model as an ERDPlus export, with the layout fields and attribute shapes ERDPlus
+     * writes but the generator does not use
+     *
+     * @param model The model built by {@link #generate()}
+     * @param file  The file to write
+     */
+    public void writeExport(ERDPlusEntityRelationshipModel model, File file) throws IOException {
+        try (JsonGenerator json = new JsonFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            int id = model.shapes.size() + model.connectors.size() + 1;
+            json.writeStartObject();
+            json.writeNumberField("version", model.version);
+            json.writeStringField("www", "erdplus.com");
+            json.writeArrayFieldStart("shapes");
+            for (ERDPlusShape shape : model.shapes) {
+                writeShape(json, shape);
+            }
+            int firstAttribute = id;
+            for (ERDPlusShape shape : model.shapes) {
+                if (TYPE.ENTITY == shape.type) {
+                    for (int a = 0; a < attributesPerEntity; a++) {
+                        writeAttribute(json, id++, shape.details.name.toLowerCase() + "_attribute_" + a, a == 0);
+                    }
+                }
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("connectors");
+            int attribute = firstAttribute;
+            for (ERDPlusShape shape : model.shapes) {
+                if (TYPE.ENTITY == shape.type) {
+                    for (int a = 0; a < attributesPerEntity; a++) {
+                        writeConnector(json, "Connector", id++, -1, attribute++, shape.details.id);
+                    }
+                }
+            }
+            for (ERDPlusConnector connector : model.connectors) {
+                writeConnector(json, connector.type.getTextValue(), connector.details.id, connector.details.slotIndex, connector.source, connector.destination);
+            }
+            json.writeEndArray();
+            json.writeNumberField("width", 2000);
+            json.writeNumberField("height", 1000);
+            json.writeEndObject();
+        }
+    }
+
+    private static ERDPlusShape shape(TYPE type, int id, String name) {
+        ERDPlusShape shape = new ERDPlusShape();
+        shape.type = type;
+        shape.details = new ERDPlusDetails();
+        shape.details.id = id;
+        shape.details.name = name;
+        shape.details.type = "regular";
+        return shape;
+    }
+
+    private static ERDPlusSlot slot(int slotIndex, String cardinality, int entityId) {
+        ERDPlusSlot slot = new ERDPlusSlot();
+        slot.slotIndex = slotIndex;
+        slot.minimum = "";
+        slot.maximum = "";
+        slot.participation = "unspecified";
+        slot.cardinality = cardinality;
+        slot.role = "";
+        slot.entityId = entityId;
+        return slot;
+    }
+
+    private static ERDPlusConnector connector(int id, int slotIndex, int source, int destination) {
+        ERDPlusConnector connector = new ERDPlusConnector();
+        connector.type = TYPE.RELATIONSHIP_CONNECTOR;
+        connector.details = new ERDPlusDetails();
+        connector.details.id = id;
+        connector.details.slotIndex = slotIndex;
+        connector.source = source;
+        connector.destination = destination;
+        return connector;
+    }
+
+    private static void writeShape(JsonGenerator json, ERDPlusShape shape) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", shape.type.getTextValue());
+        json.writeObjectFieldStart("details");
+        json.writeStringField("name", shape.details.name);
+        if (TYPE.ENTITY == shape.type) {
+            json.writeStringField("type", shape.details.type);
+        } else {
+            json.writeBooleanField("isIdentifying", false);
+        }
+        json.writeNumberField("x", (shape.details.id * 37) % 2000);
+        json.writeNumberField("y", (shape.details.id * 53) % 1000);
+        if (shape.details.slots != null) {
+            json.writeArrayFieldStart("slots");
+            for (ERDPlusSlot slot : shape.details.slots) {
+                json.writeStartObject();
+                json.writeNumberField("slotIndex", slot.slotIndex);
+                json.writeStringField("minimum", slot.minimum);
+                json.writeStringField("maximum", slot.maximum);
+                json.writeStringField("participation", slot.participation);
+                json.writeStringField("cardinality", slot.cardinality);
+                json.writeStringField("role", slot.role);
+                json.writeNumberField("entityId", slot.entityId);
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        json.writeNumberField("id", shape.details.id);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static void writeAttribute(JsonGenerator json, int id, String name, boolean unique) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", "Attribute");
+        json.writeObjectFieldStart("details");
+        json.writeStringField("name", name);
+        json.writeBooleanField("isDerived", false);
+        json.writeBooleanField("isMultivalued", false);
+        json.writeBooleanField("isOptional", false);
+        json.writeBooleanField("isComposite", false);
+        json.writeBooleanField("isUnique", unique);
+        json.writeNumberField("x", (id * 37) % 2000);
+        json.writeNumberField("y", (id * 53) % 1000);
+        json.writeNumberField("id", id);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static void writeConnector(JsonGenerator json, String type, int id, int slotIndex, int source, int destination) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("type", type);
+        json.writeObjectFieldStart("details");
+        if (slotIndex >= 0) {
+            json.writeNumberField("slotIndex", slotIndex);
+        }
+        json.writeNumberField("id", id);
+        json.writeEndObject();
+        json.writeNumberField("source", source);
+        json.writeNumberField("destination", destination);
+        json.writeEndObject();
+    }
+}
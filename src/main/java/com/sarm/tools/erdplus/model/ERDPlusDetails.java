@@ -1,5 +1,6 @@
 package com.sarm.tools.erdplus.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 
 /**
@@ -14,6 +15,7 @@ public class ERDPlusDetails {
     public boolean isDerived;
     public boolean isMultivalued;
     public boolean isOptional;
+    @JsonProperty("isComposite")
     public boolean isCompostie;
     public boolean isUnique;
     public List<ERDPlusSlot> slots;
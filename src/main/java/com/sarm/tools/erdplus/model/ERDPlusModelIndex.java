@@ -0,0 +1,160 @@
+package com.sarm.tools.erdplus.model;
+
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A lookup graph built once from an {@link ERDPlusEntityRelationshipModel} so that shapes,
+ * connectors and the relationships of an entity can be found without scanning the model.
+ * <p>
+ * The index may be shared between generator threads, and a streaming reader may keep adding
+ * connectors while entities whose relationships are already complete are being generated.
+ * Every shape is added by a single thread before the index is handed to any other, as the reader
+ * only passes entities on once the shapes have been read, and handing them to a thread pool
+ * publishes the shape lists with them. The lists of shapes are therefore plain lists, appended to
+ * in constant time. What is looked up by connector is held in concurrent maps and lists, so those
+ * lookups never race with connectors being added: a thread sees the connectors added before the
+ * lookup, in model order, and never a partly added one.
+ */
+public class ERDPlusModelIndex {
+
+    private final List<ERDPlusShape> entities = new ArrayList<>();
+    private final List<ERDPlusShape> relationships = new ArrayList<>();
+    private final Map<Integer, ERDPlusShape> shapesById = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<TYPE, List<ERDPlusConnector>>> connectorsBySource = new ConcurrentHashMap<>();
+    private final Map<Integer, List<ERDPlusRelationship>> relationshipsByEntity = new ConcurrentHashMap<>();
+    private final Map<Integer, List<ERDPlusShape>> attributesByShape = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the index for the passed model
+     *
+     * @param model The read in entity model
+     * @return      The index of the model
+     */
+    public static ERDPlusModelIndex of(ERDPlusEntityRelationshipModel model) {
+        ERDPlusModelIndex index = new ERDPlusModelIndex();
+        if (model.shapes != null) {
+            model.shapes.forEach(index::addShape);
+        }
+        if (model.connectors != null) {
+            model.connectors.forEach(index::addConnector);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a shape to the index. Shapes should be added before the connectors that refer to them,
+     * and before the index is shared with other threads.
+     *
+     * @param shape The shape to add
+     */
+    public void addShape(ERDPlusShape shape) {
+        if (shape.details != null) {
+            shapesById.putIfAbsent(shape.details.id, shape);
+        }
+        if (TYPE.ENTITY == shape.type) {
+            entities.add(shape);
+        } else if (TYPE.RELATIONSHIP == shape.type) {
+            relationships.add(shape);
+        }
+    }
+
+    /**
+     * Adds a connector to the index, classifying the relationship it joins its source entity to, or
+     * recording the attribute it joins to its destination entity
+     *
+     * @param connector The connector to add
+     */
+    public void addConnector(ERDPlusConnector connector) {
+        if (connector.type == null) {
+            return;
+        }
+        connectorsBySource
+            .computeIfAbsent(connector.source, source -> new ConcurrentHashMap<>())
+            .computeIfAbsent(connector.type, type -> new CopyOnWriteArrayList<>())
+            .add(connector);
+
+        if (TYPE.RELATIONSHIP_CONNECTOR == connector.type) {
+            ERDPlusShape rel = shapesById.get(connector.destination);
+            relationshipsByEntity
+                .computeIfAbsent(connector.source, source -> new CopyOnWriteArrayList<>())
+                .add(new ERDPlusRelationship(rel, classify(rel)));
+        } else if (TYPE.CONNECTOR == connector.type) {
+            ERDPlusShape attribute = shapesById.get(connector.source);
+            if (attribute != null && TYPE.ATTRIBUTE == attribute.type) {
+                attributesByShape
+                    .computeIfAbsent(connector.destination, destination -> new CopyOnWriteArrayList<>())
+                    .add(attribute);
+            }
+        }
+    }
+
+    private static RELATIONSHIP_TYPE classify(ERDPlusShape rel) {
+        RELATIONSHIP_TYPE type = null;
+        if (rel != null && rel.details != null && rel.details.slots != null && rel.details.slots.size() == 2) {
+            type = RELATIONSHIP_TYPE.forCardinalities(rel.details.slots.get(0).cardinality, rel.details.slots.get(1).cardinality);
+        }
+        if (type == null) {
+            throw new RuntimeException("Failed to identify relationship type for relationship: " + rel);
+        }
+        return type;
+    }
+
+    /**
+     * @return All the entity shapes added so far, in the order they appear in the model
+     */
+    public List<ERDPlusShape> getEntities() {
+        return Collections.unmodifiableList(entities);
+    }
+
+    /**
+     * @return All the relationship shapes added so far, in the order they appear in the model. Their
+     *         slots name the entities they join before any connector has been added.
+     */
+    public List<ERDPlusShape> getRelationships() {
+        return Collections.unmodifiableList(relationships);
+    }
+
+    /**
+     * @param id    The id of the shape
+     * @return      The shape with the passed id or null if there is none
+     */
+    public ERDPlusShape getShape(int id) {
+        return shapesById.get(id);
+    }
+
+    /**
+     * @param sourceId  The id of the shape the connectors start from
+     * @param type      The type of connector
+     * @return          The connectors of the passed type starting at the source, in model order
+     */
+    public List<ERDPlusConnector> getConnectorsForSource(int sourceId, TYPE type) {
+        Map<TYPE, List<ERDPlusConnector>> byType = connectorsBySource.get(sourceId);
+        List<ERDPlusConnector> connectors = byType == null ? null : byType.get(type);
+        return connectors == null ? Collections.emptyList() : Collections.unmodifiableList(connectors);
+    }
+
+    /**
+     * @param shapeId   The id of an entity, or of a composite attribute
+     * @return          The attributes joined to the shape, in connector order
+     */
+    public List<ERDPlusShape> getAttributesForShape(int shapeId) {
+        List<ERDPlusShape> attributes = attributesByShape.get(shapeId);
+        return attributes == null ? Collections.emptyList() : Collections.unmodifiableList(attributes);
+    }
+
+    /**
+     * @param entityId  The id of the entity
+     * @return          The classified relationships the entity takes part in, in connector order
+     */
+    public List<ERDPlusRelationship> getRelationshipsForEntity(int entityId) {
+        List<ERDPlusRelationship> relationships = relationshipsByEntity.get(entityId);
+        return relationships == null ? Collections.emptyList() : Collections.unmodifiableList(relationships);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sarm.tools.erdplus.model;
+
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+
+/**
+ * A relationship shape together with its classified relationship type, as held by the
+ * {@link ERDPlusModelIndex} for each entity that takes part in it
+ */
+public class ERDPlusRelationship {
+    public final ERDPlusShape shape;
+    public final RELATIONSHIP_TYPE type;
+
+    public ERDPlusRelationship(ERDPlusShape shape, RELATIONSHIP_TYPE type) {
+        this.shape = shape;
+        this.type = type;
+    }
+}
@@ -0,0 +1,23 @@
+package com.sarm.tools.erdplus.model.enums;
+
+/**
+ * Which entities are put in the second level cache when they are not configured on their own
+ */
+public enum CACHE_ENTITIES {
+
+    /**
+     * No entity is cached
+     */
+    NONE,
+
+    /**
+     * Entities that are only ever on the 'one' side of their relationships, such as reference and
+     * lookup tables, which are read far more often than they are written
+     */
+    REFERENCE,
+
+    /**
+     * Every entity is cached
+     */
+    ALL
+}
@@ -0,0 +1,28 @@
+package com.sarm.tools.erdplus.model.enums;
+
+/**
+ * The concurrency strategy of a cached entity or collection, named as Hibernate's
+ * <code>CacheConcurrencyStrategy</code> names them
+ */
+public enum CACHE_STRATEGY {
+
+    /**
+     * For data that is never updated
+     */
+    READ_ONLY,
+
+    /**
+     * For data that is rarely updated, where reading a stale value for a moment is acceptable
+     */
+    NONSTRICT_READ_WRITE,
+
+    /**
+     * For data that is updated, kept consistent with soft locks
+     */
+    READ_WRITE,
+
+    /**
+     * For data that is updated, kept consistent by a transactional cache provider
+     */
+    TRANSACTIONAL
+}
@@ -0,0 +1,22 @@
+package com.sarm.tools.erdplus.model.enums;
+
+/**
+ * How the identifiers of generated entities are typed, stored and generated
+ */
+public enum ID_STRATEGY {
+
+    /**
+     * A random UUID held as a String and stored as a VARCHAR
+     */
+    UUID_STRING,
+
+    /**
+     * A Long drawn from a database sequence per entity, allocated in blocks by a pooled optimizer
+     */
+    SEQUENCE,
+
+    /**
+     * A time ordered UUID stored as BINARY(16), so new rows are appended to the end of the index
+     */
+    UUID_BINARY
+}
@@ -0,0 +1,20 @@
+package com.sarm.tools.erdplus.model.enums;
+
+/**
+ * How the two sides of a many to many relationship are mapped to the join table between them
+ */
+public enum MANY_TO_MANY_STRATEGY {
+
+    /**
+     * Each side holds a <code>@ManyToMany</code> collection of the other, and a pair is linked or
+     * unlinked by changing those collections, which loads them first
+     */
+    JOIN_TABLE,
+
+    /**
+     * The join table is mapped by an entity of its own, with the pair of join columns as its
+     * <code>@EmbeddedId</code>, so a pair is linked or unlinked by persisting or removing a row of
+     * it. Each side holds a <code>@OneToMany</code> collection of those rows to query from.
+     */
+    JOIN_ENTITY
+}
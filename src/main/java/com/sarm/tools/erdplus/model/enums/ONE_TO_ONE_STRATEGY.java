@@ -0,0 +1,26 @@
+package com.sarm.tools.erdplus.model.enums;
+
+/**
+ * How the two sides of a one to one relationship are mapped. The entity in the second slot of the
+ * relationship shares the primary key of the entity in the first.
+ */
+public enum ONE_TO_ONE_STRATEGY {
+
+    /**
+     * Both sides are mapped, the second with a primary key join column. The side without the
+     * join column can not be proxied, so it is fetched with its own select whenever its entity is.
+     */
+    PRIMARY_KEY_JOIN,
+
+    /**
+     * Only the second side is mapped, with <code>@MapsId</code> so its id is taken from the
+     * entity it belongs to and it can be found by that id. Nothing is fetched until it is asked for.
+     */
+    MAPS_ID,
+
+    /**
+     * Both sides are mapped as with {@link #PRIMARY_KEY_JOIN} and loaded lazily without proxies,
+     * which needs the entities to be enhanced by the Hibernate enhance plugin when they are built
+     */
+    NO_PROXY
+}
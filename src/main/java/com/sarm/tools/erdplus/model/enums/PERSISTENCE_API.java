@@ -0,0 +1,40 @@
+package com.sarm.tools.erdplus.model.enums;
+
+/**
+ * The package of the JPA API the generated code is written against
+ */
+public enum PERSISTENCE_API {
+
+    /**
+     * <code>javax.persistence</code>, for Hibernate 5
+     */
+    JAVAX("javax.persistence", "5.4.25.Final"),
+
+    /**
+     * <code>jakarta.persistence</code>, for the Jakarta build of Hibernate 5.6,
+     * <code>hibernate-core-jakarta</code>
+     */
+    JAKARTA("jakarta.persistence", "5.6.15.Final");
+
+    private final String packageName;
+    private final String hibernateVersion;
+
+    PERSISTENCE_API(String packageName, String hibernateVersion) {
+        this.packageName = packageName;
+        this.hibernateVersion = hibernateVersion;
+    }
+
+    /**
+     * @return  The package of the JPA annotations and types
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * @return  The version of Hibernate the generated code is written for
+     */
+    public String getHibernateVersion() {
+        return hibernateVersion;
+    }
+}
@@ -6,5 +6,31 @@ package com.sarm.tools.erdplus.model.enums;
 public enum RELATIONSHIP_TYPE {
     ONE_TO_MANY,
     ONE_TO_ONE,
-    MANY_TO_MANY
+    MANY_TO_MANY;
+
+    public static final String CARDINALITY_ONE = "one";
+    public static final String CARDINALITY_MANY = "many";
+
+    /**
+     * Classifies a relationship from the cardinalities of its two slots
+     *
+     * @param first     The cardinality of slot 0
+     * @param second    The cardinality of slot 1
+     * @return          The relationship type or null if the cardinalities are not recognised
+     */
+    public static RELATIONSHIP_TYPE forCardinalities(String first, String second) {
+        if (CARDINALITY_ONE.equals(first) && CARDINALITY_MANY.equals(second)) {
+            return ONE_TO_MANY;
+        }
+        if (CARDINALITY_MANY.equals(first) && CARDINALITY_ONE.equals(second)) {
+            return ONE_TO_MANY;
+        }
+        if (CARDINALITY_ONE.equals(first) && CARDINALITY_ONE.equals(second)) {
+            return ONE_TO_ONE;
+        }
+        if (CARDINALITY_MANY.equals(first) && CARDINALITY_MANY.equals(second)) {
+            return MANY_TO_MANY;
+        }
+        return null;
+    }
 }
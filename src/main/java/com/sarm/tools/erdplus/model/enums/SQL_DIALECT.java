@@ -0,0 +1,117 @@
+package com.sarm.tools.erdplus.model.enums;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The database a generated schema script is written for
+ */
+public enum SQL_DIALECT {
+
+    /**
+     * H2, as used by integration tests
+     */
+    H2("BINARY(16)", 256, '"'),
+
+    /**
+     * PostgreSQL 9.5 and later
+     */
+    POSTGRESQL("BYTEA", 63, '"'),
+
+    /**
+     * MySQL 5.7 and later with InnoDB tables, which has no sequences so they are emulated by tables
+     */
+    MYSQL("BINARY(16)", 64, '`'),
+
+    /**
+     * Oracle 12c and later, keeping to the 30 character names of 12.1
+     */
+    ORACLE("RAW(16)", 30, '"');
+
+    /**
+     * The words reserved by any of the dialects that an upper cased entity or attribute name could
+     * be. They are quoted whatever the dialect, so the entities map the same names on every database.
+     */
+    private static final Set<String> RESERVED_WORDS = new HashSet<>(Arrays.asList(
+        "ACCESS", "ADD", "ALL", "ALTER", "ANALYZE", "AND", "ANY", "ARRAY", "AS", "ASC", "AUDIT", "AUTHORIZATION",
+        "BETWEEN", "BIGINT", "BINARY", "BLOB", "BOTH", "BY", "CALL", "CASCADE", "CASE", "CAST", "CHAR", "CHARACTER",
+        "CHECK", "CLUSTER", "COLLATE", "COLUMN", "COMMENT", "COMPRESS", "CONDITION", "CONNECT", "CONSTRAINT",
+        "CONVERT", "CREATE", "CROSS", "CURRENT", "CURRENT_CATALOG", "CURRENT_DATE", "CURRENT_ROLE",
+        "CURRENT_SCHEMA", "CURRENT_TIME", "CURRENT_TIMESTAMP", "CURRENT_USER", "CURSOR", "DATABASE", "DATE",
+        "DAY", "DEC", "DECIMAL", "DEFAULT", "DELETE", "DESC", "DESCRIBE", "DISTINCT", "DIV", "DO", "DOUBLE", "DROP",
+        "ELSE", "END", "ESCAPE", "EXCEPT", "EXCLUSIVE", "EXISTS", "EXPLAIN", "FALSE", "FETCH", "FILE", "FLOAT",
+        "FOR", "FOREIGN", "FROM", "FULL", "FUNCTION", "GRANT", "GROUP", "GROUPS", "HAVING", "HOUR", "IDENTIFIED",
+        "IF", "ILIKE", "IMMEDIATE", "IN", "INCREMENT", "INDEX", "INITIAL", "INNER", "INSERT", "INT", "INTEGER",
+        "INTERSECT", "INTERSECTS", "INTERVAL", "INTO", "IS", "JOIN", "KEY", "KEYS", "LEADING", "LEFT", "LEVEL",
+        "LIKE", "LIMIT", "LOCALTIME", "LOCALTIMESTAMP", "LOCK", "LONG", "MATCH", "MAXEXTENTS", "MINUS", "MINUTE",
+        "MLSLABEL", "MOD", "MODE", "MODIFY", "MONTH", "NATURAL", "NOAUDIT", "NOCOMPRESS", "NOT", "NOWAIT", "NULL",
+        "NUMBER", "NUMERIC", "OF", "OFFLINE", "OFFSET", "ON", "ONLINE", "ONLY", "OPTION", "OR", "ORDER", "OUTER",
+        "OVER", "PARTITION", "PCTFREE", "PRIMARY", "PRIOR", "PRIVILEGES", "PROCEDURE", "PUBLIC", "QUALIFY", "RANGE",
+        "RAW", "READ", "REAL", "REFERENCES", "REGEXP", "RENAME", "REPLACE", "RESOURCE", "REVOKE", "RIGHT", "ROW",
+        "ROWID", "ROWNUM", "ROWS", "SCHEMA", "SECOND", "SELECT", "SESSION", "SET", "SHARE", "SHOW", "SIZE",
+        "SMALLINT", "SOME", "START", "SUCCESSFUL", "SYNONYM", "SYSDATE", "SYSTIME", "SYSTIMESTAMP", "TABLE", "THEN",
+        "TO", "TODAY", "TOP", "TRAILING", "TRIGGER", "TRUE", "UID", "UNION", "UNIQUE", "UNKNOWN", "UPDATE", "USE",
+        "USER", "USING", "VALIDATE", "VALUE", "VALUES", "VARCHAR", "VARCHAR2", "VIEW", "WHEN", "WHENEVER", "WHERE",
+        "WINDOW", "WITH", "YEAR", "_ROWID_"));
+
+    private final String binaryUuidType;
+    private final int maxIdentifierLength;
+    private final char identifierQuote;
+
+    SQL_DIALECT(String binaryUuidType, int maxIdentifierLength, char identifierQuote) {
+        this.binaryUuidType = binaryUuidType;
+        this.maxIdentifierLength = maxIdentifierLength;
+        this.identifierQuote = identifierQuote;
+    }
+
+    /**
+     * @return  The type of the columns holding a UUID as its 16 bytes
+     */
+    public String getBinaryUuidType() {
+        return binaryUuidType;
+    }
+
+    /**
+     * @return  The longest name a table, column, constraint or index can have
+     */
+    public int getMaxIdentifierLength() {
+        return maxIdentifierLength;
+    }
+
+    /**
+     * Cuts a name longer than the dialect allows short, ending it in a hash of the whole name
+     * instead, as Hibernate does with the names it makes up, so that names sharing a start stay apart
+     *
+     * @param name  An upper cased table, column, constraint or index name
+     * @return      The name, no longer than {@link #getMaxIdentifierLength()}
+     */
+    public String shorten(String name) {
+        if (name.length() <= maxIdentifierLength) {
+            return name;
+        }
+        String hash = String.format("%08X", name.hashCode());
+        StringBuilder shortened = new StringBuilder(name);
+        shortened.setLength(maxIdentifierLength - hash.length() - 1);
+        while (shortened.length() > 0 && shortened.charAt(shortened.length() - 1) == '_') {
+            shortened.setLength(shortened.length() - 1);
+        }
+        return shortened.append('_').append(hash).toString();
+    }
+
+    /**
+     * @param name  An upper cased table or column name
+     * @return      The name quoted for the dialect if it is a reserved word or does not start with a letter
+     */
+    public String quote(String name) {
+        return isQuoted(name) ? identifierQuote + name + identifierQuote : name;
+    }
+
+    /**
+     * @param name  An upper cased table or column name
+     * @return      True if the name has to be quoted on some database, whatever the dialect
+     */
+    public static boolean isQuoted(String name) {
+        return !Character.isLetter(name.charAt(0)) || RESERVED_WORDS.contains(name);
+    }
+}
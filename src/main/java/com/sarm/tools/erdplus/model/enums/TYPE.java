@@ -12,7 +12,9 @@ import java.util.Map;
 public enum TYPE {
     ENTITY("Entity"),
     RELATIONSHIP("Relationship"),
-    RELATIONSHIP_CONNECTOR("RelationshipConnector");
+    RELATIONSHIP_CONNECTOR("RelationshipConnector"),
+    ATTRIBUTE("Attribute"),
+    CONNECTOR("Connector");
 
     private final String textValue;
     private static Map<String, TYPE> namesMap = new HashMap<>();
@@ -0,0 +1,25 @@
+package com.sarm.tools.erdplus.model.enums;
+
+/**
+ * How Hibernate writes the rows of an entity
+ */
+public enum WRITE_MODE {
+
+    /**
+     * Every column is inserted and updated, with statements Hibernate prepares once for the entity
+     */
+    DEFAULT,
+
+    /**
+     * Only the columns that are set are inserted and only those that changed are updated, with
+     * <code>@DynamicInsert</code> and <code>@DynamicUpdate</code>. The statements are built for each
+     * write, which pays off for wide tables where most writes touch few columns.
+     */
+    DYNAMIC,
+
+    /**
+     * The entity is read only, with <code>@Immutable</code> and no setters, so Hibernate neither
+     * keeps a snapshot of it to dirty check nor ever updates it
+     */
+    IMMUTABLE
+}
@@ -0,0 +1,47 @@
+package com.sarm.tools.erdplus.services;
+
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Where the time of a single generation run went, and how much it generated.
+ * <p>
+ * Build times are summed over the threads that built entity beans, so with a parallelism above 1
+ * they can add up to more than the elapsed time of the run. When streaming an export the index is
+ * built as the export is parsed, so its time is part of the parse time, and names are resolved as
+ * the entities are built so their time is part of the build time. When generating from a model
+ * that was already read the parse time is 0.
+ */
+public class ERDPlusGenerationMetrics {
+
+    /**
+     * Time spent reading the export
+     */
+    public long parseMillis;
+
+    /**
+     * Time spent indexing the model and resolving the names of its entities
+     */
+    public long indexMillis;
+
+    /**
+     * Time spent building entity type specs
+     */
+    public long buildMillis;
+
+    /**
+     * Time spent rendering sources and writing them, the manifest and deletions to the output
+     */
+    public long writeMillis;
+
+    public Map<RELATIONSHIP_TYPE, Integer> relationships = new EnumMap<>(RELATIONSHIP_TYPE.class);
+    public long fields;
+    public long bytesWritten;
+
+    @Override
+    public String toString() {
+        return "parse " + parseMillis + "ms, index " + indexMillis + "ms, build " + buildMillis + "ms, write " + writeMillis + "ms; "
+            + relationships + " relationships, " + fields + " fields, " + bytesWritten + " bytes written";
+    }
+}
@@ -0,0 +1,21 @@
+package com.sarm.tools.erdplus.services;
+
+/**
+ * What a single generation run did
+ */
+public class ERDPlusGenerationReport {
+    public String packageName;
+    public String output;
+    public int entities;
+    public int written;
+    public int unchanged;
+    public int removed;
+    public int failed;
+    public long elapsedMillis;
+    public ERDPlusGenerationMetrics metrics = new ERDPlusGenerationMetrics();
+
+    @Override
+    public String toString() {
+        return entities + " entity beans: " + written + " written, " + unchanged + " unchanged, " + removed + " removed, " + failed + " failed in " + elapsedMillis + "ms";
+    }
+}
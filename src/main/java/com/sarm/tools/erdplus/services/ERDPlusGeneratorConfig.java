@@ -0,0 +1,591 @@
+package com.sarm.tools.erdplus.services;
+
+import com.sarm.tools.erdplus.model.enums.CACHE_ENTITIES;
+import com.sarm.tools.erdplus.model.enums.CACHE_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.ID_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.MANY_TO_MANY_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.ONE_TO_ONE_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.PERSISTENCE_API;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.SQL_DIALECT;
+import com.sarm.tools.erdplus.model.enums.WRITE_MODE;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The options controlling what the generator emits, read from a properties file. With no options
+ * set the generated beans map the same tables as before, but they differ from the old output in
+ * that:
+ * <ul>
+ * <li>foreign key columns and join table columns are indexed</li>
+ * <li>cascades name {@code CascadeType.ALL} instead of the string {@code "CascadeType.All"}</li>
+ * <li>the side holding the join table owns a many to many mapping, and its join columns are the
+ * other way round to match</li>
+ * <li>fetch, cascade and generation types are qualified by their enum instead of statically
+ * imported</li>
+ * <li>table and column names that are reserved words are quoted, and spaces in them become
+ * underscores</li>
+ * </ul>
+ * <p>
+ * The fetch profile of each association is looked up by its relationship name first, then by its
+ * relationship type and then by the default, so that a default can be tuned for a type of
+ * relationship or for a single relationship:
+ * <pre>
+ * # LAZY on every to one association, one to one associations are always lazy
+ * fetch.lazy=true
+ * # @BatchSize on entity classes and collections, 0 for none
+ * fetch.batchSize=25
+ * # @Fetch(SUBSELECT) on collections
+ * fetch.subselect=false
+ * fetch.MANY_TO_MANY.batchSize=50
+ * fetch.relationship.has_children.subselect=true
+ * </pre>
+ * The identifiers of every entity are generated with the same strategy:
+ * <pre>
+ * # UUID_STRING, SEQUENCE or UUID_BINARY
+ * id.strategy=SEQUENCE
+ * # The number of sequence values allocated at a time, and how they are handed out
+ * id.allocationSize=50
+ * id.optimizer=pooled-lo
+ * </pre>
+ * One to one relationships are all mapped the same way:
+ * <pre>
+ * # PRIMARY_KEY_JOIN, MAPS_ID to map only the side sharing the other's key, or NO_PROXY to load
+ * # both sides lazily once enhanced by the plugin configured in hibernate-enhance-plugin.xml
+ * oneToOne.strategy=MAPS_ID
+ * </pre>
+ * As are many to many relationships:
+ * <pre>
+ * # JOIN_TABLE, or JOIN_ENTITY to map each join table by an entity with a composite key so that
+ * # pairs are linked and unlinked without loading either side's collection
+ * manyToMany.strategy=JOIN_ENTITY
+ * </pre>
+ * The schema the entities map to:
+ * <pre>
+ * # An index on each foreign key column and a unique constraint on each join table
+ * schema.indexes=true
+ * # A column for each attribute of an entity, with unique constraints on its unique attributes
+ * schema.attributes=false
+ * # A schema.sql script creating the tables, sequences, foreign keys and indexes of the entities
+ * schema.ddl=true
+ * # H2, POSTGRESQL, MYSQL or ORACLE
+ * schema.dialect=POSTGRESQL
+ * </pre>
+ * Entities are put in the second level cache by a default, and can each be configured by their
+ * class name:
+ * <pre>
+ * # NONE, REFERENCE for entities only on the 'one' side of their relationships, or ALL
+ * cache.entities=REFERENCE
+ * # The concurrency strategy of cached entities and collections
+ * cache.strategy=READ_WRITE
+ * # Cache the collections of cached entities whose elements are cached too
+ * cache.collections=true
+ * # true, false or the concurrency strategy of a single entity
+ * cache.entity.Country=READ_ONLY
+ * cache.entity.Order=false
+ * </pre>
+ * How the rows of entities are written is worked out from their width and their names, and can be
+ * configured for each entity by its class name:
+ * <pre>
+ * # @DynamicInsert and @DynamicUpdate on entities with at least this many columns, 0 for none
+ * write.dynamicColumns=12
+ * # @Immutable and no setters on entities whose class name matches
+ * write.immutablePattern=.*(Type|Status)
+ * # DEFAULT, DYNAMIC or IMMUTABLE for a single entity
+ * write.entity.Country=IMMUTABLE
+ * write.entity.OrderType=DEFAULT
+ * </pre>
+ * A loader inserting entities in foreign key order can be generated alongside them:
+ * <pre>
+ * # A BulkLoader class and a bulk-loader.properties fragment enabling JDBC batching
+ * bulk.loader=true
+ * # The number of inserts sent to the database at a time
+ * bulk.batchSize=50
+ * </pre>
+ * Named entity graphs can be generated for loading an entity together with its associations:
+ * <pre>
+ * # A graph for each association of an entity, and one of its associations to a depth
+ * graphs=true
+ * graphs.depth=2
+ * </pre>
+ * The entities can be listed up front so that neither they nor their metamodel are found by
+ * scanning the class path when an application starts:
+ * <pre>
+ * # A JPA static metamodel class for each entity, such as Order_ for Order
+ * metamodel=true
+ * # An EntityRegistry class listing every entity class
+ * registry=true
+ * </pre>
+ * Plain JDBC read models can be generated alongside the entities for read paths that bypass Hibernate:
+ * <pre>
+ * # An immutable OrderRow and an OrderRowMapper with the SQL selecting it for each entity
+ * jdbc.readModels=true
+ * </pre>
+ * A harness measuring the entities on an embedded H2 database can be generated to compare options:
+ * <pre>
+ * # A LoadTest class timing inserts, selects by id and association fetches of each entity, in
+ * # transactions and JDBC batches of bulk.batchSize rows by default
+ * loadTest=true
+ * </pre>
+ * The generated code is written against <code>javax.persistence</code> unless told otherwise:
+ * <pre>
+ * # JAVAX, or JAKARTA for jakarta.persistence and the Jakarta build of Hibernate 5.6
+ * persistence.api=JAKARTA
+ * </pre>
+ */
+public class ERDPlusGeneratorConfig {
+
+    public static final String FETCH_LAZY = "lazy";
+    public static final String FETCH_BATCH_SIZE = "batchSize";
+    public static final String FETCH_SUBSELECT = "subselect";
+    public static final String ID_STRATEGY_OPTION = "id.strategy";
+    public static final String ID_ALLOCATION_SIZE = "id.allocationSize";
+    public static final String ID_OPTIMIZER = "id.optimizer";
+    public static final String ONE_TO_ONE_STRATEGY_OPTION = "oneToOne.strategy";
+    public static final String MANY_TO_MANY_STRATEGY_OPTION = "manyToMany.strategy";
+    public static final String SCHEMA_INDEXES = "schema.indexes";
+    public static final String SCHEMA_ATTRIBUTES = "schema.attributes";
+    public static final String SCHEMA_DDL = "schema.ddl";
+    public static final String SCHEMA_DIALECT = "schema.dialect";
+    public static final String CACHE_ENTITIES_OPTION = "cache.entities";
+    public static final String CACHE_STRATEGY_OPTION = "cache.strategy";
+    public static final String CACHE_COLLECTIONS = "cache.collections";
+    public static final String CACHE_ENTITY_PREFIX = "cache.entity.";
+    public static final String WRITE_DYNAMIC_COLUMNS = "write.dynamicColumns";
+    public static final String WRITE_IMMUTABLE_PATTERN = "write.immutablePattern";
+    public static final String WRITE_ENTITY_PREFIX = "write.entity.";
+    public static final String BULK_LOADER = "bulk.loader";
+    public static final String BULK_BATCH_SIZE = "bulk.batchSize";
+    public static final String GRAPHS = "graphs";
+    public static final String GRAPHS_DEPTH = "graphs.depth";
+    public static final String METAMODEL = "metamodel";
+    public static final String REGISTRY = "registry";
+    public static final String JDBC_READ_MODELS = "jdbc.readModels";
+    public static final String LOAD_TEST = "loadTest";
+    public static final String PERSISTENCE_API_OPTION = "persistence.api";
+
+    private final Map<String, String> properties = new TreeMap<>();
+    private final Map<String, FetchProfile> fetchProfiles = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the options from a properties file
+     *
+     * @param file  The properties file
+     * @return      The options
+     */
+    public static ERDPlusGeneratorConfig load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        ERDPlusGeneratorConfig config = new ERDPlusGeneratorConfig();
+        properties.stringPropertyNames().forEach(name -> config.set(name, properties.getProperty(name)));
+        return config;
+    }
+
+    /**
+     * Sets an option
+     *
+     * @param name  The name of the option, as in the properties file
+     * @param value The value of the option, or null to remove it
+     * @return      This config
+     */
+    public ERDPlusGeneratorConfig set(String name, String value) {
+        if (value == null) {
+            properties.remove(name);
+        } else {
+            properties.put(name, value.trim());
+        }
+        fetchProfiles.clear();
+        return this;
+    }
+
+    public String get(String name) {
+        return properties.get(name);
+    }
+
+    public boolean isEmpty() {
+        return properties.isEmpty();
+    }
+
+    /**
+     * @return  Every option set, one <code>name=value</code> per line sorted by name, so that any change
+     *          to the options changes the input hash of every entity
+     */
+    public String getFingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        properties.forEach((name, value) -> fingerprint.append(name).append('=').append(value).append('\n'));
+        return fingerprint.toString();
+    }
+
+    /**
+     * @param type              The type of the relationship
+     * @param relationshipName  The name of the relationship
+     * @return                  The fetch profile of the associations of the relationship
+     */
+    public FetchProfile getFetchProfile(RELATIONSHIP_TYPE type, String relationshipName) {
+        String key = type + "/" + relationshipName;
+        FetchProfile profile = fetchProfiles.get(key);
+        if (profile == null) {
+            String[] prefixes = {"fetch.relationship." + relationshipName + ".", "fetch." + type + ".", "fetch."};
+            profile = new FetchProfile(
+                getBoolean(prefixes, FETCH_LAZY, false),
+                getInt(prefixes, FETCH_BATCH_SIZE, 0),
+                getBoolean(prefixes, FETCH_SUBSELECT, false));
+            fetchProfiles.put(key, profile);
+        }
+        return profile;
+    }
+
+    /**
+     * @return  The batch size of entity classes, 0 for none
+     */
+    public int getEntityBatchSize() {
+        return getInt(new String[]{"fetch."}, FETCH_BATCH_SIZE, 0);
+    }
+
+    /**
+     * @return  True if any association is lazily fetched through a proxy, so entity classes must not
+     *          be final for Hibernate to proxy them
+     */
+    public boolean isLazyFetchUsed() {
+        return getOneToOneStrategy() == ONE_TO_ONE_STRATEGY.MAPS_ID || getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_ENTITY || properties.entrySet().stream()
+            .anyMatch(option -> option.getKey().startsWith("fetch.") && option.getKey().endsWith("." + FETCH_LAZY) && Boolean.parseBoolean(option.getValue()));
+    }
+
+    public ONE_TO_ONE_STRATEGY getOneToOneStrategy() {
+        String value = properties.get(ONE_TO_ONE_STRATEGY_OPTION);
+        if (value == null) {
+            return ONE_TO_ONE_STRATEGY.PRIMARY_KEY_JOIN;
+        }
+        try {
+            return ONE_TO_ONE_STRATEGY.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + ONE_TO_ONE_STRATEGY_OPTION + " expects one of " + Arrays.toString(ONE_TO_ONE_STRATEGY.values()) + " but was: " + value, e);
+        }
+    }
+
+    public MANY_TO_MANY_STRATEGY getManyToManyStrategy() {
+        String value = properties.get(MANY_TO_MANY_STRATEGY_OPTION);
+        if (value == null) {
+            return MANY_TO_MANY_STRATEGY.JOIN_TABLE;
+        }
+        try {
+            return MANY_TO_MANY_STRATEGY.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + MANY_TO_MANY_STRATEGY_OPTION + " expects one of " + Arrays.toString(MANY_TO_MANY_STRATEGY.values()) + " but was: " + value, e);
+        }
+    }
+
+    /**
+     * @return  The persistence API the generated code is written against, javax by default
+     */
+    public PERSISTENCE_API getPersistenceApi() {
+        String value = properties.get(PERSISTENCE_API_OPTION);
+        if (value == null) {
+            return PERSISTENCE_API.JAVAX;
+        }
+        try {
+            return PERSISTENCE_API.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + PERSISTENCE_API_OPTION + " expects one of " + Arrays.toString(PERSISTENCE_API.values()) + " but was: " + value, e);
+        }
+    }
+
+    public ID_STRATEGY getIdStrategy() {
+        String value = properties.get(ID_STRATEGY_OPTION);
+        if (value == null) {
+            return ID_STRATEGY.UUID_STRING;
+        }
+        try {
+            return ID_STRATEGY.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + ID_STRATEGY_OPTION + " expects one of " + Arrays.toString(ID_STRATEGY.values()) + " but was: " + value, e);
+        }
+    }
+
+    /**
+     * @return  The number of sequence values allocated at a time by the {@link ID_STRATEGY#SEQUENCE} strategy
+     */
+    public int getIdAllocationSize() {
+        int allocationSize = getInt(new String[]{""}, ID_ALLOCATION_SIZE, 50);
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("Option " + ID_ALLOCATION_SIZE + " must be at least 1 but was " + allocationSize);
+        }
+        return allocationSize;
+    }
+
+    /**
+     * @return  The Hibernate optimizer handing out allocated sequence values, <code>pooled</code> or <code>pooled-lo</code>
+     */
+    public String getIdOptimizer() {
+        String optimizer = properties.getOrDefault(ID_OPTIMIZER, "pooled");
+        if (!"pooled".equals(optimizer) && !"pooled-lo".equals(optimizer)) {
+            throw new IllegalArgumentException("Option " + ID_OPTIMIZER + " expects pooled or pooled-lo but was: " + optimizer);
+        }
+        return optimizer;
+    }
+
+    /**
+     * @return  True to index every foreign key column and constrain every join table to unique pairs
+     */
+    public boolean isIndexesGenerated() {
+        return getBoolean(new String[]{""}, SCHEMA_INDEXES, true);
+    }
+
+    /**
+     * @return  True to map the attributes of each entity to columns. Attributes are only joined to
+     *          their entities by connectors, so the entities of a streamed export are held back
+     *          until it has all been read.
+     */
+    public boolean isAttributesGenerated() {
+        return getBoolean(new String[]{""}, SCHEMA_ATTRIBUTES, false);
+    }
+
+    /**
+     * @return  True to write a script creating the schema of the entities, so that it need not be
+     *          created or validated by Hibernate when an application starts
+     */
+    public boolean isSchemaScriptGenerated() {
+        return getBoolean(new String[]{""}, SCHEMA_DDL, false);
+    }
+
+    public SQL_DIALECT getSchemaDialect() {
+        String value = properties.get(SCHEMA_DIALECT);
+        if (value == null) {
+            return SQL_DIALECT.H2;
+        }
+        try {
+            return SQL_DIALECT.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + SCHEMA_DIALECT + " expects one of " + Arrays.toString(SQL_DIALECT.values()) + " but was: " + value, e);
+        }
+    }
+
+    public CACHE_ENTITIES getCacheEntities() {
+        String value = properties.get(CACHE_ENTITIES_OPTION);
+        if (value == null) {
+            return CACHE_ENTITIES.NONE;
+        }
+        try {
+            return CACHE_ENTITIES.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + CACHE_ENTITIES_OPTION + " expects one of " + Arrays.toString(CACHE_ENTITIES.values()) + " but was: " + value, e);
+        }
+    }
+
+    /**
+     * @param className         The class name of an entity
+     * @param cachedByDefault   True if the entity is cached unless it is configured on its own
+     * @return                  The concurrency strategy the entity is cached with, or null if it is not cached
+     */
+    public CACHE_STRATEGY getEntityCacheStrategy(String className, boolean cachedByDefault) {
+        String name = CACHE_ENTITY_PREFIX + className;
+        String value = properties.get(name);
+        if (value == null) {
+            return cachedByDefault ? getCacheStrategy() : null;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return null;
+        }
+        if ("true".equalsIgnoreCase(value)) {
+            return getCacheStrategy();
+        }
+        return getCacheStrategy(name, value);
+    }
+
+    /**
+     * An entity configured on its own is written as configured. Otherwise it is immutable if its
+     * class name matches the immutable pattern, and written dynamically if it is wide enough.
+     *
+     * @param className The class name of an entity
+     * @param columns   The number of columns of the entities table
+     * @return          How the rows of the entity are written
+     */
+    public WRITE_MODE getEntityWriteMode(String className, int columns) {
+        String name = WRITE_ENTITY_PREFIX + className;
+        String value = properties.get(name);
+        if (value != null) {
+            try {
+                return WRITE_MODE.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Option " + name + " expects one of " + Arrays.toString(WRITE_MODE.values()) + " but was: " + value, e);
+            }
+        }
+        Pattern immutablePattern = getImmutablePattern();
+        if (immutablePattern != null && immutablePattern.matcher(className).matches()) {
+            return WRITE_MODE.IMMUTABLE;
+        }
+        int dynamicColumns = getInt(new String[]{""}, WRITE_DYNAMIC_COLUMNS, 0);
+        return dynamicColumns > 0 && columns >= dynamicColumns ? WRITE_MODE.DYNAMIC : WRITE_MODE.DEFAULT;
+    }
+
+    /**
+     * @return  The pattern matching the class names of the entities that are read only, or null if there is none
+     */
+    public Pattern getImmutablePattern() {
+        String value = properties.get(WRITE_IMMUTABLE_PATTERN);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(value);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Option " + WRITE_IMMUTABLE_PATTERN + " expects a regular expression but was: " + value, e);
+        }
+    }
+
+    /**
+     * @return  True to cache the collections of cached entities whose elements are cached too
+     */
+    public boolean isCollectionCacheUsed() {
+        return getBoolean(new String[]{""}, CACHE_COLLECTIONS, true);
+    }
+
+    /**
+     * @return  True if any entity may be cached
+     */
+    public boolean isCacheUsed() {
+        return getCacheEntities() != CACHE_ENTITIES.NONE || properties.keySet().stream().anyMatch(name -> name.startsWith(CACHE_ENTITY_PREFIX));
+    }
+
+    /**
+     * @return  The concurrency strategy of cached entities and collections
+     */
+    public CACHE_STRATEGY getCacheStrategy() {
+        return getCacheStrategy(CACHE_STRATEGY_OPTION, properties.getOrDefault(CACHE_STRATEGY_OPTION, CACHE_STRATEGY.READ_WRITE.name()));
+    }
+
+    /**
+     * @return  True to generate a loader inserting entities in foreign key order, and the properties
+     *          enabling JDBC batching to go with it
+     */
+    public boolean isBulkLoaderGenerated() {
+        return getBoolean(new String[]{""}, BULK_LOADER, false);
+    }
+
+    /**
+     * @return  The JDBC batch size of the bulk loader and its properties
+     */
+    public int getBulkBatchSize() {
+        int batchSize = getInt(new String[]{""}, BULK_BATCH_SIZE, 50);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Option " + BULK_BATCH_SIZE + " must be at least 1 but was " + batchSize);
+        }
+        return batchSize;
+    }
+
+    /**
+     * @return  True to generate named entity graphs on each entity
+     */
+    public boolean isGraphsGenerated() {
+        return getBoolean(new String[]{""}, GRAPHS, false);
+    }
+
+    /**
+     * @return  True to generate the JPA static metamodel of the entities
+     */
+    public boolean isMetamodelGenerated() {
+        return getBoolean(new String[]{""}, METAMODEL, false);
+    }
+
+    /**
+     * @return  True to generate a registry of the entity classes, to add them to Hibernate without scanning for them
+     */
+    public boolean isRegistryGenerated() {
+        return getBoolean(new String[]{""}, REGISTRY, false);
+    }
+
+    /**
+     * @return  True to generate a row class and a JDBC mapper of it for each entity
+     */
+    public boolean isReadModelGenerated() {
+        return getBoolean(new String[]{""}, JDBC_READ_MODELS, false);
+    }
+
+    /**
+     * @return  True to generate a harness measuring inserts, selects and fetches of the entities on H2
+     */
+    public boolean isLoadTestGenerated() {
+        return getBoolean(new String[]{""}, LOAD_TEST, false);
+    }
+
+    /**
+     * @return  The depth of associations the association graph of each entity follows, 1 for only
+     *          its own associations
+     */
+    public int getGraphDepth() {
+        int depth = getInt(new String[]{""}, GRAPHS_DEPTH, 2);
+        if (depth < 1) {
+            throw new IllegalArgumentException("Option " + GRAPHS_DEPTH + " must be at least 1 but was " + depth);
+        }
+        return depth;
+    }
+
+    /**
+     * @return  True if an entity is generated from more of the model than its own relationships, so
+     *          a streamed export must be read in full before any entity is generated
+     */
+    public boolean isWholeModelNeeded() {
+        return isAttributesGenerated() || (isGraphsGenerated() && getGraphDepth() > 1) || getOneToOneStrategy() == ONE_TO_ONE_STRATEGY.MAPS_ID;
+    }
+
+    private static CACHE_STRATEGY getCacheStrategy(String name, String value) {
+        try {
+            return CACHE_STRATEGY.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Option " + name + " expects READ_ONLY, NONSTRICT_READ_WRITE, READ_WRITE or TRANSACTIONAL but was: " + value, e);
+        }
+    }
+
+    private String lookup(String[] prefixes, String name) {
+        for (String prefix : prefixes) {
+            String value = properties.get(prefix + name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private boolean getBoolean(String[] prefixes, String name, boolean defaultValue) {
+        String value = lookup(prefixes, name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    private int getInt(String[] prefixes, String name, int defaultValue) {
+        String value = lookup(prefixes, name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option " + name + " expects a number but was: " + value, e);
+        }
+    }
+
+    /**
+     * How the associations of a relationship are fetched
+     */
+    public static final class FetchProfile {
+        public final boolean lazy;
+        public final int batchSize;
+        public final boolean subselect;
+
+        public FetchProfile(boolean lazy, int batchSize, boolean subselect) {
+            this.lazy = lazy;
+            this.batchSize = batchSize;
+            this.subselect = subselect;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.sarm.tools.erdplus.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Where the generator writes the files it generates. Paths are relative to the root of the output
+ * and always separated by '/'.
+ * <p>
+ * The generator closes the sink at the end of each run to flush it. A sink that is written to
+ * again after being closed starts a new output.
+ */
+public interface ERDPlusOutputSink extends Closeable {
+
+    /**
+     * @param path      The path of the file
+     * @param content   The content of the file
+     */
+    void write(String path, byte[] content) throws IOException;
+
+    /**
+     * @param path  The path of the file
+     * @return      The content of a file already in the output or null if there is no such file
+     */
+    byte[] read(String path) throws IOException;
+
+    /**
+     * @param path  The path of the file
+     * @return      True if there is a file already in the output at the path
+     */
+    boolean exists(String path) throws IOException;
+
+    /**
+     * @param path  The path of the file
+     * @return      True if the file was in the output and has been deleted
+     */
+    boolean delete(String path) throws IOException;
+
+    /**
+     * @return True if files written by an earlier run can be read back and deleted, which incremental
+     *         generation needs
+     */
+    default boolean canReadBack() {
+        return true;
+    }
+}
@@ -0,0 +1,164 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.enums.PERSISTENCE_API;
+import com.squareup.javapoet.ClassName;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The names of the JPA, Hibernate and Lombok types the generated code refers to. They are named
+ * rather than taken from class literals so that generating code loads none of those libraries,
+ * which are only needed to compile and run the generated code, not to generate it. The JPA types
+ * are named in the package of the persistence API the code is generated for.
+ */
+final class ERDPlusAnnotationCatalog {
+
+    private static final String HIBERNATE = "org.hibernate";
+    private static final String HIBERNATE_ANNOTATIONS = "org.hibernate.annotations";
+    private static final String LOMBOK = "lombok";
+    private static final Map<PERSISTENCE_API, ERDPlusAnnotationCatalog> CATALOGS = new EnumMap<>(PERSISTENCE_API.class);
+
+    static {
+        for (PERSISTENCE_API api : PERSISTENCE_API.values()) {
+            CATALOGS.put(api, new ERDPlusAnnotationCatalog(api));
+        }
+    }
+
+    /**
+     * The strategies and parameters of the Hibernate id generators, as <code>@GenericGenerator</code> names them
+     */
+    static final String UUID_GENERATOR = "org.hibernate.id.UUIDGenerator";
+    static final String SEQUENCE_STYLE_GENERATOR = "org.hibernate.id.enhanced.SequenceStyleGenerator";
+    static final String SEQUENCE_PARAM = "sequence_name";
+    static final String INCREMENT_PARAM = "increment_size";
+    static final String OPT_PARAM = "optimizer";
+
+    final PERSISTENCE_API api;
+
+    // JPA
+    final ClassName cacheable;
+    final ClassName cascadeType;
+    final ClassName column;
+    final ClassName embeddable;
+    final ClassName embeddedId;
+    final ClassName entity;
+    final ClassName fetchType;
+    final ClassName generatedValue;
+    final ClassName generationType;
+    final ClassName id;
+    final ClassName index;
+    final ClassName joinColumn;
+    final ClassName joinTable;
+    final ClassName manyToMany;
+    final ClassName manyToOne;
+    final ClassName mapsId;
+    final ClassName namedAttributeNode;
+    final ClassName namedEntityGraph;
+    final ClassName namedEntityGraphs;
+    final ClassName namedSubgraph;
+    final ClassName oneToMany;
+    final ClassName oneToOne;
+    final ClassName primaryKeyJoinColumn;
+    final ClassName table;
+    final ClassName uniqueConstraint;
+    final ClassName setAttribute;
+    final ClassName singularAttribute;
+    final ClassName staticMetamodel;
+
+    // Hibernate annotations
+    final ClassName batchSize = ClassName.get(HIBERNATE_ANNOTATIONS, "BatchSize");
+    final ClassName cache = ClassName.get(HIBERNATE_ANNOTATIONS, "Cache");
+    final ClassName cacheConcurrencyStrategy = ClassName.get(HIBERNATE_ANNOTATIONS, "CacheConcurrencyStrategy");
+    final ClassName dynamicInsert = ClassName.get(HIBERNATE_ANNOTATIONS, "DynamicInsert");
+    final ClassName dynamicUpdate = ClassName.get(HIBERNATE_ANNOTATIONS, "DynamicUpdate");
+    final ClassName fetch = ClassName.get(HIBERNATE_ANNOTATIONS, "Fetch");
+    final ClassName fetchMode = ClassName.get(HIBERNATE_ANNOTATIONS, "FetchMode");
+    final ClassName genericGenerator = ClassName.get(HIBERNATE_ANNOTATIONS, "GenericGenerator");
+    final ClassName immutable = ClassName.get(HIBERNATE_ANNOTATIONS, "Immutable");
+    final ClassName lazyToOne = ClassName.get(HIBERNATE_ANNOTATIONS, "LazyToOne");
+    final ClassName lazyToOneOption = ClassName.get(HIBERNATE_ANNOTATIONS, "LazyToOneOption");
+    final ClassName parameter = ClassName.get(HIBERNATE_ANNOTATIONS, "Parameter");
+    final ClassName type = ClassName.get(HIBERNATE_ANNOTATIONS, "Type");
+
+    // Hibernate
+    final ClassName availableSettings = ClassName.get(HIBERNATE + ".cfg", "AvailableSettings");
+    final ClassName h2Dialect = ClassName.get(HIBERNATE + ".dialect", "H2Dialect");
+    final ClassName hibernate = ClassName.get(HIBERNATE, "Hibernate");
+    final ClassName identifierGenerator = ClassName.get(HIBERNATE + ".id", "IdentifierGenerator");
+    final ClassName lockOptions = ClassName.get(HIBERNATE, "LockOptions");
+    final ClassName metadataSources = ClassName.get(HIBERNATE + ".boot", "MetadataSources");
+    final ClassName session = ClassName.get(HIBERNATE, "Session");
+    final ClassName sessionFactory = ClassName.get(HIBERNATE, "SessionFactory");
+    final ClassName sharedSessionContractImplementor = ClassName.get(HIBERNATE + ".engine.spi", "SharedSessionContractImplementor");
+    final ClassName standardServiceRegistry = ClassName.get(HIBERNATE + ".boot.registry", "StandardServiceRegistry");
+    final ClassName standardServiceRegistryBuilder = ClassName.get(HIBERNATE + ".boot.registry", "StandardServiceRegistryBuilder");
+    final ClassName statelessSession = ClassName.get(HIBERNATE, "StatelessSession");
+    final ClassName statistics = ClassName.get(HIBERNATE + ".stat", "Statistics");
+    final ClassName transaction = ClassName.get(HIBERNATE, "Transaction");
+
+    // Lombok
+    final ClassName allArgsConstructor = ClassName.get(LOMBOK, "AllArgsConstructor");
+    final ClassName equalsAndHashCode = ClassName.get(LOMBOK, "EqualsAndHashCode");
+    final ClassName getter = ClassName.get(LOMBOK, "Getter");
+    final ClassName noArgsConstructor = ClassName.get(LOMBOK, "NoArgsConstructor");
+    final ClassName setter = ClassName.get(LOMBOK, "Setter");
+    final ClassName value = ClassName.get(LOMBOK, "Value");
+
+    private ERDPlusAnnotationCatalog(PERSISTENCE_API api) {
+        this.api = api;
+        String jpa = api.getPackageName();
+        String metamodel = jpa + ".metamodel";
+        cacheable = ClassName.get(jpa, "Cacheable");
+        cascadeType = ClassName.get(jpa, "CascadeType");
+        column = ClassName.get(jpa, "Column");
+        embeddable = ClassName.get(jpa, "Embeddable");
+        embeddedId = ClassName.get(jpa, "EmbeddedId");
+        entity = ClassName.get(jpa, "Entity");
+        fetchType = ClassName.get(jpa, "FetchType");
+        generatedValue = ClassName.get(jpa, "GeneratedValue");
+        generationType = ClassName.get(jpa, "GenerationType");
+        id = ClassName.get(jpa, "Id");
+        index = ClassName.get(jpa, "Index");
+        joinColumn = ClassName.get(jpa, "JoinColumn");
+        joinTable = ClassName.get(jpa, "JoinTable");
+        manyToMany = ClassName.get(jpa, "ManyToMany");
+        manyToOne = ClassName.get(jpa, "ManyToOne");
+        mapsId = ClassName.get(jpa, "MapsId");
+        namedAttributeNode = ClassName.get(jpa, "NamedAttributeNode");
+        namedEntityGraph = ClassName.get(jpa, "NamedEntityGraph");
+        namedEntityGraphs = ClassName.get(jpa, "NamedEntityGraphs");
+        namedSubgraph = ClassName.get(jpa, "NamedSubgraph");
+        oneToMany = ClassName.get(jpa, "OneToMany");
+        oneToOne = ClassName.get(jpa, "OneToOne");
+        primaryKeyJoinColumn = ClassName.get(jpa, "PrimaryKeyJoinColumn");
+        table = ClassName.get(jpa, "Table");
+        uniqueConstraint = ClassName.get(jpa, "UniqueConstraint");
+        setAttribute = ClassName.get(metamodel, "SetAttribute");
+        singularAttribute = ClassName.get(metamodel, "SingularAttribute");
+        staticMetamodel = ClassName.get(metamodel, "StaticMetamodel");
+    }
+
+    /**
+     * @return  The artifact of each library the generated code is compiled against, by the name of a
+     *          type found in it
+     */
+    Map<String, String> getLibraryArtifacts() {
+        Map<String, String> artifacts = new LinkedHashMap<>();
+        artifacts.put(entity.toString(), api == PERSISTENCE_API.JAKARTA
+            ? "jakarta.persistence:jakarta.persistence-api"
+            : "org.hibernate.javax.persistence:hibernate-jpa-2.1-api");
+        artifacts.put(session.toString(), (api == PERSISTENCE_API.JAKARTA ? "org.hibernate:hibernate-core-jakarta:" : "org.hibernate:hibernate-core:")
+            + api.getHibernateVersion());
+        artifacts.put(getter.toString(), "org.projectlombok:lombok");
+        return artifacts;
+    }
+
+    /**
+     * @param api   The persistence API the code is generated for
+     * @return      The names of the types the code refers to
+     */
+    static ERDPlusAnnotationCatalog of(PERSISTENCE_API api) {
+        return CATALOGS.get(api);
+    }
+}
@@ -0,0 +1,245 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarm.tools.erdplus.services.ERDPlusGenerationReport;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates the entity beans for many ERDPlus exports in one JVM, such as one export per bounded
+ * context. The models are generated concurrently on a shared executor with a shared object mapper,
+ * each into its own package under the same output directory. A model that fails does not stop the
+ * others, and a summary of every model is printed once they are all done.
+ * <p>
+ * Each model keeps its own incremental generation manifest in its package directory, so models
+ * sharing the output directory never delete each others sources.
+ */
+public class ERDPlusBatchGenerator {
+
+    /**
+     * The file in a directory of exports mapping export file names to package names
+     */
+    public static final String PACKAGES_FILE_NAME = "packages.properties";
+
+    private final File outputDir;
+    private final int threads;
+    private final ObjectMapper mapper = ERDPlusImportServiceImpl.newMapper();
+    private final Map<File, String> packagesByExport = new LinkedHashMap<>();
+    private final Map<File, Properties> packageFiles = new HashMap<>();
+    private boolean incremental;
+    private ERDPlusGeneratorConfig config = new ERDPlusGeneratorConfig();
+    private PrintStream log = System.out;
+
+    /**
+     * @param outputDir The directory to write the generated sources of every model to
+     * @param threads   The number of models to generate at once
+     */
+    public ERDPlusBatchGenerator(File outputDir, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be at least 1 but was " + threads);
+        }
+        this.outputDir = outputDir;
+        this.threads = threads;
+    }
+
+    /**
+     * Adds an export to generate, replacing the package of an export that was already added
+     *
+     * @param exportFile    The ERDPlus export
+     * @param packageName   The package of its entity beans
+     */
+    public void add(File exportFile, String packageName) {
+        for (Map.Entry<File, String> added : packagesByExport.entrySet()) {
+            if (added.getValue().equals(packageName) && !added.getKey().equals(exportFile)) {
+                throw new IllegalArgumentException("Exports " + added.getKey() + " and " + exportFile + " are both mapped to package " + packageName);
+            }
+        }
+        packagesByExport.put(exportFile, packageName);
+    }
+
+    /**
+     * Adds an export, or every <code>.json</code> export in a directory, working out the package of
+     * each. A package is taken from an <code>export=package</code> argument, then from the
+     * {@value #PACKAGES_FILE_NAME} next to the export, and otherwise derived from the export file
+     * name under the base package.
+     *
+     * @param argument      An export file or directory, optionally followed by <code>=package</code>
+     * @param basePackage   The package to derive packages under, may be null
+     */
+    public void add(String argument, String basePackage) throws IOException {
+        int equals = argument.indexOf('=');
+        File file = new File(equals < 0 ? argument : argument.substring(0, equals));
+        if (equals >= 0) {
+            add(file, argument.substring(equals + 1));
+        } else if (file.isDirectory()) {
+            File[] exports = file.listFiles((dir, name) -> name.endsWith(".json"));
+            if (exports == null || exports.length == 0) {
+                throw new IllegalArgumentException("No .json exports found in " + file);
+            }
+            Arrays.sort(exports);
+            for (File export : exports) {
+                add(export, getPackageName(export, basePackage));
+            }
+        } else {
+            add(file, getPackageName(file, basePackage));
+        }
+    }
+
+    private String getPackageName(File exportFile, String basePackage) throws IOException {
+        File dir = exportFile.getAbsoluteFile().getParentFile();
+        Properties packages = packageFiles.get(dir);
+        if (packages == null) {
+            packages = new Properties();
+            File packagesFile = new File(dir, PACKAGES_FILE_NAME);
+            if (packagesFile.isFile()) {
+                try (InputStream in = new FileInputStream(packagesFile)) {
+                    packages.load(in);
+                }
+            }
+            packageFiles.put(dir, packages);
+        }
+
+        String packageName = packages.getProperty(exportFile.getName());
+        if (packageName != null) {
+            return packageName.trim();
+        }
+        if (basePackage == null) {
+            throw new IllegalArgumentException("No package for " + exportFile + ", map it in " + PACKAGES_FILE_NAME + " or pass a base package");
+        }
+        return basePackage + "." + getPackageSegment(exportFile.getName());
+    }
+
+    /**
+     * @param fileName  The name of an export file, e.g. <code>Order-Management.json</code>
+     * @return          A package name segment for it, e.g. <code>order_management</code>
+     */
+    static String getPackageSegment(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String name = dot > 0 ? fileName.substring(0, dot) : fileName;
+        StringBuilder segment = new StringBuilder(name.length() + 1);
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            segment.append(Character.isJavaIdentifierPart(c) ? c : '_');
+        }
+        if (segment.length() == 0 || !Character.isJavaIdentifierStart(segment.charAt(0))) {
+            segment.insert(0, '_');
+        }
+        return segment.toString();
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * @param config    The options every model is generated with
+     */
+    public void setConfig(ERDPlusGeneratorConfig config) {
+        this.config = config;
+    }
+
+    public void setLog(PrintStream log) {
+        this.log = log;
+    }
+
+    /**
+     * Generates every added export and prints a summary of each
+     *
+     * @return  The result of each export, in the order they were added
+     */
+    public List<ModelResult> generate() {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ModelResult>> futures = new ArrayList<>(packagesByExport.size());
+            packagesByExport.forEach((exportFile, packageName) -> futures.add(executor.submit(() -> generate(exportFile, packageName))));
+
+            List<ModelResult> results = new ArrayList<>(futures.size());
+            for (Future<ModelResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException("Failed to generate a model", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted generating models", e);
+                }
+            }
+            printSummary(results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ModelResult generate(File exportFile, String packageName) {
+        ModelResult result = new ModelResult(exportFile, packageName);
+        long started = System.nanoTime();
+        try {
+            ERDPlusImportServiceImpl service = new ERDPlusImportServiceImpl(outputDir, new ERDPlusPathOutputSink(outputDir.toPath()), packageName, 1, mapper);
+            service.setLog(log);
+            service.setIncremental(incremental);
+            service.setConfig(config);
+            service.setManifestPath(packageName.replace('.', '/') + "/" + ERDPlusGenerationManifest.MANIFEST_FILE_NAME);
+            result.report = service.generateEntityBeans(exportFile);
+        } catch (IOException | RuntimeException e) {
+            result.error = e;
+        }
+        result.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        return result;
+    }
+
+    private void printSummary(List<ModelResult> results, long elapsedMillis) {
+        log.println(String.format("%-40s %-40s %8s %8s %9s %8s %7s %9s", "Export", "Package", "Entities", "Written", "Unchanged", "Removed", "Failed", "Time (ms)"));
+        int entities = 0;
+        int written = 0;
+        for (ModelResult result : results) {
+            if (result.report != null) {
+                ERDPlusGenerationReport report = result.report;
+                log.println(String.format("%-40s %-40s %8d %8d %9d %8d %7d %9d", result.exportFile.getName(), result.packageName,
+                    report.entities, report.written, report.unchanged, report.removed, report.failed, result.elapsedMillis));
+                entities += report.entities;
+                written += report.written;
+            } else {
+                log.println(String.format("%-40s %-40s failed: %s", result.exportFile.getName(), result.packageName, result.error.getMessage()));
+            }
+        }
+        log.println("Generated " + results.size() + " models, " + entities + " entity beans, " + written + " written in " + elapsedMillis + "ms");
+    }
+
+    /**
+     * What generating a single export of the batch did
+     */
+    public static final class ModelResult {
+        public final File exportFile;
+        public final String packageName;
+        public ERDPlusGenerationReport report;
+        public Exception error;
+        public long elapsedMillis;
+
+        private ModelResult(File exportFile, String packageName) {
+            this.exportFile = exportFile;
+            this.packageName = packageName;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.ERDPlusSlot;
+import com.sarm.tools.erdplus.model.enums.CACHE_ENTITIES;
+import com.sarm.tools.erdplus.model.enums.CACHE_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which entities of a model are put in the second level cache, and names the cache regions
+ * of the entities and their collections. The reference heuristic only looks at the slots of the
+ * relationship shapes, so a plan can be made as soon as the shapes of a streamed export have been
+ * read rather than waiting for its connectors.
+ * <p>
+ * Regions are named as Hibernate names them by default, the entity class name and the collection
+ * role, so the generated names match the caches a JCache provider is asked for.
+ */
+final class ERDPlusCachePlan {
+
+    /**
+     * The simple name of the generated class holding the region names
+     */
+    static final String CACHE_REGIONS = "CacheRegions";
+
+    private final Map<Integer, CACHE_STRATEGY> strategies = new HashMap<>();
+    private final boolean collections;
+
+    /**
+     * @param index     The index of the model, with all of its shapes read
+     * @param names     The resolver of the names generated for the model
+     * @param config    The options choosing the cached entities
+     */
+    ERDPlusCachePlan(ERDPlusModelIndex index, ERDPlusNameResolver names, ERDPlusGeneratorConfig config) {
+        this.collections = config.isCollectionCacheUsed();
+        if (!config.isCacheUsed()) {
+            return;
+        }
+
+        // An entity facing a 'many' slot holds a foreign key or a join, so is not reference data
+        Set<Integer> manySide = new HashSet<>();
+        for (ERDPlusShape relationship : index.getRelationships()) {
+            if (relationship.details == null || relationship.details.slots == null) {
+                continue;
+            }
+            for (ERDPlusSlot slot : relationship.details.slots) {
+                for (ERDPlusSlot other : relationship.details.slots) {
+                    if (other != slot && RELATIONSHIP_TYPE.CARDINALITY_MANY.equals(other.cardinality)) {
+                        manySide.add(slot.entityId);
+                    }
+                }
+            }
+        }
+
+        CACHE_ENTITIES cached = config.getCacheEntities();
+        for (ERDPlusShape entity : index.getEntities()) {
+            boolean cachedByDefault = cached == CACHE_ENTITIES.ALL || (cached == CACHE_ENTITIES.REFERENCE && !manySide.contains(entity.details.id));
+            CACHE_STRATEGY strategy = config.getEntityCacheStrategy(names.getClassName(entity), cachedByDefault);
+            if (strategy != null) {
+                strategies.put(entity.details.id, strategy);
+            }
+        }
+    }
+
+    /**
+     * @return  True if no entity is cached
+     */
+    boolean isEmpty() {
+        return strategies.isEmpty();
+    }
+
+    /**
+     * @param entity    An entity of the model
+     * @return          The concurrency strategy the entity is cached with, or null if it is not cached
+     */
+    CACHE_STRATEGY getStrategy(ERDPlusShape entity) {
+        return strategies.get(entity.details.id);
+    }
+
+    /**
+     * A collection is only worth caching when its elements are, otherwise each cached id is loaded
+     * from the database one at a time
+     *
+     * @param owningEntity  The entity holding the collection
+     * @param element       The entity in the collection
+     * @return              The concurrency strategy the collection is cached with, or null if it is not cached
+     */
+    CACHE_STRATEGY getCollectionStrategy(ERDPlusShape owningEntity, ERDPlusShape element) {
+        if (!collections || !strategies.containsKey(element.details.id)) {
+            return null;
+        }
+        return strategies.get(owningEntity.details.id);
+    }
+
+    static String getEntityRegion(ERDPlusNameResolver names, ERDPlusShape entity) {
+        return names.names(entity).type.toString();
+    }
+
+    static String getEntityRegionConstant(ERDPlusNameResolver names, ERDPlusShape entity) {
+        return toConstantName(names.getClassName(entity));
+    }
+
+    static String getCollectionRegion(ERDPlusNameResolver names, ERDPlusShape owningEntity, String fieldName) {
+        return getEntityRegion(names, owningEntity) + "." + fieldName;
+    }
+
+    static String getCollectionRegionConstant(ERDPlusNameResolver names, ERDPlusShape owningEntity, String fieldName) {
+        return getEntityRegionConstant(names, owningEntity) + "_" + toConstantName(fieldName);
+    }
+
+    /**
+     * @param name  A class or field name, e.g. <code>orderItems</code>
+     * @return      The name of a constant for it, e.g. <code>ORDER_ITEMS</code>
+     */
+    static String toConstantName(String name) {
+        StringBuilder constant = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && (Character.isLowerCase(name.charAt(i - 1)) || Character.isDigit(name.charAt(i - 1)))) {
+                constant.append('_');
+            }
+            constant.append(Character.isJavaIdentifierPart(c) ? Character.toUpperCase(c) : '_');
+        }
+        return constant.toString();
+    }
+}
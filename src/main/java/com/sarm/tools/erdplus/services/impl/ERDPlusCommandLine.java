@@ -0,0 +1,66 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the command line into positional arguments and <code>--name</code> or
+ * <code>--name=value</code> options, which may appear anywhere on the line
+ */
+class ERDPlusCommandLine {
+
+    private static final String OPTION_PREFIX = "--";
+
+    private final List<String> arguments = new ArrayList<>();
+    private final Map<String, String> options = new LinkedHashMap<>();
+
+    static ERDPlusCommandLine parse(String[] args) {
+        ERDPlusCommandLine commandLine = new ERDPlusCommandLine();
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX) && arg.length() > OPTION_PREFIX.length()) {
+                int equals = arg.indexOf('=');
+                if (equals < 0) {
+                    commandLine.options.put(arg.substring(OPTION_PREFIX.length()), null);
+                } else {
+                    commandLine.options.put(arg.substring(OPTION_PREFIX.length(), equals), arg.substring(equals + 1));
+                }
+            } else {
+                commandLine.arguments.add(arg);
+            }
+        }
+        return commandLine;
+    }
+
+    List<String> getArguments() {
+        return Collections.unmodifiableList(arguments);
+    }
+
+    boolean hasOption(String name) {
+        return options.containsKey(name);
+    }
+
+    /**
+     * @param name          The option name without the leading dashes
+     * @param defaultValue  The value to use when the option is absent or has no value
+     * @return              The value of the option
+     */
+    String getOption(String name, String defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    int getIntOption(String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " expects a number but was: " + value, e);
+        }
+    }
+}
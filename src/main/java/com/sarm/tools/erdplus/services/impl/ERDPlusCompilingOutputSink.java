@@ -0,0 +1,324 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusOutputSink;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the generated sources in process and writes the compiled classes to another sink, such
+ * as a classes jar, so the output is ready to use without a separate build step and broken sources
+ * are reported by the run that generated them.
+ * <p>
+ * Sources are held in memory until the sink is closed at the end of a run, then compiled together
+ * with the system Java compiler against the class path of this JVM, or one passed in, which must hold
+ * JPA, Hibernate and Lombok. Lombok's annotation processor is found on that class path and run as part of the
+ * compilation. Classes are compiled in memory too, and only written once every source compiled.
+ * Generated files that are not sources are copied to the output as they are.
+ */
+public class ERDPlusCompilingOutputSink implements ERDPlusOutputSink {
+
+    private static final String JAVAC_TOOL = "com.sun.tools.javac.api.JavacTool";
+    private static final String JAVAC_PROCESSING_ENVIRONMENT = "com.sun.tools.javac.processing.JavacProcessingEnvironment";
+
+    private final ERDPlusOutputSink classesSink;
+    private final String classPath;
+    private final SortedMap<String, byte[]> files = new TreeMap<>();
+
+    /**
+     * @param classesSink   Where to write the compiled classes
+     */
+    public ERDPlusCompilingOutputSink(ERDPlusOutputSink classesSink) {
+        this(classesSink, expandClassPath(System.getProperty("java.class.path")));
+    }
+
+    /**
+     * @param classesSink   Where to write the compiled classes
+     * @param classPath     The class path to compile against and find annotation processors on
+     */
+    public ERDPlusCompilingOutputSink(ERDPlusOutputSink classesSink, String classPath) {
+        this.classesSink = classesSink;
+        this.classPath = classPath;
+    }
+
+    @Override
+    public synchronized void write(String path, byte[] content) {
+        files.put(path, content.clone());
+    }
+
+    @Override
+    public synchronized byte[] read(String path) {
+        byte[] content = files.get(path);
+        return content == null ? null : content.clone();
+    }
+
+    @Override
+    public synchronized boolean exists(String path) {
+        return files.containsKey(path);
+    }
+
+    @Override
+    public synchronized boolean delete(String path) {
+        return files.remove(path) != null;
+    }
+
+    @Override
+    public boolean canReadBack() {
+        return false;
+    }
+
+    /**
+     * Compiles the sources written since the last close and writes the classes, and every other
+     * file, to the classes sink
+     *
+     * @throws IOException listing every compilation error if any source failed to compile
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            Map<String, byte[]> classes = compile();
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                if (!file.getKey().endsWith(JavaFileObject.Kind.SOURCE.extension)) {
+                    classesSink.write(file.getKey(), file.getValue());
+                }
+            }
+            for (Map.Entry<String, byte[]> compiled : classes.entrySet()) {
+                classesSink.write(compiled.getKey(), compiled.getValue());
+            }
+        } finally {
+            files.clear();
+            classesSink.close();
+        }
+    }
+
+    /**
+     * Fails before anything is generated when a library the generated sources are compiled against
+     * is missing from the class path, rather than with a compiler error for each use of it
+     *
+     * @param artifactsByType   The artifact of each library needed, by the name of a type found in it
+     * @throws IOException naming every artifact missing from the class path
+     */
+    public void requireOnClassPath(Map<String, String> artifactsByType) throws IOException {
+        List<URL> urls = new ArrayList<>();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                urls.add(new File(entry).toURI().toURL());
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        try (URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]), null)) {
+            artifactsByType.forEach((type, artifact) -> {
+                if (loader.getResource(type.replace('.', '/') + JavaFileObject.Kind.CLASS.extension) == null) {
+                    missing.add(artifact);
+                }
+            });
+        }
+        if (!missing.isEmpty()) {
+            throw new IOException("Compiling the generated sources needs " + String.join(", ", missing)
+                + " on the class path, add their jars with --classpath=<jars>");
+        }
+    }
+
+    /**
+     * Adds the jars named by the manifests of the jars on a class path, as annotation processors
+     * are only looked for in the jars named on the path itself. A launcher jar, or the manifest only
+     * jar a test runner starts its JVM with, names every other jar in its manifest.
+     *
+     * @param classPath The class path of this JVM
+     * @return          The class path with the jars the manifests of its jars refer to added
+     */
+    static String expandClassPath(String classPath) {
+        Set<String> entries = new LinkedHashSet<>();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            addClassPathEntry(new File(entry), entries);
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void addClassPathEntry(File entry, Set<String> entries) {
+        if (!entries.add(entry.getPath()) || !entry.isFile()) {
+            return;
+        }
+        try (JarFile jar = new JarFile(entry)) {
+            Manifest manifest = jar.getManifest();
+            String manifestClassPath = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+            if (manifestClassPath == null) {
+                return;
+            }
+            URI base = entry.toURI();
+            for (String referenced : manifestClassPath.trim().split("\\s+")) {
+                if (!referenced.isEmpty()) {
+                    addClassPathEntry(new File(base.resolve(referenced)), entries);
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Not a jar, or a manifest entry that is not a file, so there is nothing more to add
+        }
+    }
+
+    /**
+     * @return  The compiled classes by path
+     */
+    private Map<String, byte[]> compile() throws IOException {
+        List<JavaFileObject> sources = new ArrayList<>();
+        files.forEach((path, content) -> {
+            if (path.endsWith(JavaFileObject.Kind.SOURCE.extension)) {
+                sources.add(new SourceFile(path, new String(content, StandardCharsets.UTF_8)));
+            }
+        });
+        if (sources.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (URLClassLoader compilerLoader = newCompilerClassLoader()) {
+            JavaCompiler compiler = getCompiler(compilerLoader);
+            try (StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT, StandardCharsets.UTF_8);
+                 ClassFileManager fileManager = new ClassFileManager(standardFileManager)) {
+                List<String> options = Arrays.asList("-classpath", classPath, "-encoding", StandardCharsets.UTF_8.name());
+                if (!compiler.getTask(null, fileManager, diagnostics, options, null, sources).call()) {
+                    StringBuilder errors = new StringBuilder("Failed to compile the generated sources:");
+                    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                        if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                            errors.append(System.lineSeparator())
+                                .append(diagnostic.getSource() == null ? "" : diagnostic.getSource().getName() + ":" + diagnostic.getLineNumber() + ": ")
+                                .append(diagnostic.getMessage(Locale.ROOT));
+                        }
+                    }
+                    throw new IOException(errors.toString());
+                }
+                return fileManager.classes;
+            }
+        }
+    }
+
+    /**
+     * @return  The compiler loaded by the passed class loader, or the system compiler if it is null
+     */
+    private static JavaCompiler getCompiler(URLClassLoader compilerLoader) throws IOException {
+        if (compilerLoader == null) {
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            if (compiler == null) {
+                throw new IOException("No Java compiler is available, compiling needs the generator to be run by a JDK rather than a JRE");
+            }
+            return compiler;
+        }
+        try {
+            return (JavaCompiler) Class.forName(JAVAC_TOOL, true, compilerLoader).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Failed to load the Java compiler from " + Arrays.toString(compilerLoader.getURLs()), e);
+        }
+    }
+
+    /**
+     * Annotation processors are loaded by a child of the class loader of the compiler, so one found
+     * by this JVMs class loader can not see the compiler classes that Lombok works with when the
+     * compiler is only in the JDKs <code>tools.jar</code>, as it is up to Java 8. The compiler is
+     * then loaded together with the class path by a class loader of their own.
+     *
+     * @return  The class loader to load the compiler with, or null if the system compiler can be used
+     */
+    private URLClassLoader newCompilerClassLoader() throws IOException {
+        try {
+            Class.forName(JAVAC_PROCESSING_ENVIRONMENT, false, ClassLoader.getSystemClassLoader());
+            return null;
+        } catch (ClassNotFoundException e) {
+            File toolsJar = new File(System.getProperty("java.home"), "../lib/tools.jar").getCanonicalFile();
+            if (!toolsJar.isFile()) {
+                return null;
+            }
+            List<URL> urls = new ArrayList<>();
+            urls.add(toolsJar.toURI().toURL());
+            for (String entry : classPath.split(File.pathSeparator)) {
+                if (!entry.isEmpty()) {
+                    urls.add(new File(entry).toURI().toURL());
+                }
+            }
+            return new URLClassLoader(urls.toArray(new URL[0]), null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "compiled " + classesSink;
+    }
+
+    /**
+     * A generated source held in memory
+     */
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String path;
+        private final String content;
+
+        private SourceFile(String path, String content) {
+            super(URI.create("string:///" + path), Kind.SOURCE);
+            this.path = path;
+            this.content = content;
+        }
+
+        @Override
+        public String getName() {
+            return path;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return content;
+        }
+    }
+
+    /**
+     * Keeps every compiled class in memory rather than writing it next to its source
+     */
+    private static final class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Map<String, byte[]> classes = new LinkedHashMap<>();
+
+        private ClassFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            String path = className.replace('.', '/') + kind.extension;
+            return new SimpleJavaFileObject(URI.create("mem:///" + path), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() {
+                            classes.put(path, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sarm.tools.erdplus.services.ERDPlusGenerationReport;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a generator and its object mapper loaded between regenerations, so that regenerating after
+ * saving the model does not pay for starting a JVM and loading classes each time.
+ * <p>
+ * Regeneration is requested either by the export file changing on disk, or by a line of JSON on the
+ * request stream such as <code>{"id":1,"command":"regenerate","file":"model.json"}</code>. Each
+ * request is answered with a single line of JSON on the response stream. The supported commands
+ * are <code>regenerate</code>, <code>ping</code> and <code>shutdown</code>.
+ * <p>
+ * The generator is switched to incremental mode when its output allows it so only the entities
+ * that changed are rewritten, and its progress messages go to standard error to keep the response
+ * stream to one JSON document per line.
+ */
+public class ERDPlusDaemon implements Closeable {
+
+    /**
+     * How long to wait for an editor to finish saving before regenerating
+     */
+    private static final long SETTLE_MILLIS = 200;
+
+    private final ERDPlusImportServiceImpl service;
+    private final ObjectMapper mapper;
+    private final File exportFile;
+    private final PrintStream responses;
+    private volatile WatchService watchService;
+    private volatile boolean running = true;
+
+    /**
+     * @param service       The generator to keep warm
+     * @param exportFile    The export regenerated when changed on disk or when a request names no file
+     * @param responses     Where responses to requests and file change regenerations are written
+     */
+    public ERDPlusDaemon(ERDPlusImportServiceImpl service, File exportFile, PrintStream responses) {
+        this.service = service;
+        this.mapper = service.mapper;
+        this.exportFile = exportFile;
+        this.responses = responses;
+        service.setLog(System.err);
+        if (service.getOutputSink().canReadBack()) {
+            service.setIncremental(true);
+        }
+    }
+
+    /**
+     * Regenerates the entity beans for the passed export
+     *
+     * @param file  The export to regenerate from
+     * @return      The report of the regeneration
+     */
+    public synchronized ERDPlusGenerationReport regenerate(File file) throws IOException {
+        return service.generateEntityBeans(file);
+    }
+
+    /**
+     * Starts a background thread that regenerates whenever the export file is written
+     */
+    public void watch() throws IOException {
+        Path file = exportFile.getAbsoluteFile().toPath();
+        Path directory = file.getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcher = new Thread(() -> watchLoop(file.getFileName()), "erdplus-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+        service.getLog().println("Watching " + file + " for changes");
+    }
+
+    private void watchLoop(Path fileName) {
+        try {
+            while (running) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= fileName.equals(event.context());
+                    }
+                    key.reset();
+
+                    // Saves usually arrive as several events, wait for them to settle
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                if (changed && running) {
+                    respond(handle(null, "regenerate", exportFile));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close()
+        }
+    }
+
+    /**
+     * Answers requests read from the passed stream, one JSON document per line, until the stream
+     * ends or a shutdown request is read
+     *
+     * @param requests  The stream of requests
+     */
+    public void serve(InputStream requests) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(requests, StandardCharsets.UTF_8));
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            JsonNode request;
+            try {
+                request = mapper.readTree(line);
+            } catch (IOException e) {
+                respond(error(null, "Invalid request: " + e.getMessage()));
+                continue;
+            }
+            String command = request.path("command").asText("regenerate");
+            File file = request.hasNonNull("file") ? new File(request.get("file").asText()) : exportFile;
+            respond(handle(request.get("id"), command, file));
+        }
+    }
+
+    private ObjectNode handle(JsonNode id, String command, File file) {
+        switch (command) {
+            case "regenerate":
+                if (file == null) {
+                    return error(id, "No export file to regenerate from");
+                }
+                try {
+                    ObjectNode response = response(id, "ok");
+                    response.put("file", file.getPath());
+                    response.set("report", mapper.valueToTree(regenerate(file)));
+                    return response;
+                } catch (IOException | RuntimeException e) {
+                    return error(id, e.getMessage());
+                }
+            case "ping":
+                return response(id, "ok");
+            case "shutdown":
+                running = false;
+                return response(id, "ok");
+            default:
+                return error(id, "Unknown command: " + command);
+        }
+    }
+
+    private ObjectNode response(JsonNode id, String status) {
+        ObjectNode response = mapper.createObjectNode();
+        if (id != null) {
+            response.set("id", id);
+        }
+        response.put("status", status);
+        return response;
+    }
+
+    private ObjectNode error(JsonNode id, String message) {
+        return response(id, "error").put("message", message);
+    }
+
+    private synchronized void respond(ObjectNode response) {
+        try {
+            responses.println(mapper.writeValueAsString(response));
+            responses.flush();
+        } catch (IOException e) {
+            service.getLog().println("Failed to write response: " + e);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
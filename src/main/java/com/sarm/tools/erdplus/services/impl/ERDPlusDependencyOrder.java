@@ -0,0 +1,135 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The order the rows of a models entities must be inserted in so that every foreign key refers to
+ * a row that is already there. An entity depends on the entity its many to one join column refers
+ * to, and on the entity its one to one primary key join column refers to. Join tables are filled
+ * after both of their entities so they add no dependency.
+ * <p>
+ * Entities are sorted topologically, keeping to model order wherever the dependencies allow. The
+ * entities of foreign key cycles can not be ordered, so they are reported and each cycle is broken
+ * by placing its entity that comes first in the model, once nothing else can be placed.
+ */
+final class ERDPlusDependencyOrder {
+
+    private final List<ERDPlusShape> order;
+    private final List<ERDPlusShape> cycles;
+
+    private ERDPlusDependencyOrder(List<ERDPlusShape> order, List<ERDPlusShape> cycles) {
+        this.order = order;
+        this.cycles = cycles;
+    }
+
+    /**
+     * @param index The index of the read in entity model, with all of its connectors read
+     * @return      The insert order of the models entities
+     */
+    static ERDPlusDependencyOrder of(ERDPlusModelIndex index) {
+        List<ERDPlusShape> entities = index.getEntities();
+        Map<Integer, Integer> positions = new HashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            positions.put(entities.get(i).details.id, i);
+        }
+
+        // Collect the entities each entity depends on, and the reverse
+        List<Set<Integer>> dependencies = new ArrayList<>(entities.size());
+        List<Set<Integer>> dependents = new ArrayList<>(entities.size());
+        for (int i = 0; i < entities.size(); i++) {
+            dependencies.add(new HashSet<>());
+            dependents.add(new HashSet<>());
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            int entity = i;
+            int entityId = entities.get(i).details.id;
+            index.getRelationshipsForEntity(entityId).forEach(rel -> rel.shape.details.slots.forEach(slot -> {
+                Integer foreign = positions.get(slot.entityId);
+                boolean joinColumn = RELATIONSHIP_TYPE.ONE_TO_MANY == rel.type && RELATIONSHIP_TYPE.CARDINALITY_MANY.equals(slot.cardinality);
+                boolean primaryKeyJoinColumn = RELATIONSHIP_TYPE.ONE_TO_ONE == rel.type && slot.slotIndex == 1;
+                if (foreign != null && slot.entityId != entityId && (joinColumn || primaryKeyJoinColumn)) {
+                    dependencies.get(entity).add(foreign);
+                    dependents.get(foreign).add(entity);
+                }
+            }));
+        }
+
+        int[] waitingOn = new int[entities.size()];
+        PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < entities.size(); i++) {
+            waitingOn[i] = dependencies.get(i).size();
+            if (waitingOn[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        List<ERDPlusShape> order = new ArrayList<>(entities.size());
+        Set<Integer> placed = new HashSet<>();
+        Set<Integer> cyclic = new HashSet<>();
+        while (order.size() < entities.size()) {
+            if (ready.isEmpty()) {
+
+                // Only cycles, and the entities depending on them, are left
+                Set<Integer> cycle = findCycles(entities.size(), placed, dependencies, dependents);
+                cyclic.addAll(cycle);
+                ready.add(Collections.min(cycle));
+            }
+            int next = ready.poll();
+            placed.add(next);
+            order.add(entities.get(next));
+            for (int dependent : dependents.get(next)) {
+                if (--waitingOn[dependent] == 0 && !placed.contains(dependent)) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        List<ERDPlusShape> cycles = new ArrayList<>(cyclic.size());
+        cyclic.stream().sorted().forEach(position -> cycles.add(entities.get(position)));
+        return new ERDPlusDependencyOrder(order, cycles);
+    }
+
+    /**
+     * Trims the unplaced entities that nothing unplaced depends on, or that depend on nothing
+     * unplaced, until only those on a cycle or between two cycles are left
+     */
+    private static Set<Integer> findCycles(int size, Set<Integer> placed, List<Set<Integer>> dependencies, List<Set<Integer>> dependents) {
+        Set<Integer> remaining = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (!placed.contains(i)) {
+                remaining.add(i);
+            }
+        }
+        boolean trimmed = true;
+        while (trimmed) {
+            trimmed = remaining.removeIf(position -> dependents.get(position).stream().noneMatch(remaining::contains)
+                || dependencies.get(position).stream().noneMatch(remaining::contains));
+        }
+        return remaining;
+    }
+
+    /**
+     * @return  Every entity, in the order their rows must be inserted
+     */
+    List<ERDPlusShape> getOrder() {
+        return order;
+    }
+
+    /**
+     * @return  The entities on foreign key cycles, in model order, empty if there are none
+     */
+    List<ERDPlusShape> getCycles() {
+        return cycles;
+    }
+}
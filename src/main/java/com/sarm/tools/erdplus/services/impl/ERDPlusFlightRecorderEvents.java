@@ -0,0 +1,125 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusGenerationReport;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events for the generator, so a recording shows each entity bean being built
+ * and each generation run alongside the JVMs own events.
+ * <p>
+ * Flight Recorder is missing from older Java 8 runtimes, so callers check {@link #AVAILABLE} before
+ * calling anything else here, and only handle the events as plain objects so that the event classes
+ * are never loaded when it is missing.
+ */
+final class ERDPlusFlightRecorderEvents {
+
+    static final boolean AVAILABLE = isAvailable();
+
+    private ERDPlusFlightRecorderEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static Object beginEntityBuild() {
+        EntityBuildEvent event = new EntityBuildEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitEntityBuild(Object begun, String entity, int fields) {
+        EntityBuildEvent event = (EntityBuildEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.entity = entity;
+            event.fields = fields;
+            event.commit();
+        }
+    }
+
+    static Object beginGeneration() {
+        GenerationEvent event = new GenerationEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitGeneration(Object begun, ERDPlusGenerationReport report) {
+        GenerationEvent event = (GenerationEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.packageName = report.packageName;
+            event.output = report.output;
+            event.entities = report.entities;
+            event.written = report.written;
+            event.unchanged = report.unchanged;
+            event.failed = report.failed;
+            event.parseMillis = report.metrics.parseMillis;
+            event.indexMillis = report.metrics.indexMillis;
+            event.buildMillis = report.metrics.buildMillis;
+            event.writeMillis = report.metrics.writeMillis;
+            event.bytesWritten = report.metrics.bytesWritten;
+            event.commit();
+        }
+    }
+
+    @Name("com.sarm.tools.erdplus.EntityBuild")
+    @Label("Entity Bean Build")
+    @Description("Building the type spec of an entity bean")
+    @Category({"ERDPlus", "Generator"})
+    static final class EntityBuildEvent extends Event {
+        @Label("Entity")
+        String entity;
+
+        @Label("Fields")
+        int fields;
+    }
+
+    @Name("com.sarm.tools.erdplus.Generation")
+    @Label("Entity Bean Generation")
+    @Description("A single generation run")
+    @Category({"ERDPlus", "Generator"})
+    static final class GenerationEvent extends Event {
+        @Label("Package")
+        String packageName;
+
+        @Label("Output")
+        String output;
+
+        @Label("Entities")
+        int entities;
+
+        @Label("Written")
+        int written;
+
+        @Label("Unchanged")
+        int unchanged;
+
+        @Label("Failed")
+        int failed;
+
+        @Label("Parse (ms)")
+        long parseMillis;
+
+        @Label("Index (ms)")
+        long indexMillis;
+
+        @Label("Build (ms)")
+        long buildMillis;
+
+        @Label("Write (ms)")
+        long writeMillis;
+
+        @Label("Bytes Written")
+        long bytesWritten;
+    }
+}
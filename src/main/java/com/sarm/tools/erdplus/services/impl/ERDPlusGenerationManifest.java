@@ -0,0 +1,88 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusOutputSink;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the hash of the inputs each generated file was built from, so that a later run only
+ * regenerates the files whose inputs changed. Written to the root of the output as lines of
+ * <code>&lt;hash&gt; &lt;relative path&gt;</code> sorted by path.
+ */
+class ERDPlusGenerationManifest {
+
+    static final String MANIFEST_FILE_NAME = ".erdplus-manifest";
+
+    /**
+     * Recorded for files whose generation failed so they are kept, but regenerated on the next run
+     */
+    static final String FAILED_HASH = "-";
+
+    private final Map<String, String> hashesByPath = new TreeMap<>();
+
+    /**
+     * Reads the manifest from the passed output
+     *
+     * @param output    The output the manifest was written to
+     * @param path      The path of the manifest in the output
+     * @return          The manifest, empty if there was none
+     */
+    static ERDPlusGenerationManifest read(ERDPlusOutputSink output, String path) throws IOException {
+        ERDPlusGenerationManifest manifest = new ERDPlusGenerationManifest();
+        byte[] content = output.read(path);
+        if (content != null) {
+            for (String line : new String(content, StandardCharsets.UTF_8).split("\n")) {
+                int space = line.indexOf(' ');
+                if (space > 0) {
+                    manifest.hashesByPath.put(line.substring(space + 1), line.substring(0, space));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    void write(ERDPlusOutputSink output, String path) throws IOException {
+        StringBuilder content = new StringBuilder(hashesByPath.size() * 128);
+        for (Map.Entry<String, String> entry : hashesByPath.entrySet()) {
+            content.append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+        }
+        output.write(path, content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    String getHash(String path) {
+        return hashesByPath.get(path);
+    }
+
+    void putHash(String path, String hash) {
+        hashesByPath.put(path, hash);
+    }
+
+    Iterable<String> getPaths() {
+        return hashesByPath.keySet();
+    }
+
+    boolean containsPath(String path) {
+        return hashesByPath.containsKey(path);
+    }
+
+    /**
+     * @param inputs    The canonical description of everything a file is generated from
+     * @return          The hex encoded SHA-256 of the inputs
+     */
+    static String hash(String inputs) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(inputs.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -3,11 +3,24 @@ package com.sarm.tools.erdplus.services.impl;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sarm.tools.erdplus.model.ERDPlusConnector;
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
 import com.sarm.tools.erdplus.model.ERDPlusEntityRelationshipModel;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusRelationship;
 import com.sarm.tools.erdplus.model.ERDPlusShape;
 import com.sarm.tools.erdplus.model.ERDPlusSlot;
+import com.sarm.tools.erdplus.model.enums.CACHE_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.ID_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.MANY_TO_MANY_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.ONE_TO_ONE_STRATEGY;
 import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.SQL_DIALECT;
 import com.sarm.tools.erdplus.model.enums.TYPE;
+import com.sarm.tools.erdplus.model.enums.WRITE_MODE;
+import com.sarm.tools.erdplus.services.ERDPlusGenerationMetrics;
+import com.sarm.tools.erdplus.services.ERDPlusGenerationReport;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import com.sarm.tools.erdplus.services.ERDPlusOutputSink;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
@@ -17,95 +30,441 @@ import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import javax.lang.model.element.Modifier;
-import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
-import javax.persistence.Id;
-import javax.persistence.JoinColumn;
-import javax.persistence.JoinTable;
-import javax.persistence.ManyToMany;
-import javax.persistence.ManyToOne;
-import javax.persistence.OneToMany;
-import javax.persistence.OneToOne;
-import javax.persistence.PrimaryKeyJoinColumn;
-import javax.persistence.Table;
-import lombok.Getter;
-import lombok.Setter;
-import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.id.UUIDGenerator;
 
 /**
  * Created by spencer on 16/07/2016.
  */
 public class ERDPlusImportServiceImpl {
 
-    private static final String CARDINALITY_ONE = "one";
-    private static final String CARDINALITY_MANY = "many";
+    private static final String CARDINALITY_ONE = RELATIONSHIP_TYPE.CARDINALITY_ONE;
+    private static final String CARDINALITY_MANY = RELATIONSHIP_TYPE.CARDINALITY_MANY;
+
+    /**
+     * Part of every entity's input hash, change it whenever the generated source changes for the same inputs
+     */
+    private static final String MANIFEST_VERSION = "6";
+
+    /**
+     * The name of the generated generator of time ordered UUIDs, and of the generator it is registered as
+     */
+    private static final String TIME_ORDERED_UUID_GENERATOR = "TimeOrderedUuidGenerator";
+
+    /**
+     * The name of the generated loader of entities in foreign key order, and of its properties
+     */
+    private static final String BULK_LOADER = "BulkLoader";
+    private static final String BULK_LOADER_PROPERTIES = "bulk-loader.properties";
+
+    /**
+     * The build plugin configuration enhancing the entities, for one to one associations loaded without proxies
+     */
+    private static final String ENHANCE_PLUGIN = "hibernate-enhance-plugin.xml";
+
+    /**
+     * The name of the generated registry of entity classes
+     */
+    private static final String ENTITY_REGISTRY = "EntityRegistry";
 
     public static void main(String[] args) throws IOException {
-        if( args.length != 3 ) {
-            System.out.println("Usage: java com.sarm.tools.erdplus.services.impl.ERDPlusImportServiceImpl <erdplus_export_file> <output_dir> <package_name>");
+        ERDPlusCommandLine commandLine = ERDPlusCommandLine.parse(args);
+        if (commandLine.hasOption("batch") && commandLine.getArguments().size() >= 2) {
+            batch(commandLine);
+            return;
+        }
+        if( commandLine.getArguments().size() != 3 || commandLine.hasOption("batch") ) {
+            System.out.println("Usage: java com.sarm.tools.erdplus.services.impl.ERDPlusImportServiceImpl [--parallel[=<threads>]] [--incremental|--compile [--classpath=<jars>]] [--config=<properties_file>] [--metrics=<report_file>] [--watch|--daemon] <erdplus_export_file> <output_dir|output_jar> <package_name>");
+            System.out.println("       java com.sarm.tools.erdplus.services.impl.ERDPlusImportServiceImpl --batch [--parallel[=<models>]] [--incremental] [--config=<properties_file>] [--metrics=<report_file>] [--package=<base_package>] <output_dir> <erdplus_export_file[=package_name]|export_dir>...");
             System.exit(-1);
         }
-        ERDPlusImportServiceImpl service = new ERDPlusImportServiceImpl(new File(args[1]),args[2]);
-        ERDPlusEntityRelationshipModel model = service.readModel(new File(args[0]));
-        service.generateEntityBeans(model);
+        List<String> arguments = commandLine.getArguments();
+        int parallelism = commandLine.hasOption("parallel") ? commandLine.getIntOption("parallel", Runtime.getRuntime().availableProcessors()) : 1;
+        String output = arguments.get(1);
+        ERDPlusImportServiceImpl service;
+        ERDPlusCompilingOutputSink compiling = null;
+        if (commandLine.hasOption("compile")) {
+            ERDPlusOutputSink classesSink = output.endsWith(".jar") || output.endsWith(".zip")
+                ? new ERDPlusJarOutputSink(new File(output))
+                : new ERDPlusPathOutputSink(new File(output).toPath());
+            String classPath = System.getProperty("java.class.path");
+            if (commandLine.hasOption("classpath")) {
+                classPath += File.pathSeparator + commandLine.getOption("classpath", "");
+            }
+            compiling = new ERDPlusCompilingOutputSink(classesSink, ERDPlusCompilingOutputSink.expandClassPath(classPath));
+            service = new ERDPlusImportServiceImpl(compiling, arguments.get(2), parallelism);
+        } else {
+            service = output.endsWith(".jar") || output.endsWith(".zip")
+                ? new ERDPlusImportServiceImpl(new ERDPlusJarOutputSink(new File(output)), arguments.get(2), parallelism)
+                : new ERDPlusImportServiceImpl(new File(output), arguments.get(2), parallelism);
+        }
+        service.setIncremental(commandLine.hasOption("incremental"));
+        if (commandLine.hasOption("config")) {
+            service.setConfig(ERDPlusGeneratorConfig.load(new File(commandLine.getOption("config", null))));
+        }
+        if (compiling != null) {
+            compiling.requireOnClassPath(ERDPlusAnnotationCatalog.of(service.getConfig().getPersistenceApi()).getLibraryArtifacts());
+        }
+
+        File exportFile = new File(arguments.get(0));
+        if (commandLine.hasOption("daemon") || commandLine.hasOption("watch")) {
+            try (ERDPlusDaemon daemon = new ERDPlusDaemon(service, exportFile, System.out)) {
+                daemon.regenerate(exportFile);
+                daemon.watch();
+                if (commandLine.hasOption("daemon")) {
+                    daemon.serve(System.in);
+                } else {
+                    while (daemon.isRunning()) {
+                        try {
+                            Thread.sleep(Long.MAX_VALUE);
+                        } catch (InterruptedException e) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return;
+        }
+
+        ERDPlusGenerationReport report = service.generateEntityBeans(exportFile);
+        writeMetricsReport(commandLine, service.mapper, report);
+        System.out.println("Done!");
+    }
+
+    /**
+     * Writes the passed reports as JSON to the file named by the metrics option, if it was given
+     */
+    private static void writeMetricsReport(ERDPlusCommandLine commandLine, ObjectMapper mapper, Object reports) throws IOException {
+        String metricsFile = commandLine.getOption("metrics", null);
+        if (metricsFile != null) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(metricsFile), reports);
+        }
+    }
+
+    /**
+     * Generates every export named on the command line into the output directory
+     */
+    private static void batch(ERDPlusCommandLine commandLine) throws IOException {
+        List<String> arguments = commandLine.getArguments();
+        int threads = commandLine.hasOption("parallel") ? commandLine.getIntOption("parallel", Runtime.getRuntime().availableProcessors()) : 1;
+        ERDPlusBatchGenerator batch = new ERDPlusBatchGenerator(new File(arguments.get(0)), threads);
+        batch.setIncremental(commandLine.hasOption("incremental"));
+        if (commandLine.hasOption("config")) {
+            batch.setConfig(ERDPlusGeneratorConfig.load(new File(commandLine.getOption("config", null))));
+        }
+        for (String export : arguments.subList(1, arguments.size())) {
+            batch.add(export, commandLine.getOption("package", null));
+        }
+        List<ERDPlusBatchGenerator.ModelResult> results = batch.generate();
+
+        Map<String, ERDPlusGenerationReport> reports = new LinkedHashMap<>();
+        results.stream().filter(ERDPlusBatchGenerator.ModelResult::isSuccessful).forEach(result -> reports.put(result.exportFile.getPath(), result.report));
+        writeMetricsReport(commandLine, newMapper(), reports);
+        if (!results.stream().allMatch(ERDPlusBatchGenerator.ModelResult::isSuccessful)) {
+            System.exit(1);
+        }
         System.out.println("Done!");
     }
 
-    ObjectMapper mapper = new ObjectMapper();
+    final ObjectMapper mapper;
+    private PrintStream log = System.out;
+    private final ERDPlusStreamingModelReader streamingReader;
     private final File targetDir;
+    private final ERDPlusOutputSink outputSink;
     private final String packageName;
+    private final int parallelism;
+    private boolean incremental;
+    private String manifestPath = ERDPlusGenerationManifest.MANIFEST_FILE_NAME;
+    private ERDPlusGeneratorConfig config = new ERDPlusGeneratorConfig();
+    private volatile IndexedModel lastIndexed;
+    private volatile ResolvedIndex lastResolved;
 
     public ERDPlusImportServiceImpl(File targetDir, String packageName) {
+        this(targetDir, packageName, 1);
+    }
+
+    /**
+     * @param targetDir     The directory to write the generated sources to
+     * @param packageName   The package of the generated entity beans
+     * @param parallelism   The number of threads to build entity type specs on, 1 to build them on the calling thread
+     */
+    public ERDPlusImportServiceImpl(File targetDir, String packageName, int parallelism) {
+        this(targetDir, targetDir == null ? null : new ERDPlusPathOutputSink(targetDir.toPath()), packageName, parallelism);
+    }
+
+    /**
+     * @param outputSink    Where to write the generated sources
+     * @param packageName   The package of the generated entity beans
+     * @param parallelism   The number of threads to build entity type specs on, 1 to build them on the calling thread
+     */
+    public ERDPlusImportServiceImpl(ERDPlusOutputSink outputSink, String packageName, int parallelism) {
+        this(null, outputSink, packageName, parallelism, newMapper());
+    }
+
+    private ERDPlusImportServiceImpl(File targetDir, ERDPlusOutputSink outputSink, String packageName, int parallelism) {
+        this(targetDir, outputSink, packageName, parallelism, newMapper());
+    }
+
+    /**
+     * @param mapper    A mapper shared with other generators, configured by {@link #newMapper()}
+     */
+    ERDPlusImportServiceImpl(File targetDir, ERDPlusOutputSink outputSink, String packageName, int parallelism, ObjectMapper mapper) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1 but was " + parallelism);
+        }
         this.targetDir = targetDir;
+        this.outputSink = outputSink;
         this.packageName = packageName;
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.parallelism = parallelism;
+        this.mapper = mapper;
+        this.streamingReader = new ERDPlusStreamingModelReader(mapper.getFactory());
+    }
+
+    /**
+     * @return  A mapper configured to read ERDPlus exports, safe to share between generators
+     */
+    static ObjectMapper newMapper() {
+        return new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
     }
 
     public ERDPlusEntityRelationshipModel readModel(File erModelExportFile) throws IOException {
-        System.out.println("Reading model from " + erModelExportFile);
+        log.println("Reading model from " + erModelExportFile);
         return mapper.readValue(erModelExportFile, ERDPlusEntityRelationshipModel.class);
     }
 
+    /**
+     * @return The directory the sources are written to, or null if they are written to another kind of sink
+     */
     public File getTargetDir() {
         return targetDir;
     }
 
+    public ERDPlusOutputSink getOutputSink() {
+        return outputSink;
+    }
+
     public String getPackageName() {
         return packageName;
     }
 
-    public void generateEntityBeans(final ERDPlusEntityRelationshipModel model) {
-        if (getTargetDir() == null) {
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public PrintStream getLog() {
+        return log;
+    }
+
+    /**
+     * @param log   Where progress messages are printed, standard out by default
+     */
+    public void setLog(PrintStream log) {
+        this.log = log;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @param incremental   True to only regenerate the entities whose inputs changed since the manifest
+     *                      in the target directory was written, and delete the sources of removed entities
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public ERDPlusGeneratorConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return  The names of the types the generated code refers to, for the configured persistence API
+     */
+    private ERDPlusAnnotationCatalog catalog() {
+        return ERDPlusAnnotationCatalog.of(config.getPersistenceApi());
+    }
+
+    /**
+     * @param config    The options controlling what is generated
+     */
+    public void setConfig(ERDPlusGeneratorConfig config) {
+        this.config = config;
+        this.lastResolved = null;
+    }
+
+    /**
+     * @param manifestPath  The path of the incremental generation manifest in the output, so that
+     *                      generators sharing an output each keep their own
+     */
+    void setManifestPath(String manifestPath) {
+        this.manifestPath = manifestPath;
+    }
+
+    public ERDPlusGenerationReport generateEntityBeans(final ERDPlusEntityRelationshipModel model) {
+        prepareTargetDir();
+        long indexStarted = System.nanoTime();
+
+        // Index the model once so every lookup made while generating is a map access
+        ERDPlusModelIndex index = indexFor(model);
+
+        // Report every class and table name collision before writing anything
+        namesFor(index).checkForCollisions(index.getEntities());
+
+        // Build and write the bean for each entity, carrying on past entities that fail
+        EntityBeanPipeline pipeline = new EntityBeanPipeline();
+        pipeline.indexNanos = System.nanoTime() - indexStarted;
+        try {
+            index.getEntities().forEach(entity -> pipeline.submit(index, entity));
+        } catch (RuntimeException e) {
+            pipeline.abort();
+            throw e;
+        }
+        return pipeline.finish();
+    }
+
+    /**
+     * Streams the export, generating the bean for each entity as soon as all of its relationships
+     * have been read rather than waiting for the whole model
+     *
+     * @param erModelExportFile The ERDPlus export to generate entity beans for
+     * @return                  What was generated
+     */
+    public ERDPlusGenerationReport generateEntityBeans(File erModelExportFile) throws IOException {
+        prepareTargetDir();
+        log.println("Streaming model from " + erModelExportFile);
+
+        EntityBeanPipeline pipeline = new EntityBeanPipeline();
+        try {
+            long readStarted = System.nanoTime();
+            streamingReader.read(erModelExportFile, new ERDPlusStreamingModelReader.EntityListener() {
+                @Override
+                public void shapesRead(ERDPlusModelIndex index) {
+                    // Report every class and table name collision before any entity is generated
+                    namesFor(index).checkForCollisions(index.getEntities());
+                }
+
+                @Override
+                public void entityReady(ERDPlusModelIndex index, ERDPlusShape entity) {
+                    pipeline.submit(index, entity);
+                }
+            }, config.isWholeModelNeeded());
+            pipeline.parseNanos = System.nanoTime() - readStarted - pipeline.submitNanos;
+        } catch (IOException | RuntimeException e) {
+            pipeline.abort();
+            throw e;
+        }
+        return pipeline.finish();
+    }
+
+    /**
+     * Reads the export into an index without binding the parts of it the generator does not use
+     *
+     * @param erModelExportFile The ERDPlus export to read
+     * @return                  The index of the read model
+     */
+    public ERDPlusModelIndex readModelIndex(File erModelExportFile) throws IOException {
+        log.println("Streaming model from " + erModelExportFile);
+        return streamingReader.read(erModelExportFile);
+    }
+
+    private void prepareTargetDir() {
+        if (getOutputSink() == null) {
             throw new RuntimeException("No target directory specified");
         }
-        if (!getTargetDir().exists()) {
+        if (incremental && !getOutputSink().canReadBack()) {
+            throw new RuntimeException("Incremental generation needs an output that can be read back, which " + getOutputSink() + " can not");
+        }
+        if (getTargetDir() != null && !getTargetDir().exists()) {
             getTargetDir().mkdirs();
         }
 
-        System.out.println("Generating entity beans for package " + packageName + " in " + targetDir);
+        log.println("Generating entity beans for package " + packageName + " in " + getOutputSink());
+    }
 
+    /**
+     * Returns the index for the passed model, re-using the last one built if it was for the same model
+     *
+     * @param model The read in entity model
+     * @return      The index of the model
+     */
+    ERDPlusModelIndex indexFor(final ERDPlusEntityRelationshipModel model) {
+        IndexedModel indexed = lastIndexed;
+        if (indexed == null || indexed.model != model) {
+            indexed = new IndexedModel(model, ERDPlusModelIndex.of(model));
+            lastIndexed = indexed;
+        }
+        return indexed.index;
+    }
 
-        // Extract the entities
-        List<ERDPlusShape> entities = extractTypesFromModel(model, TYPE.ENTITY);
+    /**
+     * Returns the name resolver for the passed index, re-using the last one created if it was for
+     * the same index so names are only worked out once per generation
+     *
+     * @param index The index of the read in entity model
+     * @return      The resolver of the names generated for the model
+     */
+    ERDPlusNameResolver namesFor(final ERDPlusModelIndex index) {
+        return resolve(index).names;
+    }
 
-        // Iterate the entities and write the bean for the entity
-        entities.forEach(entity -> {
-            try {
-                writeEntityToFile(generateTypeSpecForEntity(model, entity));
-            } catch (IOException e) {
-                throw new RuntimeException("Failed to generate entity bean for :" + e, e);
+    /**
+     * Returns the cache plan for the passed index, made once per generation as for its names
+     *
+     * @param index The index of the read in entity model, with all of its shapes read
+     * @return      The plan of the entities put in the second level cache
+     */
+    ERDPlusCachePlan cachePlanFor(final ERDPlusModelIndex index) {
+        ResolvedIndex resolved = resolve(index);
+        ERDPlusCachePlan cachePlan = resolved.cachePlan;
+        if (cachePlan == null) {
+            synchronized (resolved) {
+                cachePlan = resolved.cachePlan;
+                if (cachePlan == null) {
+                    cachePlan = new ERDPlusCachePlan(index, resolved.names, config);
+                    resolved.cachePlan = cachePlan;
+                }
             }
-        });
+        }
+        return cachePlan;
+    }
+
+    private ResolvedIndex resolve(final ERDPlusModelIndex index) {
+        ResolvedIndex resolved = lastResolved;
+        if (resolved == null || resolved.index != index) {
+            synchronized (this) {
+                resolved = lastResolved;
+                if (resolved == null || resolved.index != index) {
+                    resolved = new ResolvedIndex(index, new ERDPlusNameResolver(getPackageName(), config.getSchemaDialect()));
+                    lastResolved = resolved;
+                }
+            }
+        }
+        return resolved;
     }
 
     public List<ERDPlusShape> extractTypesFromModel(final ERDPlusEntityRelationshipModel model, TYPE type) {
@@ -115,23 +474,13 @@ public class ERDPlusImportServiceImpl {
     }
 
     public List<ERDPlusShape> extractRelationshipsForEntity(final ERDPlusEntityRelationshipModel model, int id) {
-        return extractConnectorsForSource(model, id, TYPE.RELATIONSHIP_CONNECTOR).stream()
-            .map(conn -> extractObjectFromModel(model, conn.destination))
+        return indexFor(model).getRelationshipsForEntity(id).stream()
+            .map(rel -> rel.shape)
             .collect(Collectors.toList());
     }
 
-    private ERDPlusShape extractObjectFromModel(ERDPlusEntityRelationshipModel model, int entityId) {
-        return model.shapes.stream()
-            .filter(shape -> shape.details.id == entityId)    // we want "michael" only
-            .findAny()                                    // If 'findAny' then return found
-            .orElse(null);
-    }
-
     public List<ERDPlusConnector> extractConnectorsForSource(final ERDPlusEntityRelationshipModel model, int sourceId, TYPE type) {
-        return model.connectors.stream()
-            .filter(connector -> connector.source == sourceId)
-            .filter(connector -> connector.type == type)
-            .collect(Collectors.toList());
+        return indexFor(model).getConnectorsForSource(sourceId, type);
     }
 
 
@@ -139,94 +488,329 @@ public class ERDPlusImportServiceImpl {
      * For the specified entity, this will create the class and add all the related entities to it
      * with annotated mappings based on the relationship it has with it
      *
-     * @param model     The read in entity model
+     * @param index     The index of the read in entity model
      * @param entity    The entity within the model to generate a class typespec for
      * @return          The generated type spec
      */
-    private TypeSpec generateTypeSpecForEntity(final ERDPlusEntityRelationshipModel model, ERDPlusShape entity) {
+    public TypeSpec generateTypeSpecForEntity(final ERDPlusModelIndex index, ERDPlusShape entity) {
+        ERDPlusNameResolver names = namesFor(index);
+        ERDPlusCachePlan cachePlan = cachePlanFor(index);
+        String className = names.getClassName(entity);
 
-        // Add the Table name
-        AnnotationSpec.Builder tableAnon = AnnotationSpec.builder(Table.class);
-        tableAnon.addMember("name", "$L", getAsClassName(entity.details.name) + ".TABLE_NAME");
-
-        // Create a builder for a class that has the entities name and add an @Entity annotation
-        TypeSpec.Builder builder = TypeSpec.classBuilder(getAsClassName(entity.details.name))
-            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-            .addAnnotation(tableAnon.build())
-            .addAnnotation(Getter.class)
-            .addAnnotation(Setter.class)
-            .addAnnotation(Entity.class);
+        // Add the fields first, collecting the indexes and constraints of the table as they are added
+        TableSchema schema = new TableSchema(catalog(), config.getSchemaDialect(), names.getTableName(entity));
+        TypeSpec.Builder fields = TypeSpec.classBuilder(className);
 
         // Create a TABLE_NAME field
-        addTableNameFieldForEntity(entity, builder);
+        addTableNameFieldForEntity(names, entity, fields);
+
+        // Create the named entity graphs, with a constant for each of their names
+        AnnotationSpec entityGraphs = config.isGraphsGenerated() ? generateEntityGraphs(index, names, entity, fields) : null;
 
         // Create an ID field
-        addIdentityFieldForEntity(builder);
+        addIdentityFieldForEntity(names, entity, getSharedKeyRelationship(index, entity) != null, fields);
 
         // Iterate all the relationships for this entity
-        extractRelationshipsForEntity(model, entity.details.id).forEach(rel -> {
-
-            RELATIONSHIP_TYPE type = getRelationshipTypeForRelationship(rel);
+        index.getRelationshipsForEntity(entity.details.id).forEach(rel -> {
 
-            rel.details.slots.forEach(slot -> {
+            rel.shape.details.slots.forEach(slot -> {
 
                 // Is this the foreign entity (i.e. we dont want to add a field for ourselves
                 if (slot.entityId != entity.details.id) {
-                    ERDPlusShape foreignEntity = extractObjectFromModel(model, slot.entityId);
+                    ERDPlusShape foreignEntity = index.getShape(slot.entityId);
 
                     // Add the field
                     addFieldForForeignEntity(
-                        builder,
-                        type,
+                        index,
+                        names,
+                        cachePlan,
+                        fields,
+                        schema,
+                        rel,
                         foreignEntity,
                         slot,
-                        entity,
-                        rel.details.name
+                        entity
                     );
                 }
             });
         });
 
-        return builder.build();
+        // Add a column for each attribute
+        if (config.isAttributesGenerated()) {
+            addAttributeFieldsForEntity(index, names, entity, fields, schema);
+        }
+
+        // Add the Table name, indexes and constraints
+        AnnotationSpec.Builder tableAnon = AnnotationSpec.builder(catalog().table);
+        addTableName(tableAnon, className, names.getTableName(entity));
+        schema.addTo(tableAnon);
+
+        // Create a builder for a class that has the entities name and add an @Entity annotation
+        // Hibernate can not proxy a final class, so lazily fetched entities are left open
+        WRITE_MODE writeMode = config.getEntityWriteMode(className, schema.columns.size());
+        TypeSpec.Builder builder = TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC)
+            .addAnnotation(tableAnon.build())
+            .addAnnotation(catalog().getter);
+        if (writeMode != WRITE_MODE.IMMUTABLE) {
+            builder.addAnnotation(catalog().setter);
+        }
+        builder.addAnnotation(catalog().entity);
+        if (!config.isLazyFetchUsed()) {
+            builder.addModifiers(Modifier.FINAL);
+        }
+
+        // Only write the columns that are set or changed, or never write a read only entity
+        if (writeMode == WRITE_MODE.DYNAMIC) {
+            builder.addAnnotation(catalog().dynamicInsert);
+            builder.addAnnotation(catalog().dynamicUpdate);
+        } else if (writeMode == WRITE_MODE.IMMUTABLE) {
+            builder.addAnnotation(catalog().immutable);
+        }
+
+        // Put the entity in the second level cache
+        CACHE_STRATEGY cacheStrategy = cachePlan.getStrategy(entity);
+        if (cacheStrategy != null) {
+            builder.addAnnotation(catalog().cacheable);
+            builder.addAnnotation(cacheAnnotation(cacheStrategy, ERDPlusCachePlan.getEntityRegionConstant(names, entity)));
+        }
+        if (entityGraphs != null) {
+            builder.addAnnotation(entityGraphs);
+        }
+
+        // Load uninitialised proxies of the entity in batches
+        int batchSize = config.getEntityBatchSize();
+        if (batchSize > 0) {
+            builder.addAnnotation(AnnotationSpec.builder(catalog().batchSize).addMember("size", "$L", batchSize).build());
+        }
+
+        builder.addFields(fields.build().fieldSpecs);
+        TypeSpec spec = builder.build();
+        warnOfDuplicateFields(spec);
+        return spec;
+    }
+
+    /**
+     * Entities joined by more than one relationship get a field of the same name for each of them,
+     * which will not compile. Warn about it rather than fail, as the rest of the model is still usable.
+     *
+     * @param spec  The generated entity type spec
+     */
+    private void warnOfDuplicateFields(TypeSpec spec) {
+        Set<String> fieldNames = new HashSet<>();
+        spec.fieldSpecs.forEach(field -> {
+            if (!fieldNames.add(field.name)) {
+                log.println("Warning: " + spec.name + " has more than one field named " + field.name);
+            }
+        });
+    }
+
+    /**
+     * Builds a named entity graph for each association of the entity, and one following its
+     * associations and theirs to the configured depth. Associations leading back to an entity
+     * already on the way are left out, as it is already loaded.
+     *
+     * @return  The entity graphs annotation, or null if the entity has no associations
+     */
+    private AnnotationSpec generateEntityGraphs(ERDPlusModelIndex index, ERDPlusNameResolver names, ERDPlusShape entity, TypeSpec.Builder builder) {
+        Map<String, ERDPlusShape> associations = getAssociations(index, names, entity);
+        if (associations.isEmpty()) {
+            return null;
+        }
+        String className = names.getClassName(entity);
+        AnnotationSpec.Builder graphs = AnnotationSpec.builder(catalog().namedEntityGraphs);
+        associations.keySet().forEach(attributePath -> {
+            String fieldName = attributePath.split("\\.")[0];
+            String constant = "GRAPH_" + ERDPlusCachePlan.toConstantName(fieldName);
+            builder.addField(graphNameField(constant, className + "." + fieldName));
+            List<AnnotationSpec> subgraphs = new ArrayList<>();
+            AnnotationSpec.Builder graph = AnnotationSpec.builder(catalog().namedEntityGraph)
+                .addMember("name", "$L", className + "." + constant)
+                .addMember("attributeNodes", "$L", graphNode(catalog(), attributePath, "", Collections.emptyList(), subgraphs));
+            subgraphs.forEach(subgraph -> graph.addMember("subgraphs", "$L", subgraph));
+            graphs.addMember("value", "$L", graph.build());
+        });
+
+        builder.addField(graphNameField("ASSOCIATION_GRAPH", className + ".associations"));
+        AnnotationSpec.Builder graph = AnnotationSpec.builder(catalog().namedEntityGraph).addMember("name", "$L", className + ".ASSOCIATION_GRAPH");
+        List<AnnotationSpec> subgraphs = new ArrayList<>();
+        Set<Integer> path = new HashSet<>();
+        path.add(entity.details.id);
+        generateGraphNodes(index, names, entity, "", config.getGraphDepth(), path, subgraphs)
+            .forEach(node -> graph.addMember("attributeNodes", "$L", node));
+        subgraphs.forEach(subgraph -> graph.addMember("subgraphs", "$L", subgraph));
+        graphs.addMember("value", "$L", graph.build());
+        return graphs.build();
+    }
+
+    private List<AnnotationSpec> generateGraphNodes(ERDPlusModelIndex index, ERDPlusNameResolver names, ERDPlusShape entity, String prefix, int depth, Set<Integer> path, List<AnnotationSpec> subgraphs) {
+        List<AnnotationSpec> nodes = new ArrayList<>();
+        getAssociations(index, names, entity).forEach((attributePath, foreignEntity) -> {
+            if (path.contains(foreignEntity.details.id)) {
+                return;
+            }
+            List<AnnotationSpec> children = Collections.emptyList();
+            if (depth > 1) {
+                path.add(foreignEntity.details.id);
+                children = generateGraphNodes(index, names, foreignEntity, prefix + attributePath + ".", depth - 1, path, subgraphs);
+                path.remove(foreignEntity.details.id);
+            }
+            nodes.add(graphNode(catalog(), attributePath, prefix, children, subgraphs));
+        });
+        return nodes;
+    }
+
+    /**
+     * Builds the node of the first field on a path of fields, with a subgraph holding the node of
+     * the next field on it, and so on until the last, whose subgraph holds the passed children
+     *
+     * @param catalog       The names of the annotations
+     * @param attributePath The path of fields, separated by dots
+     * @param prefix        The path of the subgraph the node is in, followed by a dot, or empty
+     * @param children      The nodes of the subgraph of the last field
+     * @param subgraphs     Collects the subgraphs built
+     * @return              The node of the first field
+     */
+    private static AnnotationSpec graphNode(ERDPlusAnnotationCatalog catalog, String attributePath, String prefix, List<AnnotationSpec> children, List<AnnotationSpec> subgraphs) {
+        int dot = attributePath.indexOf('.');
+        String fieldName = dot < 0 ? attributePath : attributePath.substring(0, dot);
+        if (dot >= 0) {
+            children = Collections.singletonList(graphNode(catalog, attributePath.substring(dot + 1), prefix + fieldName + ".", children, subgraphs));
+        }
+
+        AnnotationSpec.Builder node = AnnotationSpec.builder(catalog.namedAttributeNode).addMember("value", "$S", fieldName);
+        if (!children.isEmpty()) {
+            String subgraph = prefix + fieldName;
+            node.addMember("subgraph", "$S", subgraph);
+            AnnotationSpec.Builder subgraphAnon = AnnotationSpec.builder(catalog.namedSubgraph).addMember("name", "$S", subgraph);
+            children.forEach(child -> subgraphAnon.addMember("attributeNodes", "$L", child));
+            subgraphs.add(subgraphAnon.build());
+        }
+        return node.build();
+    }
+
+    private static FieldSpec graphNameField(String constant, String graphName) {
+        return FieldSpec.builder(String.class, constant, Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .initializer("$S", graphName)
+            .build();
+    }
+
+    /**
+     * @param index     The index of the read in entity model
+     * @param names     The resolver of the names generated for the model
+     * @param entity    The entity
+     * @return          The entity on the other side of each association field the entity is
+     *                  generated with, by field name. An entity reached through a join entity is
+     *                  keyed by the path of fields to it.
+     */
+    private Map<String, ERDPlusShape> getAssociations(ERDPlusModelIndex index, ERDPlusNameResolver names, ERDPlusShape entity) {
+        Map<String, ERDPlusShape> associations = new LinkedHashMap<>();
+        index.getRelationshipsForEntity(entity.details.id).forEach(rel -> rel.shape.details.slots.forEach(slot -> {
+            ERDPlusShape foreignEntity = index.getShape(slot.entityId);
+            if (slot.entityId == entity.details.id || foreignEntity == null) {
+                return;
+            }
+            String fieldName = null;
+            if (RELATIONSHIP_TYPE.ONE_TO_MANY == rel.type && CARDINALITY_MANY.equals(slot.cardinality)) {
+                fieldName = names.getFieldName(foreignEntity);
+            } else if (RELATIONSHIP_TYPE.ONE_TO_MANY == rel.type && CARDINALITY_ONE.equals(slot.cardinality)) {
+                fieldName = names.names(foreignEntity).collectionFieldName;
+            } else if (RELATIONSHIP_TYPE.MANY_TO_MANY == rel.type && config.getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_ENTITY) {
+
+                // The foreign entity is reached through the join entities
+                ERDPlusShape first = slot.slotIndex == 0 ? foreignEntity : entity;
+                ERDPlusShape second = slot.slotIndex == 0 ? entity : foreignEntity;
+                fieldName = names.getJoinEntityCollectionFieldName(first, second) + "." + names.getFieldName(foreignEntity);
+            } else if (RELATIONSHIP_TYPE.MANY_TO_MANY == rel.type) {
+                fieldName = names.names(foreignEntity).collectionFieldName;
+            } else if (RELATIONSHIP_TYPE.ONE_TO_ONE == rel.type && !(slot.slotIndex == 0 && isSharedKeyRelationship(index, rel, foreignEntity))) {
+                fieldName = names.getFieldName(foreignEntity);
+            }
+            if (fieldName != null) {
+                associations.putIfAbsent(fieldName, foreignEntity);
+            }
+        }));
+        return associations;
     }
 
-    private void addTableNameFieldForEntity(ERDPlusShape entity, TypeSpec.Builder builder) {
+    private void addTableNameFieldForEntity(ERDPlusNameResolver names, ERDPlusShape entity, TypeSpec.Builder builder) {
         String idFieldName = "TABLE_NAME";
         FieldSpec.Builder fieldBuilder = FieldSpec.builder(String.class, idFieldName, Modifier.PUBLIC).addModifiers(Modifier.STATIC).addModifiers(Modifier.FINAL);
-        fieldBuilder.initializer(CodeBlock.of("$S", entity.details.name.toUpperCase()));
+        fieldBuilder.initializer(CodeBlock.of("$S", names.getTableName(entity)));
         builder.addField(fieldBuilder.build());
     }
 
     /**
-     * Auto generates an identity field to the entity
+     * Auto generates an identity field to the entity, typed and generated by the configured id strategy
      *
+     * @param sharedKey True if the id is taken from the entity the entity belongs to by <code>@MapsId</code>, so it is not generated
      */
-    private void addIdentityFieldForEntity(TypeSpec.Builder builder) {
+    private void addIdentityFieldForEntity(ERDPlusNameResolver names, ERDPlusShape entity, boolean sharedKey, TypeSpec.Builder builder) {
+        ID_STRATEGY strategy = config.getIdStrategy();
 
         // Add the identity field
         String idFieldName = "id";
-        FieldSpec.Builder fieldBuilder = FieldSpec.builder(String.class, idFieldName, Modifier.PRIVATE);
+        FieldSpec.Builder fieldBuilder = FieldSpec.builder(getIdType(), idFieldName, Modifier.PRIVATE);
 
         // Add the @Id
-        fieldBuilder.addAnnotation(AnnotationSpec.builder(Id.class).build());
+        fieldBuilder.addAnnotation(AnnotationSpec.builder(catalog().id).build());
 
-        // Add the id generation strategy
-        AnnotationSpec.Builder anonBuilder = AnnotationSpec.builder(GeneratedValue.class);
-        anonBuilder.addMember("generator", "$S", "UUID");
-        fieldBuilder.addAnnotation(anonBuilder.build());
+        AnnotationSpec.Builder anonBuilder;
+        if (sharedKey) {
 
-        // Add the generic genarator
-        anonBuilder = AnnotationSpec.builder(GenericGenerator.class);
-        anonBuilder.addMember("name", "$S", "UUID");
-        anonBuilder.addMember("strategy", "$S", UUIDGenerator.class.getName());
-        fieldBuilder.addAnnotation(anonBuilder.build());
+            // The id is copied from the entity this one belongs to when it is persisted
+            if (strategy == ID_STRATEGY.UUID_BINARY) {
+                fieldBuilder.addAnnotation(AnnotationSpec.builder(catalog().type).addMember("type", "$S", "uuid-binary").build());
+            }
+        } else if (strategy == ID_STRATEGY.SEQUENCE) {
+
+            // Draw ids from a sequence for the entity, allocating a block of them at a time
+            String sequenceName = names.names(entity).sequenceName;
+            anonBuilder = AnnotationSpec.builder(catalog().generatedValue);
+            anonBuilder.addMember("strategy", "$T.$L", catalog().generationType, "SEQUENCE");
+            anonBuilder.addMember("generator", "$S", sequenceName);
+            fieldBuilder.addAnnotation(anonBuilder.build());
+
+            anonBuilder = AnnotationSpec.builder(catalog().genericGenerator);
+            anonBuilder.addMember("name", "$S", sequenceName);
+            anonBuilder.addMember("strategy", "$S", ERDPlusAnnotationCatalog.SEQUENCE_STYLE_GENERATOR);
+            anonBuilder.addMember("parameters", "$L", generatorParameter(ERDPlusAnnotationCatalog.SEQUENCE_PARAM, mappedName(sequenceName)));
+            anonBuilder.addMember("parameters", "$L", generatorParameter(ERDPlusAnnotationCatalog.INCREMENT_PARAM, String.valueOf(config.getIdAllocationSize())));
+            anonBuilder.addMember("parameters", "$L", generatorParameter(ERDPlusAnnotationCatalog.OPT_PARAM, config.getIdOptimizer()));
+            fieldBuilder.addAnnotation(anonBuilder.build());
+        } else if (strategy == ID_STRATEGY.UUID_BINARY) {
+
+            // Add the time ordered id generator generated alongside the entities
+            anonBuilder = AnnotationSpec.builder(catalog().generatedValue);
+            anonBuilder.addMember("generator", "$S", TIME_ORDERED_UUID_GENERATOR);
+            fieldBuilder.addAnnotation(anonBuilder.build());
+
+            anonBuilder = AnnotationSpec.builder(catalog().genericGenerator);
+            anonBuilder.addMember("name", "$S", TIME_ORDERED_UUID_GENERATOR);
+            anonBuilder.addMember("strategy", "$S", getPackageName() + "." + TIME_ORDERED_UUID_GENERATOR);
+            fieldBuilder.addAnnotation(anonBuilder.build());
+            fieldBuilder.addAnnotation(AnnotationSpec.builder(catalog().type).addMember("type", "$S", "uuid-binary").build());
+        } else {
+
+            // Add the id generation strategy
+            anonBuilder = AnnotationSpec.builder(catalog().generatedValue);
+            anonBuilder.addMember("generator", "$S", "UUID");
+            fieldBuilder.addAnnotation(anonBuilder.build());
+
+            // Add the generic genarator
+            anonBuilder = AnnotationSpec.builder(catalog().genericGenerator);
+            anonBuilder.addMember("name", "$S", "UUID");
+            anonBuilder.addMember("strategy", "$S", ERDPlusAnnotationCatalog.UUID_GENERATOR);
+            fieldBuilder.addAnnotation(anonBuilder.build());
+        }
 
         // Add the column definition
         anonBuilder =
-            AnnotationSpec.builder(Column.class)
+            AnnotationSpec.builder(catalog().column)
                 .addMember("name", "$S", "ID")
                 .addMember("unique", "true")
                 .addMember("nullable", "false");
+        addIdColumnDefinition(anonBuilder);
         fieldBuilder.addAnnotation(anonBuilder.build());
 
         // Add the return code block
@@ -236,78 +820,623 @@ public class ERDPlusImportServiceImpl {
 
     }
 
+    /**
+     * @return  The type of the identity field of every entity
+     */
+    private TypeName getIdType() {
+        ID_STRATEGY strategy = config.getIdStrategy();
+        return strategy == ID_STRATEGY.SEQUENCE ? ClassName.get(Long.class) : strategy == ID_STRATEGY.UUID_BINARY ? ClassName.get(UUID.class) : ClassName.get(String.class);
+    }
 
-    private void addFieldForForeignEntity(TypeSpec.Builder builder,
-                                          RELATIONSHIP_TYPE type,
-                                          ERDPlusShape foreignEntity,
-                                          ERDPlusSlot slot,
-                                          ERDPlusShape owningEntity,
-                                          String relationshipDesc) {
-
-        String foreignFieldName = getForeignEntityFieldName(foreignEntity);
-        ClassName foreignClassType = ClassName.get(getPackageName(), getAsClassName(foreignEntity.details.name));
+    private AnnotationSpec generatorParameter(String name, String value) {
+        return AnnotationSpec.builder(catalog().parameter).addMember("name", "$S", name).addMember("value", "$S", value).build();
+    }
 
+    /**
+     * Columns holding binary ids are declared as such, with the binary type of the schema dialect, so
+     * that the id and every column referring to it are created with the same type as in the schema script
+     *
+     * @param columnAnon    The builder of a column or join column annotation
+     * @return              The builder
+     */
+    private AnnotationSpec.Builder addIdColumnDefinition(AnnotationSpec.Builder columnAnon) {
+        if (config.getIdStrategy() == ID_STRATEGY.UUID_BINARY) {
+            columnAnon.addMember("columnDefinition", "$S", config.getSchemaDialect().getBinaryUuidType());
+        }
+        return columnAnon;
+    }
 
-        // Determine if we add based on the relationship type
-        // Check if we are the 'many' in a one-to-many relationship. If so we need to add the field
-        // reference for who the 'one' we belong to is and annotate it
-        if (RELATIONSHIP_TYPE.ONE_TO_MANY == type) {
-            if (CARDINALITY_MANY.equals(slot.cardinality)) {
-                FieldSpec.Builder fieldBuilder = FieldSpec.builder(foreignClassType, foreignFieldName, Modifier.PRIVATE);
-                AnnotationSpec.Builder relationAnon = AnnotationSpec.builder(ManyToOne.class);
-                AnnotationSpec.Builder joinAnon = AnnotationSpec.builder(JoinColumn.class);
-                joinAnon.addMember("name", "$S", getIdColumnNameForEntity(foreignEntity));
-                joinAnon.addMember("nullable", "$L", "false");
-                fieldBuilder.addAnnotation(relationAnon.build());
-                fieldBuilder.addAnnotation(joinAnon.build());
-                fieldBuilder.addJavadoc("$L", relationshipDesc + "\n");
-                builder.addField(fieldBuilder.build());
-            } else if (CARDINALITY_ONE.equals(slot.cardinality)) {
-                AnnotationSpec.Builder relationAnon = AnnotationSpec.builder(OneToMany.class);
-                relationAnon.addMember("mappedBy", "$S", getAsFieldName(owningEntity.details.name));
-                relationAnon.addMember("cascade", "$L", "CascadeType.All");
-                generateSetFieldOfType(builder, foreignFieldName, foreignClassType, Collections.singletonList(relationAnon.build()), relationshipDesc);
+    /**
+     * Builds the classes generated alongside the entity beans that the beans depend on
+     *
+     * @param index The index of the read in entity model, or null if it had no entities
+     * @return      The type specs of the support classes
+     */
+    private List<TypeSpec> generateSupportTypeSpecs(ERDPlusModelIndex index) {
+        List<TypeSpec> specs = new ArrayList<>();
+        if (config.getIdStrategy() == ID_STRATEGY.UUID_BINARY) {
+            specs.add(generateTimeOrderedUuidGeneratorTypeSpec());
+        }
+        if (index != null && !cachePlanFor(index).isEmpty()) {
+            specs.add(generateCacheRegionsTypeSpec(index));
+        }
+        if (index != null && config.isBulkLoaderGenerated()) {
+            specs.add(generateBulkLoaderTypeSpec(index));
+        }
+        if (index != null && config.getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_ENTITY) {
+            for (JoinEntity join : getJoinEntities(index)) {
+                TypeSpec joinEntity = generateJoinEntityTypeSpec(index, join);
+                specs.add(joinEntity);
+                if (config.isMetamodelGenerated()) {
+                    specs.add(generateMetamodelTypeSpec(joinEntity));
+                }
             }
         }
-        // For Many to Many
-        else if (RELATIONSHIP_TYPE.MANY_TO_MANY == type) {
-            List<AnnotationSpec> anons = new ArrayList<>();
-            AnnotationSpec.Builder relationAnon = AnnotationSpec.builder(ManyToMany.class);
-            relationAnon.addMember("mappedBy", "$S", getAsFieldName(owningEntity.details.name) + "s");
-            anons.add(relationAnon.build());
+        if (index != null && config.isRegistryGenerated()) {
+            specs.add(generateEntityRegistryTypeSpec(index));
+        }
+        if (index != null && config.isReadModelGenerated()) {
+            specs.addAll(ERDPlusReadModel.generate(index, namesFor(index), config, getPackageName()));
+        }
+        if (index != null && config.isLoadTestGenerated()) {
+            specs.add(ERDPlusLoadTest.generate(catalog(), getInsertOrder(index), config.getBulkBatchSize()));
+        }
+        return specs;
+    }
 
+    /**
+     * Builds the resources generated alongside the entity beans, named by their file name in the package
+     *
+     * @param index The index of the read in entity model, or null if it had no entities
+     * @return      The content of each resource
+     */
+    private Map<String, String> generateSupportResources(ERDPlusModelIndex index) {
+        Map<String, String> resources = new LinkedHashMap<>();
+        if (index != null && config.isSchemaScriptGenerated()) {
+            resources.put(ERDPlusSchemaScript.SCHEMA_SQL, ERDPlusSchemaScript.generate(index, namesFor(index), config, getPackageName()));
+        }
+        if (config.isBulkLoaderGenerated()) {
+            resources.put(BULK_LOADER_PROPERTIES,
+                "# JDBC batching for the entities of " + getPackageName() + ", to go with " + BULK_LOADER + "\n"
+                    + "hibernate.jdbc.batch_size=" + config.getBulkBatchSize() + "\n"
+                    + "hibernate.order_inserts=true\n"
+                    + "hibernate.order_updates=true\n"
+                    + "hibernate.jdbc.batch_versioned_data=true\n");
+        }
+        if (config.getOneToOneStrategy() == ONE_TO_ONE_STRATEGY.NO_PROXY) {
+            resources.put(ENHANCE_PLUGIN,
+                "<!-- Enhances the entities of " + getPackageName() + " as they are compiled, so that their one to one\n"
+                    + "     associations are loaded lazily without proxies. Add it to the build plugins of their module. -->\n"
+                    + "<plugin>\n"
+                    + "    <groupId>org.hibernate.orm.tooling</groupId>\n"
+                    + "    <artifactId>hibernate-enhance-maven-plugin</artifactId>\n"
+                    + "    <version>" + config.getPersistenceApi().getHibernateVersion() + "</version>\n"
+                    + "    <executions>\n"
+                    + "        <execution>\n"
+                    + "            <configuration>\n"
+                    + "                <enableLazyInitialization>true</enableLazyInitialization>\n"
+                    + "            </configuration>\n"
+                    + "            <goals>\n"
+                    + "                <goal>enhance</goal>\n"
+                    + "            </goals>\n"
+                    + "        </execution>\n"
+                    + "    </executions>\n"
+                    + "</plugin>\n");
+        }
+        return resources;
+    }
 
-            if (slot.slotIndex == 0) {
-                AnnotationSpec.Builder joinAnon = AnnotationSpec.builder(JoinTable.class);
-                joinAnon.addMember("name", "$S", getJoinTableName(foreignEntity,owningEntity));
-                joinAnon.addMember("joinColumns", "$L", AnnotationSpec.builder(JoinColumn.class).addMember("name", "$S", getIdColumnNameForEntity(foreignEntity)).build());
-                joinAnon.addMember("inverseJoinColumns", "$L", AnnotationSpec.builder(JoinColumn.class).addMember("name", "$S", getIdColumnNameForEntity(owningEntity)).build());
-                anons.add(joinAnon.build());
+    /**
+     * Finds the join entities mapping the join tables of the many to many relationships, one for
+     * each pair of entities however many relationships join them
+     *
+     * @param index The index of the read in entity model
+     * @return      The join entities, in model order of the entity on the inverse join column side
+     */
+    private List<JoinEntity> getJoinEntities(ERDPlusModelIndex index) {
+        ERDPlusNameResolver names = namesFor(index);
+        Map<ClassName, JoinEntity> joinEntities = new LinkedHashMap<>();
+        index.getEntities().forEach(entity -> index.getRelationshipsForEntity(entity.details.id).forEach(rel -> rel.shape.details.slots.forEach(slot -> {
+            ERDPlusShape foreignEntity = index.getShape(slot.entityId);
+            if (RELATIONSHIP_TYPE.MANY_TO_MANY == rel.type && slot.slotIndex == 0 && slot.entityId != entity.details.id && foreignEntity != null) {
+                joinEntities.computeIfAbsent(names.getJoinEntityType(foreignEntity, entity), type -> new JoinEntity(type, foreignEntity, entity, rel.shape.details.name));
             }
+        })));
+        return new ArrayList<>(joinEntities.values());
+    }
 
-            generateSetFieldOfType(builder, foreignFieldName, foreignClassType, anons, relationshipDesc);
-        }
-        // For One to One
+    /**
+     * Builds an entity mapping a join table, keyed by the pair of ids it joins. A pair is linked by
+     * persisting one with references to the two entities, and unlinked by removing it, without
+     * either entity's collection of them being loaded.
+     *
+     * @param index     The index of the read in entity model
+     * @param join      The join entity
+     * @return          The join entity type spec
+     */
+    private TypeSpec generateJoinEntityTypeSpec(ERDPlusModelIndex index, JoinEntity join) {
+        ERDPlusNameResolver names = namesFor(index);
+        String className = join.type.simpleName();
+        ClassName keyType = join.type.nestedClass("Key");
+        ClassName entityType = names.names(join.entity).type;
+        ClassName foreignEntityType = names.names(join.foreignEntity).type;
+        String joinTable = names.getJoinTableName(join.entity, join.foreignEntity);
+        String joinColumn = names.getIdColumnName(join.entity);
+        String inverseJoinColumn = names.getIdColumnName(join.foreignEntity);
+        String fieldName = names.getFieldName(join.entity);
+        String foreignFieldName = names.getFieldName(join.foreignEntity);
+
+        TypeSpec key = TypeSpec.classBuilder(keyType.simpleName())
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addSuperinterface(Serializable.class)
+            .addJavadoc("$L", "The pair of ids a row of the join table links\n")
+            .addAnnotation(catalog().embeddable)
+            .addAnnotation(catalog().getter)
+            .addAnnotation(catalog().setter)
+            .addAnnotation(catalog().noArgsConstructor)
+            .addAnnotation(catalog().allArgsConstructor)
+            .addAnnotation(catalog().equalsAndHashCode)
+            .addField(generateJoinKeyField(fieldName + "Id", joinColumn))
+            .addField(generateJoinKeyField(foreignFieldName + "Id", inverseJoinColumn))
+            .build();
+
+        // The unique pairs are the primary key, which indexes the join column, so only the inverse
+        // join column needs an index of its own
+        AnnotationSpec.Builder tableAnon = AnnotationSpec.builder(catalog().table);
+        addTableName(tableAnon, className, joinTable);
+        if (config.isIndexesGenerated()) {
+            tableAnon.addMember("indexes", "$L", index(catalog(), config.getSchemaDialect(), joinTable, inverseJoinColumn));
+        }
+
+        return TypeSpec.classBuilder(className)
+            .addModifiers(Modifier.PUBLIC)
+            .addJavadoc("$L", join.relationshipDesc + "\n<p>\n"
+                + "A row of the join table linking a {@link " + entityType.simpleName() + "} to a {@link " + foreignEntityType.simpleName() + "}. They are linked by\n"
+                + "persisting one, and unlinked by removing it, with neither of their collections being loaded.\n")
+            .addAnnotation(tableAnon.build())
+            .addAnnotation(catalog().getter)
+            .addAnnotation(catalog().setter)
+            .addAnnotation(catalog().entity)
+            .addField(FieldSpec.builder(String.class, "TABLE_NAME", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$S", joinTable)
+                .build())
+            .addField(FieldSpec.builder(keyType, "id", Modifier.PRIVATE)
+                .addAnnotation(catalog().embeddedId)
+                .initializer("new $T()", keyType)
+                .build())
+            .addField(generateJoinAssociationField(entityType, fieldName, joinColumn))
+            .addField(generateJoinAssociationField(foreignEntityType, foreignFieldName, inverseJoinColumn))
+            .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC).build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("$L", "Links two entities, either of which may be a reference to it got by its id without loading it\n")
+                .addParameter(entityType, fieldName)
+                .addParameter(foreignEntityType, foreignFieldName)
+                .addStatement("this.id = new $T($L.getId(), $L.getId())", keyType, fieldName, foreignFieldName)
+                .addStatement("this.$L = $L", fieldName, fieldName)
+                .addStatement("this.$L = $L", foreignFieldName, foreignFieldName)
+                .build())
+            .addType(key)
+            .build();
+    }
+
+    private FieldSpec generateJoinKeyField(String name, String columnName) {
+        FieldSpec.Builder fieldBuilder = FieldSpec.builder(getIdType(), name, Modifier.PRIVATE);
+        if (config.getIdStrategy() == ID_STRATEGY.UUID_BINARY) {
+            fieldBuilder.addAnnotation(AnnotationSpec.builder(catalog().type).addMember("type", "$S", "uuid-binary").build());
+        }
+        fieldBuilder.addAnnotation(addIdColumnDefinition(AnnotationSpec.builder(catalog().column)
+            .addMember("name", "$S", mappedName(columnName))
+            .addMember("nullable", "false")).build());
+        return fieldBuilder.build();
+    }
+
+    /**
+     * The join column of a join entity is both a part of its key and the foreign key of an association
+     */
+    private FieldSpec generateJoinAssociationField(ClassName type, String name, String columnName) {
+        return FieldSpec.builder(type, name, Modifier.PRIVATE)
+            .addAnnotation(AnnotationSpec.builder(catalog().manyToOne).addMember("fetch", "$T.$L", catalog().fetchType, "LAZY").build())
+            .addAnnotation(AnnotationSpec.builder(catalog().mapsId).addMember("value", "$S", name + "Id").build())
+            .addAnnotation(addIdColumnDefinition(AnnotationSpec.builder(catalog().joinColumn).addMember("name", "$S", mappedName(columnName))).build())
+            .build();
+    }
+
+    /**
+     * Builds a loader inserting entities through a stateless session in foreign key order, so that
+     * the rows of each table go to the database in JDBC batches rather than one at a time
+     *
+     * @param index The index of the read in entity model
+     * @return      The bulk loader type spec
+     */
+    private TypeSpec generateBulkLoaderTypeSpec(ERDPlusModelIndex index) {
+        ERDPlusNameResolver names = namesFor(index);
+        ERDPlusDependencyOrder order = ERDPlusDependencyOrder.of(index);
+        List<ClassName> types = getInsertOrder(index);
+        StringBuilder javadoc = new StringBuilder("Inserts entities through a stateless session, the rows of each entity after the rows they\n")
+            .append("refer to, sending them to the database in JDBC batches of {@link #BATCH_SIZE}.\n");
+        if (config.getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_ENTITY) {
+            javadoc.append("<p>\nThe rows of join tables are inserted as join entities, after the entities they link.\n");
+        } else {
+            javadoc.append("<p>\nA stateless session ignores collections, so the rows of join tables are not inserted.\n");
+        }
+        if (!order.getCycles().isEmpty()) {
+            String cycles = order.getCycles().stream().map(names::getClassName).collect(Collectors.joining(", "));
+            log.println("Warning: " + cycles + " have foreign keys forming a cycle, " + BULK_LOADER + " can not insert them in an order satisfying all of them");
+            javadoc.append("<p>\n").append(cycles).append(" have foreign keys forming a cycle, so not all of them\n")
+                .append("can refer to rows that are already inserted.\n");
+        }
+
+        ClassName classType = ClassName.get(Class.class);
+        TypeName anyClass = ParameterizedTypeName.get(classType, WildcardTypeName.subtypeOf(Object.class));
+        CodeBlock.Builder insertOrder = CodeBlock.builder().add("$T.unmodifiableList($T.<$T>asList(", Collections.class, Arrays.class, anyClass);
+        for (int i = 0; i < types.size(); i++) {
+            insertOrder.add(i == 0 ? "$T.class" : ", $T.class", types.get(i));
+        }
+
+        TypeName listOfObjects = ParameterizedTypeName.get(List.class, Object.class);
+        MethodSpec load = MethodSpec.methodBuilder("load")
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), WildcardTypeName.subtypeOf(Object.class)), "entities")
+            .addJavadoc("$L", "Inserts the entities in a single transaction, rolled back if any of them fail\n\n@param entities New entities of the generated classes, in any order\n")
+            .addStatement("$T<$T, $T> byClass = new $T<>()", Map.class, anyClass, listOfObjects, HashMap.class)
+            .beginControlFlow("for ($T entity : entities)", Object.class)
+            .beginControlFlow("if (!INSERT_ORDER.contains(entity.getClass()))")
+            .addStatement("throw new $T(\"Not a generated entity: \" + entity.getClass())", IllegalArgumentException.class)
+            .endControlFlow()
+            .addStatement("byClass.computeIfAbsent(entity.getClass(), type -> new $T<>()).add(entity)", ArrayList.class)
+            .endControlFlow()
+            .beginControlFlow("try ($T session = sessionFactory.openStatelessSession())", catalog().statelessSession)
+            .addStatement("session.setJdbcBatchSize(BATCH_SIZE)")
+            .addStatement("$T transaction = session.beginTransaction()", catalog().transaction)
+            .beginControlFlow("try")
+            .beginControlFlow("for ($T type : INSERT_ORDER)", anyClass)
+            .addStatement("byClass.getOrDefault(type, $T.emptyList()).forEach(session::insert)", Collections.class)
+            .endControlFlow()
+            .addStatement("transaction.commit()")
+            .nextControlFlow("catch ($T e)", RuntimeException.class)
+            .beginControlFlow("if (transaction.isActive())")
+            .addStatement("transaction.rollback()")
+            .endControlFlow()
+            .addStatement("throw e")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+
+        return TypeSpec.classBuilder(BULK_LOADER)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc("$L", javadoc)
+            .addField(FieldSpec.builder(int.class, "BATCH_SIZE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L", config.getBulkBatchSize())
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), anyClass), "INSERT_ORDER", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", "The entity classes in the order their rows are inserted\n")
+                .initializer(insertOrder.add("))").build())
+                .build())
+            .addField(catalog().sessionFactory, "sessionFactory", Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(catalog().sessionFactory, "sessionFactory")
+                .addStatement("this.sessionFactory = sessionFactory")
+                .build())
+            .addMethod(load)
+            .build();
+    }
+
+    /**
+     * @param index The index of the read in entity model
+     * @return      The entity classes, including any join entities, each after those it refers to
+     */
+    private List<ClassName> getInsertOrder(ERDPlusModelIndex index) {
+        ERDPlusNameResolver names = namesFor(index);
+        List<ClassName> types = ERDPlusDependencyOrder.of(index).getOrder().stream().map(entity -> names.names(entity).type).collect(Collectors.toList());
+        if (config.getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_ENTITY) {
+            getJoinEntities(index).forEach(join -> types.add(join.type));
+        }
+        return types;
+    }
+
+    /**
+     * Builds a registry of every entity class, so that they can be added to Hibernate up front rather
+     * than found by scanning the class path for annotated classes as it starts
+     *
+     * @param index The index of the read in entity model
+     * @return      The entity registry type spec
+     */
+    private TypeSpec generateEntityRegistryTypeSpec(ERDPlusModelIndex index) {
+        ERDPlusNameResolver names = namesFor(index);
+        TypeName anyClass = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+        CodeBlock.Builder classes = CodeBlock.builder().add("$T.unmodifiableList($T.<$T>asList(", Collections.class, Arrays.class, anyClass);
+        CodeBlock.Builder classNames = CodeBlock.builder().add("$T.unmodifiableList($T.asList(", Collections.class, Arrays.class);
+        List<ClassName> types = index.getEntities().stream().map(entity -> names.names(entity).type).collect(Collectors.toList());
+        if (config.getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_ENTITY) {
+            getJoinEntities(index).forEach(join -> types.add(join.type));
+        }
+        for (int i = 0; i < types.size(); i++) {
+            ClassName type = types.get(i);
+            classes.add(i == 0 ? "$T.class" : ", $T.class", type);
+            classNames.add(i == 0 ? "$S" : ", $S", type.toString());
+        }
+
+        return TypeSpec.classBuilder(ENTITY_REGISTRY)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc("$L", "Every entity class, to add to Hibernate rather than have it scan the class path for them\n")
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), anyClass), "ENTITY_CLASSES", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer(classes.add("))").build())
+                .build())
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class), "ENTITY_CLASS_NAMES", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", "The names of the entity classes, as the managed class names of a {@link "
+                    + catalog().api.getPackageName() + ".spi.PersistenceUnitInfo}\n")
+                .initializer(classNames.add("))").build())
+                .build())
+            .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build())
+            .addMethod(MethodSpec.methodBuilder("addAnnotatedClasses")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                .returns(catalog().metadataSources)
+                .addParameter(catalog().metadataSources, "sources")
+                .addJavadoc("$L", "Adds every entity class to the sources of a session factory\n\n@param sources The metadata sources\n@return        The metadata sources\n")
+                .beginControlFlow("for ($T entityClass : ENTITY_CLASSES)", anyClass)
+                .addStatement("sources.addAnnotatedClass(entityClass)")
+                .endControlFlow()
+                .addStatement("return sources")
+                .build())
+            .build();
+    }
+
+    /**
+     * Builds the JPA static metamodel class of an entity from its fields, as the metamodel annotation
+     * processor would, with an attribute and a constant holding the name of each persistent field
+     *
+     * @param entitySpec    The entity type spec
+     * @return              The metamodel type spec
+     */
+    private TypeSpec generateMetamodelTypeSpec(TypeSpec entitySpec) {
+        ClassName entityType = ClassName.get(getPackageName(), entitySpec.name);
+        TypeSpec.Builder builder = TypeSpec.classBuilder(entitySpec.name + "_")
+            .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+            .addAnnotation(AnnotationSpec.builder(catalog().staticMetamodel).addMember("value", "$T.class", entityType).build())
+            .addJavadoc("$L", "The static metamodel of {@link " + entitySpec.name + "}, populated by Hibernate as the session factory is built\n");
+        List<FieldSpec> names = new ArrayList<>();
+        for (FieldSpec field : entitySpec.fieldSpecs) {
+            if (field.hasModifier(Modifier.STATIC)) {
+                continue;
+            }
+            TypeName attributeType;
+            if (field.type instanceof ParameterizedTypeName && ((ParameterizedTypeName) field.type).rawType.equals(ClassName.get(Set.class))) {
+                attributeType = ParameterizedTypeName.get(catalog().setAttribute, entityType, ((ParameterizedTypeName) field.type).typeArguments.get(0));
+            } else {
+                attributeType = ParameterizedTypeName.get(catalog().singularAttribute, entityType, field.type);
+            }
+            builder.addField(FieldSpec.builder(attributeType, field.name, Modifier.PUBLIC, Modifier.STATIC, Modifier.VOLATILE).build());
+            names.add(FieldSpec.builder(String.class, ERDPlusCachePlan.toConstantName(field.name), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$S", field.name)
+                .build());
+        }
+        return builder.addFields(names).build();
+    }
+
+    /**
+     * Builds a class holding the name of the cache region of each cached entity and collection, and
+     * a list of them all for creating the caches of a JCache provider up front
+     *
+     * @param index The index of the read in entity model
+     * @return      The cache regions type spec
+     */
+    private TypeSpec generateCacheRegionsTypeSpec(ERDPlusModelIndex index) {
+        ERDPlusNameResolver names = namesFor(index);
+        ERDPlusCachePlan cachePlan = cachePlanFor(index);
+        Map<String, String> regions = new LinkedHashMap<>();
+        index.getEntities().forEach(entity -> {
+            if (cachePlan.getStrategy(entity) == null) {
+                return;
+            }
+            regions.putIfAbsent(ERDPlusCachePlan.getEntityRegionConstant(names, entity), ERDPlusCachePlan.getEntityRegion(names, entity));
+            index.getRelationshipsForEntity(entity.details.id).forEach(rel -> rel.shape.details.slots.forEach(slot -> {
+                ERDPlusShape foreignEntity = index.getShape(slot.entityId);
+                boolean collection = (RELATIONSHIP_TYPE.MANY_TO_MANY == rel.type && config.getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_TABLE)
+                    || (RELATIONSHIP_TYPE.ONE_TO_MANY == rel.type && CARDINALITY_ONE.equals(slot.cardinality));
+                if (slot.entityId != entity.details.id && foreignEntity != null && collection && cachePlan.getCollectionStrategy(entity, foreignEntity) != null) {
+                    String fieldName = names.names(foreignEntity).collectionFieldName;
+                    regions.putIfAbsent(ERDPlusCachePlan.getCollectionRegionConstant(names, entity, fieldName), ERDPlusCachePlan.getCollectionRegion(names, entity, fieldName));
+                }
+            }));
+        });
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(ERDPlusCachePlan.CACHE_REGIONS)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc("$L", "The second level cache regions of the cached entities and collections\n");
+        CodeBlock.Builder all = CodeBlock.builder().add("$T.unmodifiableList($T.asList(", Collections.class, Arrays.class);
+        int i = 0;
+        for (Map.Entry<String, String> region : regions.entrySet()) {
+            builder.addField(FieldSpec.builder(String.class, region.getKey(), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$S", region.getValue())
+                .build());
+            all.add(i++ == 0 ? "$L" : ", $L", region.getKey());
+        }
+        builder.addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, String.class), "ALL", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc("$L", "Every region, to create the caches of a JCache provider before the session factory is built\n")
+            .initializer(all.add("))").build())
+            .build());
+        builder.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+        return builder.build();
+    }
+
+    /**
+     * Builds a Hibernate identifier generator of UUIDs laid out as version 7 UUIDs, a 48 bit
+     * millisecond timestamp followed by random bits, so that ids increase over time and inserts
+     * land at the end of the primary key index instead of at random pages within it
+     *
+     * @return  The generator type spec
+     */
+    private TypeSpec generateTimeOrderedUuidGeneratorTypeSpec() {
+        ClassName secureRandom = ClassName.get("java.security", "SecureRandom");
+        MethodSpec next = MethodSpec.methodBuilder("next")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(UUID.class)
+            .addJavadoc("$L", "@return A new time ordered UUID\n")
+            .addStatement("long mostSigBits = (System.currentTimeMillis() << 16) | 0x7000L | (RANDOM.nextInt() & 0x0FFFL)")
+            .addStatement("long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L")
+            .addStatement("return new $T(mostSigBits, leastSigBits)", UUID.class)
+            .build();
+        MethodSpec generate = MethodSpec.methodBuilder("generate")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .returns(Serializable.class)
+            .addParameter(catalog().sharedSessionContractImplementor, "session")
+            .addParameter(Object.class, "object")
+            .addStatement("return next()")
+            .build();
+        return TypeSpec.classBuilder(TIME_ORDERED_UUID_GENERATOR)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addSuperinterface(catalog().identifierGenerator)
+            .addJavadoc("$L", "Generates UUIDs that increase over time, a 48 bit millisecond timestamp followed by random bits\n")
+            .addField(FieldSpec.builder(secureRandom, "RANDOM", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("new $T()", secureRandom)
+                .build())
+            .addMethod(next)
+            .addMethod(generate)
+            .build();
+    }
+
+
+    private void addFieldForForeignEntity(ERDPlusModelIndex index,
+                                          ERDPlusNameResolver names,
+                                          ERDPlusCachePlan cachePlan,
+                                          TypeSpec.Builder builder,
+                                          TableSchema schema,
+                                          ERDPlusRelationship rel,
+                                          ERDPlusShape foreignEntity,
+                                          ERDPlusSlot slot,
+                                          ERDPlusShape owningEntity) {
+
+        RELATIONSHIP_TYPE type = rel.type;
+        String relationshipDesc = rel.shape.details.name;
+        String foreignFieldName = names.getFieldName(foreignEntity);
+        ClassName foreignClassType = names.names(foreignEntity).type;
+        ERDPlusGeneratorConfig.FetchProfile fetch = config.getFetchProfile(type, relationshipDesc);
+
+
+        // Determine if we add based on the relationship type
+        // Check if we are the 'many' in a one-to-many relationship. If so we need to add the field
+        // reference for who the 'one' we belong to is and annotate it
+        if (RELATIONSHIP_TYPE.ONE_TO_MANY == type) {
+            if (CARDINALITY_MANY.equals(slot.cardinality)) {
+                FieldSpec.Builder fieldBuilder = FieldSpec.builder(foreignClassType, foreignFieldName, Modifier.PRIVATE);
+                AnnotationSpec.Builder relationAnon = AnnotationSpec.builder(catalog().manyToOne);
+                if (fetch.lazy) {
+                    relationAnon.addMember("fetch", "$T.$L", catalog().fetchType, "LAZY");
+                }
+                String joinColumn = names.getIdColumnName(foreignEntity);
+                AnnotationSpec.Builder joinAnon = AnnotationSpec.builder(catalog().joinColumn);
+                joinAnon.addMember("name", "$S", mappedName(joinColumn));
+                joinAnon.addMember("nullable", "$L", "false");
+                addIdColumnDefinition(joinAnon);
+
+                // Index the foreign key so fetching the 'many' of a 'one' does not scan the table
+                schema.joinColumn(joinColumn, rel.shape.details.isIdentifying);
+                if (config.isIndexesGenerated()) {
+                    schema.index(joinColumn);
+                }
+                fieldBuilder.addAnnotation(relationAnon.build());
+                fieldBuilder.addAnnotation(joinAnon.build());
+                fieldBuilder.addJavadoc("$L", relationshipDesc + "\n");
+                builder.addField(fieldBuilder.build());
+            } else if (CARDINALITY_ONE.equals(slot.cardinality)) {
+                AnnotationSpec.Builder relationAnon = AnnotationSpec.builder(catalog().oneToMany);
+                relationAnon.addMember("mappedBy", "$S", names.getFieldName(owningEntity));
+                relationAnon.addMember("cascade", "$T.$L", catalog().cascadeType, "ALL");
+                List<AnnotationSpec> anons = new ArrayList<>();
+                anons.add(relationAnon.build());
+                addCollectionFetchAnnotations(anons, fetch);
+                addCollectionCacheAnnotation(anons, names, cachePlan, owningEntity, foreignEntity);
+                generateSetFieldOfType(builder, names.names(foreignEntity).collectionFieldName, foreignClassType, anons, relationshipDesc);
+            }
+        }
+        // For Many to Many mapped by a join entity, hold the join entities linking this entity
+        else if (RELATIONSHIP_TYPE.MANY_TO_MANY == type && config.getManyToManyStrategy() == MANY_TO_MANY_STRATEGY.JOIN_ENTITY) {
+            ERDPlusShape first = slot.slotIndex == 0 ? foreignEntity : owningEntity;
+            ERDPlusShape second = slot.slotIndex == 0 ? owningEntity : foreignEntity;
+            AnnotationSpec.Builder relationAnon = AnnotationSpec.builder(catalog().oneToMany);
+            relationAnon.addMember("mappedBy", "$S", names.getFieldName(owningEntity));
+            List<AnnotationSpec> anons = new ArrayList<>();
+            anons.add(relationAnon.build());
+            addCollectionFetchAnnotations(anons, fetch);
+            generateSetFieldOfType(builder, names.getJoinEntityCollectionFieldName(first, second), names.getJoinEntityType(first, second), anons, relationshipDesc);
+        }
+        // For Many to Many
+        else if (RELATIONSHIP_TYPE.MANY_TO_MANY == type) {
+            List<AnnotationSpec> anons = new ArrayList<>();
+            AnnotationSpec.Builder relationAnon = AnnotationSpec.builder(catalog().manyToMany);
+
+            // The side mapping the join table owns the relationship, the other side is mapped by it
+            if (slot.slotIndex != 0) {
+                relationAnon.addMember("mappedBy", "$S", names.names(owningEntity).collectionFieldName);
+            }
+            anons.add(relationAnon.build());
+
+
+            if (slot.slotIndex == 0) {
+                String joinTable = names.getJoinTableName(foreignEntity, owningEntity);
+                String ownerColumn = names.getIdColumnName(owningEntity);
+                String foreignColumn = names.getIdColumnName(foreignEntity);
+                AnnotationSpec.Builder joinAnon = AnnotationSpec.builder(catalog().joinTable);
+                joinAnon.addMember("name", "$S", mappedName(joinTable));
+                joinAnon.addMember("joinColumns", "$L", addIdColumnDefinition(AnnotationSpec.builder(catalog().joinColumn).addMember("name", "$S", mappedName(ownerColumn))).build());
+                joinAnon.addMember("inverseJoinColumns", "$L", addIdColumnDefinition(AnnotationSpec.builder(catalog().joinColumn).addMember("name", "$S", mappedName(foreignColumn))).build());
+
+                // Each pair is only joined once, and the unique constraint leads with the foreign
+                // column so it indexes that one, leaving only the owner column to be indexed
+                if (config.isIndexesGenerated()) {
+                    joinAnon.addMember("uniqueConstraints", "$L", uniqueConstraint(catalog(), config.getSchemaDialect(), joinTable, foreignColumn, ownerColumn));
+                    joinAnon.addMember("indexes", "$L", index(catalog(), config.getSchemaDialect(), joinTable, ownerColumn));
+                }
+                anons.add(joinAnon.build());
+            }
+            addCollectionFetchAnnotations(anons, fetch);
+            addCollectionCacheAnnotation(anons, names, cachePlan, owningEntity, foreignEntity);
+
+            generateSetFieldOfType(builder, names.names(foreignEntity).collectionFieldName, foreignClassType, anons, relationshipDesc);
+        }
+        // For One to One
         else if (RELATIONSHIP_TYPE.ONE_TO_ONE == type) {
 
+            // An entity sharing the key of this one is found by that key rather than by a field
+            if (slot.slotIndex == 0 && isSharedKeyRelationship(index, rel, foreignEntity)) {
+                return;
+            }
             FieldSpec.Builder fieldBuilder = FieldSpec.builder(foreignClassType, foreignFieldName, Modifier.PRIVATE);
+            AnnotationSpec lazyToOne = config.getOneToOneStrategy() == ONE_TO_ONE_STRATEGY.NO_PROXY
+                ? AnnotationSpec.builder(catalog().lazyToOne).addMember("value", "$T.$L", catalog().lazyToOneOption, "NO_PROXY").build()
+                : null;
 
             // Add the join tables to the 1st half of the entity relationship
             if (slot.slotIndex == 0) {
                 // Add the oneToone annotation
-                AnnotationSpec.Builder anonBuilder = AnnotationSpec.builder(OneToOne.class);
-                anonBuilder.addMember("fetch", "$L", javax.persistence.FetchType.LAZY);
-                anonBuilder.addMember("cascade", "$L", javax.persistence.CascadeType.ALL);
-                anonBuilder.addMember("mappedBy", "$S", getAsFieldName(owningEntity.details.name));
+                AnnotationSpec.Builder anonBuilder = AnnotationSpec.builder(catalog().oneToOne);
+                anonBuilder.addMember("fetch", "$T.$L", catalog().fetchType, "LAZY");
+                anonBuilder.addMember("cascade", "$T.$L", catalog().cascadeType, "ALL");
+                anonBuilder.addMember("mappedBy", "$S", names.getFieldName(owningEntity));
                 fieldBuilder.addAnnotation(anonBuilder.build());
+                if (lazyToOne != null) {
+                    fieldBuilder.addAnnotation(lazyToOne);
+                }
             } else if (slot.slotIndex == 1) {
                 // Add the oneToMany annotation
-                AnnotationSpec.Builder anonBuilder = AnnotationSpec.builder(OneToOne.class);
-                anonBuilder.addMember("fetch", "$L", javax.persistence.FetchType.LAZY);
+                AnnotationSpec.Builder anonBuilder = AnnotationSpec.builder(catalog().oneToOne);
+                anonBuilder.addMember("fetch", "$T.$L", catalog().fetchType, "LAZY");
                 fieldBuilder.addAnnotation(anonBuilder.build());
+                if (lazyToOne != null) {
+                    fieldBuilder.addAnnotation(lazyToOne);
+                }
 
-                // Add primary key join column annotation
-                fieldBuilder.addAnnotation(AnnotationSpec.builder(PrimaryKeyJoinColumn.class).build());
+                if (isSharedKeyRelationship(index, rel, owningEntity)) {
+                    // Take the id from the entity this one belongs to, its id column is the foreign key
+                    fieldBuilder.addAnnotation(catalog().mapsId);
+                    fieldBuilder.addAnnotation(addIdColumnDefinition(AnnotationSpec.builder(catalog().joinColumn).addMember("name", "$S", "ID")).build());
+                } else {
+                    // Add primary key join column annotation
+                    fieldBuilder.addAnnotation(AnnotationSpec.builder(catalog().primaryKeyJoinColumn).build());
+                }
             }
 
 
@@ -315,138 +1444,709 @@ public class ERDPlusImportServiceImpl {
         }
     }
 
+    /**
+     * An entity in the first slot of a one to one relationship shares the primary key of the entity
+     * in the second. Only one relationship can supply the id of an entity, so with the
+     * {@link ONE_TO_ONE_STRATEGY#MAPS_ID} strategy the first of them in the model is mapped by
+     * <code>@MapsId</code> and any others by a primary key join column.
+     *
+     * @return  The relationship the entity takes its id from, or null if its id is generated
+     */
+    private ERDPlusRelationship getSharedKeyRelationship(ERDPlusModelIndex index, ERDPlusShape entity) {
+        if (config.getOneToOneStrategy() != ONE_TO_ONE_STRATEGY.MAPS_ID) {
+            return null;
+        }
+        for (ERDPlusRelationship rel : index.getRelationshipsForEntity(entity.details.id)) {
+            if (RELATIONSHIP_TYPE.ONE_TO_ONE == rel.type
+                && rel.shape.details.slots.stream().anyMatch(slot -> slot.entityId != entity.details.id && slot.slotIndex == 1)) {
+                return rel;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return  The id of the relationship the entity takes its id from, or null if its id is generated
+     */
+    private Integer getSharedKeyRelationshipId(ERDPlusModelIndex index, ERDPlusShape entity) {
+        ERDPlusRelationship sharedKey = getSharedKeyRelationship(index, entity);
+        return sharedKey == null ? null : sharedKey.shape.details.id;
+    }
+
+    /**
+     * @return  True if the passed entity takes its id from the other entity of the relationship
+     */
+    private boolean isSharedKeyRelationship(ERDPlusModelIndex index, ERDPlusRelationship rel, ERDPlusShape entity) {
+        ERDPlusRelationship sharedKey = getSharedKeyRelationship(index, entity);
+        return sharedKey != null && sharedKey.shape.details.id == rel.shape.details.id;
+    }
+
+    /**
+     * Adds a String field for each attribute of the entity. Derived, multivalued and composite
+     * attributes have no single column to map to, so they are left out with a warning. Unique
+     * attributes are constrained to be unique on their own, or together with the foreign keys of
+     * an identifying relationship when the entity is a weak entity.
+     */
+    private void addAttributeFieldsForEntity(ERDPlusModelIndex index, ERDPlusNameResolver names, ERDPlusShape entity, TypeSpec.Builder builder, TableSchema schema) {
+        String className = names.getClassName(entity);
+        List<String> uniqueColumns = new ArrayList<>();
+        for (ERDPlusShape attribute : index.getAttributesForShape(entity.details.id)) {
+            ERDPlusDetails details = attribute.details;
+            if (details.name == null || details.name.trim().isEmpty()) {
+                log.println("Warning: " + className + " has an attribute without a name, it is not mapped");
+                continue;
+            }
+            if (details.isDerived || details.isMultivalued || details.isCompostie) {
+                log.println("Warning: " + className + " attribute " + details.name + " is derived, multivalued or composite, it is not mapped");
+                continue;
+            }
+            String fieldName = names.getAttributeFieldName(attribute);
+            String columnName = names.getAttributeColumnName(attribute);
+            if (!schema.column(columnName)) {
+                log.println("Warning: " + className + " attribute " + details.name + " maps to the generated column " + columnName + ", it is not mapped");
+                continue;
+            }
+
+            FieldSpec.Builder fieldBuilder = FieldSpec.builder(String.class, fieldName, Modifier.PRIVATE);
+            AnnotationSpec.Builder columnAnon = AnnotationSpec.builder(catalog().column).addMember("name", "$S", mappedName(columnName));
+            if (!details.isOptional) {
+                columnAnon.addMember("nullable", "false");
+            }
+            fieldBuilder.addAnnotation(columnAnon.build());
+            fieldBuilder.addJavadoc("$L", details.name + "\n");
+            builder.addField(fieldBuilder.build());
+            if (details.isUnique) {
+                uniqueColumns.add(columnName);
+            }
+        }
+
+        if (!uniqueColumns.isEmpty() && !schema.identifyingColumns.isEmpty()) {
+            List<String> key = new ArrayList<>(schema.identifyingColumns);
+            key.addAll(uniqueColumns);
+            schema.unique(key);
+        } else {
+            uniqueColumns.forEach(column -> schema.unique(Collections.singletonList(column)));
+        }
+    }
+
+    private static AnnotationSpec index(ERDPlusAnnotationCatalog catalog, SQL_DIALECT dialect, String tableName, String columnName) {
+        return AnnotationSpec.builder(catalog.index)
+            .addMember("name", "$S", ERDPlusSchemaScript.constraintName(dialect, "IDX", tableName, Collections.singletonList(columnName)))
+            .addMember("columnList", "$S", mappedName(columnName))
+            .build();
+    }
+
+    private static AnnotationSpec uniqueConstraint(ERDPlusAnnotationCatalog catalog, SQL_DIALECT dialect, String tableName, String... columnNames) {
+        return uniqueConstraint(catalog, dialect, tableName, Arrays.asList(columnNames));
+    }
+
+    private static AnnotationSpec uniqueConstraint(ERDPlusAnnotationCatalog catalog, SQL_DIALECT dialect, String tableName, List<String> columnNames) {
+        AnnotationSpec.Builder constraintAnon = AnnotationSpec.builder(catalog.uniqueConstraint)
+            .addMember("name", "$S", ERDPlusSchemaScript.constraintName(dialect, "UK", tableName, columnNames));
+        columnNames.forEach(column -> constraintAnon.addMember("columnNames", "$S", mappedName(column)));
+        return constraintAnon.build();
+    }
+
+    /**
+     * Names the table of an entity by its <code>TABLE_NAME</code> constant, unless the name has to be quoted
+     */
+    private static void addTableName(AnnotationSpec.Builder tableAnon, String className, String tableName) {
+        if (SQL_DIALECT.isQuoted(tableName)) {
+            tableAnon.addMember("name", "$S", mappedName(tableName));
+        } else {
+            tableAnon.addMember("name", "$L", className + ".TABLE_NAME");
+        }
+    }
+
+    /**
+     * @param name  A table, column or sequence name
+     * @return      The name as the annotations map it, a reserved word in the backticks Hibernate
+     *              quotes it by for the dialect
+     */
+    private static String mappedName(String name) {
+        return SQL_DIALECT.isQuoted(name) ? "`" + name + "`" : name;
+    }
+
+    /**
+     * Adds the batch and subselect fetching of the fetch profile to a collection of associations
+     */
+    private void addCollectionFetchAnnotations(List<AnnotationSpec> annotations, ERDPlusGeneratorConfig.FetchProfile fetch) {
+        if (fetch.batchSize > 0) {
+            annotations.add(AnnotationSpec.builder(catalog().batchSize).addMember("size", "$L", fetch.batchSize).build());
+        }
+        if (fetch.subselect) {
+            annotations.add(AnnotationSpec.builder(catalog().fetch).addMember("value", "$T.SUBSELECT", catalog().fetchMode).build());
+        }
+    }
+
+    /**
+     * Caches a collection of the owning entity when both it and the entities in it are cached
+     */
+    private void addCollectionCacheAnnotation(List<AnnotationSpec> annotations, ERDPlusNameResolver names, ERDPlusCachePlan cachePlan, ERDPlusShape owningEntity, ERDPlusShape foreignEntity) {
+        CACHE_STRATEGY strategy = cachePlan.getCollectionStrategy(owningEntity, foreignEntity);
+        if (strategy != null) {
+            String fieldName = names.names(foreignEntity).collectionFieldName;
+            annotations.add(cacheAnnotation(strategy, ERDPlusCachePlan.getCollectionRegionConstant(names, owningEntity, fieldName)));
+        }
+    }
+
+    private AnnotationSpec cacheAnnotation(CACHE_STRATEGY strategy, String regionConstant) {
+        return AnnotationSpec.builder(catalog().cache)
+            .addMember("usage", "$T.$L", catalog().cacheConcurrencyStrategy, strategy.name())
+            .addMember("region", "$T.$L", ClassName.get(getPackageName(), ERDPlusCachePlan.CACHE_REGIONS), regionConstant)
+            .build();
+    }
+
     private void generateSetFieldOfType(TypeSpec.Builder builder, String name, ClassName foreignClassType, List<AnnotationSpec> annotations, String relationshipDesc) {
         ClassName set = ClassName.get("java.util", "Set");
         TypeName setOfEntities = ParameterizedTypeName.get(set, foreignClassType);
-        FieldSpec.Builder fieldBuilder = FieldSpec.builder(setOfEntities, name + "s", Modifier.PRIVATE);
+        FieldSpec.Builder fieldBuilder = FieldSpec.builder(setOfEntities, name, Modifier.PRIVATE);
         annotations.forEach(fieldBuilder::addAnnotation);
-        fieldBuilder.initializer(CodeBlock.of("new HashSet<>(0)"));
+        fieldBuilder.initializer("new $T<>(0)", HashSet.class);
         fieldBuilder.addJavadoc("$L", relationshipDesc + "\n");
         builder.addField(fieldBuilder.build());
     }
 
-    private String getForeignEntityFieldName(ERDPlusShape foreignEntity) {
-        return getAsFieldName(foreignEntity.details.name);
+    /**
+     * Writes the source for the entity. In incremental mode a file that already holds the same source
+     * is left untouched so its modification time does not change.
+     *
+     * @param spec  The entity type spec
+     * @return      The number of bytes written, or -1 if the file already held the same source
+     */
+    private int writeEntityToFile(TypeSpec spec) throws IOException {
+        return writeSourceFile(spec, JavaFile.builder(getPackageName(), spec).build());
     }
 
+    /**
+     * Writes the source of a support class, leaving it untouched in incremental mode if unchanged
+     *
+     * @param spec  The support class type spec
+     * @return      The number of bytes written, or -1 if the file already held the same source
+     */
+    private int writeSupportFile(TypeSpec spec) throws IOException {
+        return writeSourceFile(spec, JavaFile.builder(getPackageName(), spec).build());
+    }
 
-    private String getJoinTableName(ERDPlusShape entity, ERDPlusShape foreignEntity) {
-        return entity.details.name.toUpperCase() + "_TO_" + foreignEntity.details.name.toUpperCase();
+    private int writeSourceFile(TypeSpec spec, JavaFile javaFile) throws IOException {
+        return writeFile(getSourcePath(spec.name), javaFile.toString());
+    }
+
+    /**
+     * Writes a file, leaving it untouched in incremental mode if unchanged
+     *
+     * @param path      The path of the file in the output
+     * @param source    The content of the file
+     * @return          The number of bytes written, or -1 if the file already held the same content
+     */
+    private int writeFile(String path, String source) throws IOException {
+        byte[] content = source.getBytes(StandardCharsets.UTF_8);
+        if (incremental && Arrays.equals(content, getOutputSink().read(path))) {
+            return -1;
+        }
+        getOutputSink().write(path, content);
+        return content.length;
     }
 
-    private String getIdColumnNameForEntity(ERDPlusShape entity) {
-        return entity.details.name.toUpperCase() + "_ID";
+    /**
+     * @param className The simple name of a generated class
+     * @return          The path of its source in the output, separated by '/'
+     */
+    private String getSourcePath(String className) {
+        return getResourcePath(className + ".java");
     }
 
+    /**
+     * @param fileName  The name of a file generated in the package
+     * @return          The path of the file in the output, separated by '/'
+     */
+    private String getResourcePath(String fileName) {
+        return getPackageName().replace('.', '/') + "/" + fileName;
+    }
 
-    private RELATIONSHIP_TYPE getRelationshipTypeForRelationship(ERDPlusShape rel) {
-        if (rel.details.slots.get(0).cardinality.equals(CARDINALITY_ONE) && rel.details.slots.get(1).cardinality.equals(CARDINALITY_MANY)) {
-            return RELATIONSHIP_TYPE.ONE_TO_MANY;
+    /**
+     * Describes everything the source for an entity is generated from: the generator settings, the
+     * entity itself, its attributes, its relationships and the names and caching of the entities on
+     * the other side of them
+     *
+     * @param index     The index of the read in entity model
+     * @param entity    The entity
+     * @return          The hash of the entity's inputs
+     */
+    private String getInputHashForEntity(final ERDPlusModelIndex index, ERDPlusShape entity) {
+        StringBuilder inputs = new StringBuilder(256)
+            .append(MANIFEST_VERSION).append('\n')
+            .append(getPackageName()).append('\n')
+            .append(config.getFingerprint())
+            .append(entity.details.id).append(' ').append(entity.details.name).append('\n');
+
+        // Which one to one an entity takes its id from depends on its other relationships, and
+        // decides how the entities on both sides of it are mapped
+        boolean sharedKeys = config.getOneToOneStrategy() == ONE_TO_ONE_STRATEGY.MAPS_ID;
+        if (sharedKeys) {
+            inputs.append("sharedKey ").append(getSharedKeyRelationshipId(index, entity)).append('\n');
         }
-        if (rel.details.slots.get(0).cardinality.equals(CARDINALITY_MANY) && rel.details.slots.get(1).cardinality.equals(CARDINALITY_ONE)) {
-            return RELATIONSHIP_TYPE.ONE_TO_MANY;
+
+        // Whether the entities on both sides of a collection are cached decides if it is cached
+        ERDPlusCachePlan cachePlan = cachePlanFor(index);
+        if (!cachePlan.isEmpty()) {
+            inputs.append("cache ").append(cachePlan.getStrategy(entity)).append('\n');
         }
-        if (rel.details.slots.get(0).cardinality.equals(CARDINALITY_ONE) && rel.details.slots.get(1).cardinality.equals(CARDINALITY_ONE)) {
-            return RELATIONSHIP_TYPE.ONE_TO_ONE;
+        index.getAttributesForShape(entity.details.id).forEach(attribute -> {
+            ERDPlusDetails details = attribute.details;
+            inputs.append("attribute ").append(details.id).append(' ').append(details.name)
+                .append(' ').append(details.isUnique).append(' ').append(details.isOptional)
+                .append(' ').append(details.isDerived).append(' ').append(details.isMultivalued)
+                .append(' ').append(details.isCompostie).append('\n');
+        });
+        index.getRelationshipsForEntity(entity.details.id).forEach(rel -> {
+            inputs.append(rel.type).append(' ').append(rel.shape.details.id).append(' ').append(rel.shape.details.name)
+                .append(' ').append(rel.shape.details.isIdentifying).append('\n');
+            rel.shape.details.slots.forEach(slot -> {
+                ERDPlusShape slotEntity = index.getShape(slot.entityId);
+                inputs.append(' ').append(slot.slotIndex)
+                    .append(' ').append(slot.cardinality)
+                    .append(' ').append(slot.entityId)
+                    .append(' ').append(slotEntity == null ? null : slotEntity.details.name);
+                if (!cachePlan.isEmpty() && slotEntity != null) {
+                    inputs.append(' ').append(cachePlan.getStrategy(slotEntity));
+                }
+                if (sharedKeys && slotEntity != null) {
+                    inputs.append(" sharedKey ").append(getSharedKeyRelationshipId(index, slotEntity));
+                }
+                inputs.append('\n');
+            });
+        });
+
+        // Deeper graphs follow the relationships of other entities, so describe the graphs themselves
+        if (config.isGraphsGenerated()) {
+            inputs.append(generateEntityGraphs(index, namesFor(index), entity, TypeSpec.classBuilder("Graphs"))).append('\n');
         }
-        if (rel.details.slots.get(0).cardinality.equals(CARDINALITY_MANY) && rel.details.slots.get(1).cardinality.equals(CARDINALITY_MANY)) {
-            return RELATIONSHIP_TYPE.MANY_TO_MANY;
+        return ERDPlusGenerationManifest.hash(inputs.toString());
+    }
+
+    /**
+     * Builds and writes entity beans as they are submitted. With a parallelism above 1 the type specs
+     * are built on a fork join pool while the submitting thread writes them out in submission order,
+     * holding at most a bounded number of built specs waiting to be written. Each spec only depends on
+     * the index so the output is the same as the sequential path. Failures are collected per entity
+     * and reported together once the pipeline is finished.
+     * <p>
+     * In incremental mode entities whose input hash matches the previous manifest are skipped, and
+     * the sources of entities that are no longer in the model are deleted when it is finished.
+     * <p>
+     * The time spent in each phase and the amount generated are recorded in the report's metrics,
+     * and Flight Recorder events are emitted for each entity built and for the run when available.
+     */
+    private final class EntityBeanPipeline {
+        private final ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        private final int window = parallelism * 2;
+        private final Deque<PendingEntity> inFlight = new ArrayDeque<>(window);
+        private final List<RuntimeException> failures = new ArrayList<>();
+        private final ERDPlusGenerationManifest previous;
+        private final ERDPlusGenerationManifest current = new ERDPlusGenerationManifest();
+        private final ERDPlusGenerationReport report = new ERDPlusGenerationReport();
+        private final long started = System.nanoTime();
+        private final Object generationEvent = ERDPlusFlightRecorderEvents.AVAILABLE ? ERDPlusFlightRecorderEvents.beginGeneration() : null;
+        private final LongAdder buildNanos = new LongAdder();
+        private final LongAdder fields = new LongAdder();
+        private ERDPlusModelIndex index;
+        private int submitted;
+        private int written;
+        private int unchanged;
+        private long parseNanos;
+        private long indexNanos;
+        private long submitNanos;
+        private long writeNanos;
+        private long bytesWritten;
+
+        private EntityBeanPipeline() {
+            report.packageName = getPackageName();
+            report.output = String.valueOf(getOutputSink());
+            try {
+                previous = incremental ? ERDPlusGenerationManifest.read(getOutputSink(), manifestPath) : null;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read the generation manifest in " + getOutputSink(), e);
+            }
         }
 
-        throw new RuntimeException("Failed to identify relationship type for relationship: " + rel);
-    }
+        private void submit(ERDPlusModelIndex index, ERDPlusShape entity) {
+            long submitStarted = System.nanoTime();
+            try {
+                generate(index, entity);
+            } finally {
+                submitNanos += System.nanoTime() - submitStarted;
+            }
+        }
 
-    private void writeEntityToFile(TypeSpec spec) throws IOException {
+        private void generate(ERDPlusModelIndex index, ERDPlusShape entity) {
+            this.index = index;
+            submitted++;
+            String path = null;
+            String metamodelPath = null;
+            String hash = null;
+            if (incremental) {
+                try {
+                    String className = namesFor(index).getClassName(entity);
+                    path = getSourcePath(className);
+                    metamodelPath = config.isMetamodelGenerated() ? getSourcePath(className + "_") : null;
+                    hash = getInputHashForEntity(index, entity);
+                } catch (RuntimeException e) {
+                    failures.add(entityFailure(entity, e));
+                    return;
+                }
+                boolean unchangedInput;
+                try {
+                    unchangedInput = hash.equals(previous.getHash(path)) && getOutputSink().exists(path)
+                        && (metamodelPath == null || (hash.equals(previous.getHash(metamodelPath)) && getOutputSink().exists(metamodelPath)));
+                } catch (IOException e) {
+                    unchangedInput = false;
+                }
+                if (unchangedInput) {
+                    current.putHash(path, hash);
+                    if (metamodelPath != null) {
+                        current.putHash(metamodelPath, hash);
+                    }
+                    unchanged++;
+                    return;
+                }
+            }
 
-        JavaFile javaFile = JavaFile.builder(getPackageName(), spec)
-            .addStaticImport(GenerationType.class, "*")
-            .addStaticImport(javax.persistence.FetchType.class, "*")
-            .addStaticImport(javax.persistence.CascadeType.class, "*")
-            .build();
-        javaFile.writeTo(getTargetDir());
-    }
+            if (pool == null) {
+                PendingEntity pending = new PendingEntity(entity, path, metamodelPath, hash, null);
+                try {
+                    write(pending, build(index, entity));
+                } catch (IOException | RuntimeException e) {
+                    failed(pending, e);
+                }
+                return;
+            }
 
-    /**
-     * Converts the given name into a valid class name
-     *
-     * @param name
-     * @return
-     */
-    private String getAsClassName(String name) {
+            if (inFlight.size() >= window) {
+                writeNext();
+            }
+            inFlight.add(new PendingEntity(entity, path, metamodelPath, hash, pool.submit(() -> build(index, entity))));
+        }
+
+        private void writeNext() {
+            PendingEntity pending = inFlight.poll();
+            try {
+                write(pending, pending.task.get());
+            } catch (ExecutionException e) {
+                failed(pending, e.getCause());
+            } catch (IOException | RuntimeException e) {
+                failed(pending, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted generating entity beans", e);
+            }
+        }
 
-        if (isAllUpper(name)) {
-            name = name.toLowerCase();
+        private TypeSpec build(ERDPlusModelIndex index, ERDPlusShape entity) {
+            Object event = generationEvent == null ? null : ERDPlusFlightRecorderEvents.beginEntityBuild();
+            long buildStarted = System.nanoTime();
+            TypeSpec spec = generateTypeSpecForEntity(index, entity);
+            buildNanos.add(System.nanoTime() - buildStarted);
+            fields.add(spec.fieldSpecs.size());
+            if (event != null) {
+                ERDPlusFlightRecorderEvents.commitEntityBuild(event, entity.details.name, spec.fieldSpecs.size());
+            }
+            return spec;
         }
 
-        // Change Underscore notation
-        if (name.contains("_")) {
+        private void write(PendingEntity pending, TypeSpec spec) throws IOException {
+            long writeStarted = System.nanoTime();
+            try {
+                int bytes = writeEntityToFile(spec);
+                boolean changed = bytes >= 0;
+                if (changed) {
+                    bytesWritten += bytes;
+                }
 
-            name = makeNextCharUpper(name, '_');
+                // The metamodel follows from the entity, so it shares the entities input hash
+                if (config.isMetamodelGenerated()) {
+                    int metamodelBytes = writeSupportFile(generateMetamodelTypeSpec(spec));
+                    if (metamodelBytes >= 0) {
+                        bytesWritten += metamodelBytes;
+                        changed = true;
+                    }
+                }
+                written(pending, changed);
+            } finally {
+                writeNanos += System.nanoTime() - writeStarted;
+            }
+        }
 
-            // Remove underscores
-            name = name.replaceAll("_", "");
+        private void written(PendingEntity pending, boolean changed) {
+            if (changed) {
+                written++;
+            } else {
+                unchanged++;
+            }
+            if (pending.path != null) {
+                current.putHash(pending.path, pending.hash);
+            }
+            if (pending.metamodelPath != null) {
+                current.putHash(pending.metamodelPath, pending.hash);
+            }
         }
-        // Change Space Notation
-        else if (name.contains(" ")) {
-            name = makeNextCharUpper(name, ' ');
 
-            // Remove underscores
-            name = name.replaceAll(" ", "");
+        private void failed(PendingEntity pending, Throwable cause) {
+            failures.add(entityFailure(pending.entity, cause));
+            if (pending.path != null) {
+                current.putHash(pending.path, ERDPlusGenerationManifest.FAILED_HASH);
+            }
+            if (pending.metamodelPath != null) {
+                current.putHash(pending.metamodelPath, ERDPlusGenerationManifest.FAILED_HASH);
+            }
         }
 
-        name = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        private ERDPlusGenerationReport finish() {
+            try {
+                while (!inFlight.isEmpty()) {
+                    writeNext();
+                }
+            } finally {
+                if (pool != null) {
+                    pool.shutdownNow();
+                }
+            }
 
-        return name;
+            int removed = 0;
+            long writeStarted = System.nanoTime();
+            try {
+                writeSupportFiles();
+                if (incremental) {
+                    for (String path : previous.getPaths()) {
+                        if (!current.containsPath(path) && getOutputSink().delete(path)) {
+                            removed++;
+                        }
+                    }
+                    current.write(getOutputSink(), manifestPath);
+                }
+            } catch (IOException e) {
+                failures.add(new RuntimeException("Failed to write the generation manifest in " + getOutputSink(), e));
+            } finally {
+                try {
+                    getOutputSink().close();
+                } catch (IOException e) {
+                    failures.add(new RuntimeException("Failed to finish writing to " + getOutputSink(), e));
+                }
+                writeNanos += System.nanoTime() - writeStarted;
+            }
+            report.entities = submitted;
+            report.written = written;
+            report.unchanged = unchanged;
+            report.removed = removed;
+            report.failed = failures.size();
+            report.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            recordMetrics(report.metrics);
+            log.println("Generated " + report);
+            log.println("Metrics: " + report.metrics);
+            if (generationEvent != null) {
+                ERDPlusFlightRecorderEvents.commitGeneration(generationEvent, report);
+            }
+
+            if (!failures.isEmpty()) {
+                RuntimeException e = new RuntimeException("Failed to generate " + failures.size() + " of " + submitted + " entity beans");
+                failures.forEach(e::addSuppressed);
+                throw e;
+            }
+            return report;
+        }
+
+        /**
+         * Writes the support classes and resources the entity beans depend on. They are always
+         * regenerated as some depend on the whole model, and are recorded in the manifest so that
+         * they are deleted once no longer generated.
+         */
+        private void writeSupportFiles() {
+            List<TypeSpec> specs;
+            Map<String, String> resources;
+            try {
+                specs = generateSupportTypeSpecs(index);
+                resources = generateSupportResources(index);
+            } catch (RuntimeException e) {
+                failures.add(new RuntimeException("Failed to generate the support classes: " + e, e));
+                return;
+            }
+            for (TypeSpec spec : specs) {
+                String path = getSourcePath(spec.name);
+                try {
+                    supportFileWritten(path, writeSupportFile(spec));
+                } catch (IOException | RuntimeException e) {
+                    current.putHash(path, ERDPlusGenerationManifest.FAILED_HASH);
+                    failures.add(new RuntimeException("Failed to write support class " + spec.name + ": " + e, e));
+                }
+            }
+            resources.forEach((fileName, content) -> {
+                String path = getResourcePath(fileName);
+                try {
+                    supportFileWritten(path, writeFile(path, content));
+                } catch (IOException | RuntimeException e) {
+                    current.putHash(path, ERDPlusGenerationManifest.FAILED_HASH);
+                    failures.add(new RuntimeException("Failed to write support resource " + fileName + ": " + e, e));
+                }
+            });
+        }
+
+        private void supportFileWritten(String path, int bytes) {
+            if (bytes >= 0) {
+                bytesWritten += bytes;
+            }
+            current.putHash(path, ERDPlusGenerationManifest.hash(MANIFEST_VERSION + '\n' + getPackageName() + '\n' + config.getFingerprint() + path));
+        }
+
+        private void recordMetrics(ERDPlusGenerationMetrics metrics) {
+            metrics.parseMillis = TimeUnit.NANOSECONDS.toMillis(parseNanos);
+            metrics.indexMillis = TimeUnit.NANOSECONDS.toMillis(indexNanos);
+            metrics.buildMillis = TimeUnit.NANOSECONDS.toMillis(buildNanos.sum());
+            metrics.writeMillis = TimeUnit.NANOSECONDS.toMillis(writeNanos);
+            metrics.fields = fields.sum();
+            metrics.bytesWritten = bytesWritten;
+
+            // Count each relationship once, rather than once for each entity it joins
+            if (index != null) {
+                Set<Integer> counted = new HashSet<>();
+                index.getEntities().forEach(entity -> index.getRelationshipsForEntity(entity.details.id).forEach(rel -> {
+                    if (counted.add(rel.shape.details.id)) {
+                        metrics.relationships.merge(rel.type, 1, Integer::sum);
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Stops the pipeline without writing the manifest, when the model could not be read
+         */
+        private void abort() {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            try {
+                getOutputSink().close();
+            } catch (IOException e) {
+                log.println("Failed to finish writing to " + getOutputSink() + ": " + e);
+            }
+        }
+
+        private RuntimeException entityFailure(ERDPlusShape entity, Throwable cause) {
+            String name = entity.details == null ? "<unnamed>" : entity.details.name;
+            log.println("Failed to generate entity bean for " + name + ": " + cause);
+            return new RuntimeException("Failed to generate entity bean for " + name + ": " + cause, cause);
+        }
     }
 
     /**
-     * Converts the given name into a valid field name
-     *
-     * @param name
-     * @return
+     * An entity whose type spec is being built, with its source paths and input hash in incremental mode
      */
-    private String getAsFieldName(String name) {
+    private static final class PendingEntity {
+        private final ERDPlusShape entity;
+        private final String path;
+        private final String metamodelPath;
+        private final String hash;
+        private final ForkJoinTask<TypeSpec> task;
+
+        private PendingEntity(ERDPlusShape entity, String path, String metamodelPath, String hash, ForkJoinTask<TypeSpec> task) {
+            this.entity = entity;
+            this.path = path;
+            this.metamodelPath = metamodelPath;
+            this.hash = hash;
+            this.task = task;
+        }
+    }
+
+    /**
+     * The columns, indexes and unique constraints of an entities table, collected as its fields are added
+     */
+    private static final class TableSchema {
+        private final ERDPlusAnnotationCatalog catalog;
+        private final SQL_DIALECT dialect;
+        private final String tableName;
+        private final Set<String> columns = new HashSet<>();
+        private final List<String> identifyingColumns = new ArrayList<>();
+        private final List<AnnotationSpec> indexes = new ArrayList<>();
+        private final List<AnnotationSpec> uniqueConstraints = new ArrayList<>();
+
+        private TableSchema(ERDPlusAnnotationCatalog catalog, SQL_DIALECT dialect, String tableName) {
+            this.catalog = catalog;
+            this.dialect = dialect;
+            this.tableName = tableName;
+            columns.add("ID");
+        }
 
-        name = getAsClassName(name);
+        /**
+         * @return  False if the table already has a column of the name
+         */
+        private boolean column(String columnName) {
+            return columns.add(columnName);
+        }
+
+        /**
+         * @param identifying   True if the foreign key is part of the identifier of a weak entity
+         */
+        private void joinColumn(String columnName, boolean identifying) {
+            column(columnName);
+            if (identifying) {
+                identifyingColumns.add(columnName);
+            }
+        }
+
+        private void index(String columnName) {
+            indexes.add(ERDPlusImportServiceImpl.index(catalog, dialect, tableName, columnName));
+        }
+
+        private void unique(List<String> columnNames) {
+            uniqueConstraints.add(uniqueConstraint(catalog, dialect, tableName, columnNames));
+        }
 
-        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        private void addTo(AnnotationSpec.Builder tableAnon) {
+            indexes.forEach(index -> tableAnon.addMember("indexes", "$L", index));
+            uniqueConstraints.forEach(constraint -> tableAnon.addMember("uniqueConstraints", "$L", constraint));
+        }
     }
 
     /**
-     * Iterates the characters in the passed text and will set each character
-     * after the found token to be uppercase
-     *
-     * @param text
-     * @param token
-     * @return
+     * The entity mapping the join table of a many to many relationship
      */
-    private String makeNextCharUpper(String text, char token) {
-        // Make first and all letters after underscore upper
-        char[] chars = text.toCharArray();
-        for (int i = 0; i < chars.length; i++) {
-            if (i < chars.length - 1 && chars[i] == token) {
-                chars[i + 1] = Character.toUpperCase(chars[i + 1]);
-            }
+    private static final class JoinEntity {
+        private final ClassName type;
+        private final ERDPlusShape entity;
+        private final ERDPlusShape foreignEntity;
+        private final String relationshipDesc;
+
+        private JoinEntity(ClassName type, ERDPlusShape entity, ERDPlusShape foreignEntity, String relationshipDesc) {
+            this.type = type;
+            this.entity = entity;
+            this.foreignEntity = foreignEntity;
+            this.relationshipDesc = relationshipDesc;
         }
-        return new String(chars);
     }
 
     /**
-     * Returns true if every character in the passed text is uppercase (ignoring whitespace)
-     *
-     * @param text
-     * @return
-     */
-    private boolean isAllUpper(String text) {
-        for (char c : text.toCharArray()) {
-            if (Character.isLetter(c)) {
-                if (Character.isLowerCase(c)) {
-                    return false;
-                }
-            }
+     * The last index names were resolved for, its resolver and its cache plan once made
+     */
+    private static final class ResolvedIndex {
+        private final ERDPlusModelIndex index;
+        private final ERDPlusNameResolver names;
+        private volatile ERDPlusCachePlan cachePlan;
+
+        private ResolvedIndex(ERDPlusModelIndex index, ERDPlusNameResolver names) {
+            this.index = index;
+            this.names = names;
         }
-        return true;
     }
 
+    /**
+     * The last model indexed and its index
+     */
+    private static final class IndexedModel {
+        private final ERDPlusEntityRelationshipModel model;
+        private final ERDPlusModelIndex index;
 
+        private IndexedModel(ERDPlusEntityRelationshipModel model, ERDPlusModelIndex index) {
+            this.model = model;
+            this.index = index;
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusOutputSink;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps the generated files in memory, for tests and for embedding the generator in another tool
+ */
+public class ERDPlusInMemoryOutputSink implements ERDPlusOutputSink {
+
+    private final SortedMap<String, byte[]> files = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void write(String path, byte[] content) {
+        files.put(path, content.clone());
+    }
+
+    @Override
+    public byte[] read(String path) {
+        byte[] content = files.get(path);
+        return content == null ? null : content.clone();
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return files.containsKey(path);
+    }
+
+    @Override
+    public boolean delete(String path) {
+        return files.remove(path) != null;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * @return The generated files by path, sorted by path
+     */
+    public Map<String, byte[]> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    /**
+     * @param path  The path of the file
+     * @return      The content of the file as UTF-8 text or null if there is no such file
+     */
+    public String getContent(String path) {
+        byte[] content = files.get(path);
+        return content == null ? null : new String(content, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "memory";
+    }
+}
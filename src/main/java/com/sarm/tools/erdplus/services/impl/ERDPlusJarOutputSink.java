@@ -0,0 +1,118 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusOutputSink;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Writes every generated file as an entry of a single sources jar, through one buffered stream
+ * written front to back. The archive is finished when the sink is closed at the end of a run.
+ * Entries can not be read back, so incremental generation is not available with this sink.
+ */
+public class ERDPlusJarOutputSink implements ERDPlusOutputSink {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File jarFile;
+    private final Set<String> directories = new HashSet<>();
+    private final Set<String> entries = new HashSet<>();
+    private JarOutputStream out;
+
+    public ERDPlusJarOutputSink(File jarFile) {
+        this.jarFile = jarFile;
+    }
+
+    public File getJarFile() {
+        return jarFile;
+    }
+
+    @Override
+    public synchronized void write(String path, byte[] content) throws IOException {
+        if (!entries.add(path)) {
+            throw new IOException("Duplicate entry " + path + " in " + jarFile);
+        }
+        JarOutputStream jar = open();
+        addDirectories(jar, path);
+        JarEntry entry = new JarEntry(path);
+        entry.setTime(0L);
+        jar.putNextEntry(entry);
+        jar.write(content);
+        jar.closeEntry();
+    }
+
+    @Override
+    public byte[] read(String path) {
+        return null;
+    }
+
+    @Override
+    public synchronized boolean exists(String path) {
+        return entries.contains(path);
+    }
+
+    @Override
+    public boolean delete(String path) {
+        return false;
+    }
+
+    @Override
+    public boolean canReadBack() {
+        return false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            try {
+                out.close();
+            } finally {
+                out = null;
+                entries.clear();
+                directories.clear();
+            }
+        }
+    }
+
+    private JarOutputStream open() throws IOException {
+        if (out == null) {
+            File parent = jarFile.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                parent.mkdirs();
+            }
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            out = new JarOutputStream(new BufferedOutputStream(Files.newOutputStream(jarFile.toPath()), BUFFER_SIZE), manifest);
+        }
+        return out;
+    }
+
+    /**
+     * Adds an entry for each directory above the path that has not been added yet, as jar tools expect
+     */
+    private void addDirectories(JarOutputStream jar, String path) throws IOException {
+        int slash = path.indexOf('/');
+        while (slash > 0) {
+            String directory = path.substring(0, slash + 1);
+            if (directories.add(directory)) {
+                JarEntry entry = new JarEntry(directory);
+                entry.setTime(0L);
+                jar.putNextEntry(entry);
+                jar.closeEntry();
+            }
+            slash = path.indexOf('/', slash + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return jarFile.toString();
+    }
+}
@@ -0,0 +1,403 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+import java.io.PrintStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Builds a load test harness for the entities of a model, so the effect of the fetch, id, cache
+ * and write options they were generated with can be measured locally before they are deployed.
+ * <p>
+ * The harness boots Hibernate on an in memory H2 database with the schema created from the
+ * entities and statistics on. It inserts rows of every entity in foreign key order, filling each
+ * field from the row number and spreading the rows over the rows of the entities they refer to. It
+ * then selects rows by id, and loads rows with every association of them. For each workload and
+ * entity it prints the throughput, latency percentiles and SQL statements prepared per operation.
+ * Only H2 and what the entities already need are required to run it.
+ */
+final class ERDPlusLoadTest {
+
+    /**
+     * The name of the generated class
+     */
+    static final String LOAD_TEST = "LoadTest";
+
+    private static final TypeName ANY_CLASS = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+    private static final TypeName OBJECTS_BY_CLASS = ParameterizedTypeName.get(ClassName.get(Map.class), ANY_CLASS, ParameterizedTypeName.get(List.class, Object.class));
+
+    private final ERDPlusAnnotationCatalog catalog;
+
+    private ERDPlusLoadTest(ERDPlusAnnotationCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * @param catalog       The names of the types the generated code refers to
+     * @param insertOrder   The entity classes in the order their rows must be inserted
+     * @param batchSize     The number of rows inserted in each transaction by default
+     * @return              The load test type spec
+     */
+    static TypeSpec generate(ERDPlusAnnotationCatalog catalog, List<ClassName> insertOrder, int batchSize) {
+        return new ERDPlusLoadTest(catalog).generateTypeSpec(insertOrder, batchSize);
+    }
+
+    private TypeSpec generateTypeSpec(List<ClassName> insertOrder, int batchSize) {
+        CodeBlock.Builder order = CodeBlock.builder().add("$T.unmodifiableList($T.<$T>asList(", Collections.class, Arrays.class, ANY_CLASS);
+        for (int i = 0; i < insertOrder.size(); i++) {
+            order.add(i == 0 ? "$T.class" : ", $T.class", insertOrder.get(i));
+        }
+
+        return TypeSpec.classBuilder(LOAD_TEST)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc("$L", "Measures the entities on an in memory H2 database, which must be on the class path. The rows\n"
+                + "of every entity are inserted in foreign key order, then selected by id and loaded with their\n"
+                + "associations. The throughput, latency percentiles and SQL statements prepared per operation\n"
+                + "of each workload are printed for each entity. The latency of an insert is that of a\n"
+                + "transaction of {@code loadtest.batchSize} rows.\n"
+                + "<p>\n"
+                + "Run {@link #main(String[])} with these system properties to configure it:\n"
+                + "<pre>\n"
+                + "loadtest.rows=1000            The rows inserted of each entity\n"
+                + "loadtest.batchSize=" + batchSize + "         The rows inserted in each transaction, and the JDBC batch size\n"
+                + "loadtest.iterations=1000      The operations measured of each later workload for each entity\n"
+                + "loadtest.warmup=100           The operations run before those measured\n"
+                + "loadtest.workloads=select,fetch\n"
+                + "loadtest.url=jdbc:h2:mem:loadtest\n"
+                + "hibernate.*                   Any Hibernate setting, such as a cache region factory\n"
+                + "</pre>\n")
+            .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class), ANY_CLASS), "INSERT_ORDER", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addJavadoc("$L", "The entity classes in the order their rows are inserted\n")
+                .initializer(order.add("))").build())
+                .build())
+            .addField(catalog.sessionFactory, "sessionFactory", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(PrintStream.class, "out", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(FieldSpec.builder(OBJECTS_BY_CLASS, "inserted", Modifier.PRIVATE, Modifier.FINAL).initializer("new $T<>()", HashMap.class).build())
+            .addField(FieldSpec.builder(OBJECTS_BY_CLASS, "ids", Modifier.PRIVATE, Modifier.FINAL).initializer("new $T<>()", HashMap.class).build())
+            .addMethod(MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PUBLIC)
+                .addJavadoc("$L", "@param sessionFactory  A session factory of the entities with statistics on, on an empty schema\n"
+                    + "@param out             Where the results are printed\n")
+                .addParameter(catalog.sessionFactory, "sessionFactory")
+                .addParameter(PrintStream.class, "out")
+                .addStatement("this.sessionFactory = sessionFactory")
+                .addStatement("this.out = out")
+                .build())
+            .addMethod(generateMain(batchSize))
+            .addMethod(generateBuildSessionFactory(batchSize))
+            .addMethod(generateRun())
+            .addMethod(generateInsert())
+            .addMethod(generateNewEntity())
+            .addMethod(MethodSpec.methodBuilder("attach")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addJavadoc("$L", "Reattaches an inserted row to a session without reading it, as persisting a row deriving its\n"
+                    + "id from another cascades to that row, which fails if it is detached\n")
+                .returns(Object.class)
+                .addParameter(catalog.session, "session")
+                .addParameter(Object.class, "entity")
+                .beginControlFlow("if (!session.contains(entity))")
+                .addStatement("session.buildLockRequest($T.NONE).lock(entity)", catalog.lockOptions)
+                .endControlFlow()
+                .addStatement("return entity")
+                .build())
+            .addMethod(generateSelect())
+            .addMethod(generateFetch())
+            .addMethod(generateGetAssociations())
+            .addMethod(generateReport())
+            .build();
+    }
+
+    private MethodSpec generateMain(int batchSize) {
+        return MethodSpec.methodBuilder("main")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addParameter(String[].class, "args")
+            .beginControlFlow("try ($T sessionFactory = buildSessionFactory($T.getProperties()))", catalog.sessionFactory, System.class)
+            .addStatement("new $L(sessionFactory, $T.out).run($T.getInteger($S, 1000), $T.getInteger($S, $L), $T.getInteger($S, 1000), $T.getInteger($S, 100), $T.getProperty($S, $S))",
+                LOAD_TEST, System.class,
+                Integer.class, "loadtest.rows",
+                Integer.class, "loadtest.batchSize", batchSize,
+                Integer.class, "loadtest.iterations",
+                Integer.class, "loadtest.warmup",
+                System.class, "loadtest.workloads", "select,fetch")
+            .endControlFlow()
+            .build();
+    }
+
+    private MethodSpec generateBuildSessionFactory(int batchSize) {
+        return MethodSpec.methodBuilder("buildSessionFactory")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(catalog.sessionFactory)
+            .addParameter(Properties.class, "properties")
+            .addJavadoc("$L", "Boots Hibernate on an in memory H2 database, creating the schema of the entities with\n"
+                + "statistics on. The second level cache is off unless a region factory is set.\n\n"
+                + "@param properties  The <code>loadtest.url</code>, <code>loadtest.batchSize</code> and any Hibernate settings\n"
+                + "@return            The session factory\n")
+            .addStatement("$T builder = new $T()", catalog.standardServiceRegistryBuilder, catalog.standardServiceRegistryBuilder)
+            .addStatement("builder.applySetting($T.URL, properties.getProperty($S, $S))", catalog.availableSettings, "loadtest.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1")
+            .addStatement("builder.applySetting($T.DIALECT, $T.class.getName())", catalog.availableSettings, catalog.h2Dialect)
+            .addStatement("builder.applySetting($T.HBM2DDL_AUTO, $S)", catalog.availableSettings, "create-drop")
+            .addStatement("builder.applySetting($T.GENERATE_STATISTICS, $S)", catalog.availableSettings, "true")
+            .addStatement("builder.applySetting($T.LOG_SESSION_METRICS, $S)", catalog.availableSettings, "false")
+            .addStatement("builder.applySetting($T.STATEMENT_BATCH_SIZE, properties.getProperty($S, $S))", catalog.availableSettings, "loadtest.batchSize", String.valueOf(batchSize))
+            .addStatement("builder.applySetting($T.ORDER_INSERTS, $S)", catalog.availableSettings, "true")
+            .addStatement("builder.applySetting($T.USE_SECOND_LEVEL_CACHE, $T.valueOf(properties.containsKey($T.CACHE_REGION_FACTORY)))", catalog.availableSettings, String.class, catalog.availableSettings)
+            .beginControlFlow("for ($T name : properties.stringPropertyNames())", String.class)
+            .beginControlFlow("if (name.startsWith($S))", "hibernate.")
+            .addStatement("builder.applySetting(name, properties.getProperty(name))")
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("$T registry = builder.build()", catalog.standardServiceRegistry)
+            .beginControlFlow("try")
+            .addStatement("$T sources = new $T(registry)", catalog.metadataSources, catalog.metadataSources)
+            .addStatement("INSERT_ORDER.forEach(sources::addAnnotatedClass)")
+            .addStatement("return sources.buildMetadata().buildSessionFactory()")
+            .nextControlFlow("catch ($T e)", RuntimeException.class)
+            .addStatement("$T.destroy(registry)", catalog.standardServiceRegistryBuilder)
+            .addStatement("throw e")
+            .endControlFlow()
+            .build();
+    }
+
+    private MethodSpec generateRun() {
+        return MethodSpec.methodBuilder("run")
+            .addModifiers(Modifier.PUBLIC)
+            .addJavadoc("$L", "Inserts the rows of every entity, then runs the other workloads on them\n\n"
+                + "@param rows        The rows inserted of each entity\n"
+                + "@param batchSize   The rows inserted in each transaction\n"
+                + "@param iterations  The operations measured of each other workload for each entity\n"
+                + "@param warmup      The operations run before those measured\n"
+                + "@param workloads   The other workloads, <code>select</code> and <code>fetch</code>, separated by commas\n")
+            .addParameter(int.class, "rows")
+            .addParameter(int.class, "batchSize")
+            .addParameter(int.class, "iterations")
+            .addParameter(int.class, "warmup")
+            .addParameter(String.class, "workloads")
+            .addStatement("$T<$T> selected = new $T<>($T.asList(workloads.replace($S, $S).split($S)))", Set.class, String.class, HashSet.class, Arrays.class, " ", "", ",")
+            .addStatement("out.println($T.format($T.ROOT, $S, $S, $S, $S, $S, $S, $S, $S, $S))", String.class, Locale.class,
+                "%-8s %-32s %8s %12s %10s %10s %10s %8s", "workload", "entity", "ops", "ops/s", "p50 us", "p95 us", "p99 us", "sql/op")
+            .beginControlFlow("for ($T type : INSERT_ORDER)", ANY_CLASS)
+            .addStatement("insert(type, rows, $T.max(1, batchSize))", Math.class)
+            .endControlFlow()
+            .beginControlFlow("for ($T type : INSERT_ORDER)", ANY_CLASS)
+            .beginControlFlow("if (selected.contains($S))", "select")
+            .addStatement("select(type, iterations, warmup)")
+            .endControlFlow()
+            .beginControlFlow("if (selected.contains($S))", "fetch")
+            .addStatement("fetch(type, iterations, warmup)")
+            .endControlFlow()
+            .endControlFlow()
+            .build();
+    }
+
+    private MethodSpec generateInsert() {
+        return MethodSpec.methodBuilder("insert")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(ANY_CLASS, "type")
+            .addParameter(int.class, "rows")
+            .addParameter(int.class, "batchSize")
+            .addStatement("$T<$T> entities = new $T<>(rows)", List.class, Object.class, ArrayList.class)
+            .addStatement("long[] latencies = new long[(rows + batchSize - 1) / batchSize]")
+            .addStatement("$T statistics = sessionFactory.getStatistics()", catalog.statistics)
+            .addStatement("long statements = statistics.getPrepareStatementCount()")
+            .addStatement("long started = $T.nanoTime()", System.class)
+            .beginControlFlow("for (int batch = 0; batch < latencies.length; batch++)")
+            .addStatement("long batchStarted = $T.nanoTime()", System.class)
+            .beginControlFlow("try ($T session = sessionFactory.openSession())", catalog.session)
+            .addStatement("$T transaction = session.beginTransaction()", catalog.transaction)
+            .beginControlFlow("for (int row = batch * batchSize; row < $T.min(rows, (batch + 1) * batchSize); row++)", Math.class)
+            .addStatement("$T entity = newEntity(session, type, row)", Object.class)
+            .addStatement("session.persist(entity)")
+            .addStatement("entities.add(entity)")
+            .endControlFlow()
+            .addStatement("transaction.commit()")
+            .endControlFlow()
+            .addStatement("latencies[batch] = $T.nanoTime() - batchStarted", System.class)
+            .endControlFlow()
+            .addStatement("report($S, type, rows, $T.nanoTime() - started, latencies, statistics.getPrepareStatementCount() - statements)", "insert", System.class)
+            .addStatement("inserted.put(type, entities)")
+            .addStatement("$T<$T> entityIds = new $T<>(rows)", List.class, Object.class, ArrayList.class)
+            .addStatement("entities.forEach(entity -> entityIds.add(sessionFactory.getPersistenceUnitUtil().getIdentifier(entity)))")
+            .addStatement("ids.put(type, entityIds)")
+            .build();
+    }
+
+    private MethodSpec generateNewEntity() {
+        return MethodSpec.methodBuilder("newEntity")
+            .addModifiers(Modifier.PRIVATE)
+            .addJavadoc("$L", "Creates a row of an entity, with each string field holding the field name and row number\n"
+                + "and each to one association referring to an inserted row. The rows are spread over the rows\n"
+                + "they refer to, each with a different combination of them, so that join entities are unique.\n"
+                + "Each row owning a join table is joined to one inserted row.\n")
+            .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+            .returns(Object.class)
+            .addParameter(catalog.session, "session")
+            .addParameter(ANY_CLASS, "type")
+            .addParameter(int.class, "row")
+            .beginControlFlow("try")
+            .addStatement("$T<?> constructor = type.getDeclaredConstructor()", Constructor.class)
+            .addStatement("constructor.setAccessible(true)")
+            .addStatement("$T entity = constructor.newInstance()", Object.class)
+            .addStatement("long combinations = 1")
+            .beginControlFlow("for ($T field : type.getDeclaredFields())", Field.class)
+            .beginControlFlow("if ($T.isStatic(field.getModifiers()) || field.isAnnotationPresent($T.class) || field.isAnnotationPresent($T.class))",
+                java.lang.reflect.Modifier.class, catalog.id, catalog.embeddedId)
+            .addStatement("continue")
+            .endControlFlow()
+            .addStatement("field.setAccessible(true)")
+            .addStatement("$T references = inserted.get(field.getType())", ParameterizedTypeName.get(List.class, Object.class))
+            .beginControlFlow("if (field.getType() == $T.class)", String.class)
+            .addStatement("field.set(entity, field.getName() + $S + row)", "-")
+            .nextControlFlow("else if (references != null && !references.isEmpty() && (field.isAnnotationPresent($T.class)\n"
+                + "|| (field.isAnnotationPresent($T.class) && field.getAnnotation($T.class).mappedBy().isEmpty())))", catalog.manyToOne, catalog.oneToOne, catalog.oneToOne)
+            .addStatement("field.set(entity, attach(session, references.get((int) ((row / combinations) % references.size()))))")
+            .addStatement("combinations *= references.size()")
+            .nextControlFlow("else if (field.isAnnotationPresent($T.class) && field.getAnnotation($T.class).mappedBy().isEmpty())", catalog.manyToMany, catalog.manyToMany)
+            .addStatement("$T elements = inserted.get(($T<?>) (($T) field.getGenericType()).getActualTypeArguments()[0])",
+                ParameterizedTypeName.get(List.class, Object.class), Class.class, ParameterizedType.class)
+            .beginControlFlow("if (elements != null && !elements.isEmpty())")
+            .addStatement("(($T<$T>) field.get(entity)).add(attach(session, elements.get(row % elements.size())))", Collection.class, Object.class)
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return entity")
+            .nextControlFlow("catch ($T e)", ReflectiveOperationException.class)
+            .addStatement("throw new $T($S + type.getName(), e)", IllegalStateException.class, "Failed to create a row of ")
+            .endControlFlow()
+            .build();
+    }
+
+    private MethodSpec generateSelect() {
+        return MethodSpec.methodBuilder("select")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(ANY_CLASS, "type")
+            .addParameter(int.class, "iterations")
+            .addParameter(int.class, "warmup")
+            .addStatement("$T<$T> entityIds = ids.get(type)", List.class, Object.class)
+            .beginControlFlow("if (entityIds == null || entityIds.isEmpty() || iterations <= 0)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("$T random = new $T(type.getName().hashCode())", Random.class, Random.class)
+            .addStatement("long[] latencies = new long[iterations]")
+            .addStatement("long statements = 0")
+            .addStatement("long started = 0")
+            .beginControlFlow("for (int i = -warmup; i < iterations; i++)")
+            .beginControlFlow("if (i == 0)")
+            .addStatement("statements = sessionFactory.getStatistics().getPrepareStatementCount()")
+            .addStatement("started = $T.nanoTime()", System.class)
+            .endControlFlow()
+            .addStatement("$T id = entityIds.get(random.nextInt(entityIds.size()))", Object.class)
+            .addStatement("long operationStarted = $T.nanoTime()", System.class)
+            .beginControlFlow("try ($T session = sessionFactory.openSession())", catalog.session)
+            .addStatement("session.get(type, ($T) id)", java.io.Serializable.class)
+            .endControlFlow()
+            .beginControlFlow("if (i >= 0)")
+            .addStatement("latencies[i] = $T.nanoTime() - operationStarted", System.class)
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("report($S, type, iterations, $T.nanoTime() - started, latencies, sessionFactory.getStatistics().getPrepareStatementCount() - statements)", "select", System.class)
+            .build();
+    }
+
+    private MethodSpec generateFetch() {
+        return MethodSpec.methodBuilder("fetch")
+            .addModifiers(Modifier.PRIVATE)
+            .addJavadoc("$L", "Loads rows of an entity by id together with every association of them\n")
+            .addParameter(ANY_CLASS, "type")
+            .addParameter(int.class, "iterations")
+            .addParameter(int.class, "warmup")
+            .addStatement("$T<$T> entityIds = ids.get(type)", List.class, Object.class)
+            .addStatement("$T<$T> associations = getAssociations(type)", List.class, Method.class)
+            .beginControlFlow("if (entityIds == null || entityIds.isEmpty() || associations.isEmpty() || iterations <= 0)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("$T random = new $T(type.getName().hashCode())", Random.class, Random.class)
+            .addStatement("long[] latencies = new long[iterations]")
+            .addStatement("long statements = 0")
+            .addStatement("long started = 0")
+            .beginControlFlow("for (int i = -warmup; i < iterations; i++)")
+            .beginControlFlow("if (i == 0)")
+            .addStatement("statements = sessionFactory.getStatistics().getPrepareStatementCount()")
+            .addStatement("started = $T.nanoTime()", System.class)
+            .endControlFlow()
+            .addStatement("$T id = entityIds.get(random.nextInt(entityIds.size()))", Object.class)
+            .addStatement("long operationStarted = $T.nanoTime()", System.class)
+            .beginControlFlow("try ($T session = sessionFactory.openSession())", catalog.session)
+            .addStatement("$T entity = session.get(type, ($T) id)", Object.class, java.io.Serializable.class)
+            .beginControlFlow("for ($T association : associations)", Method.class)
+            .addStatement("$T.initialize(association.invoke(entity))", catalog.hibernate)
+            .endControlFlow()
+            .nextControlFlow("catch ($T e)", ReflectiveOperationException.class)
+            .addStatement("throw new $T($S + type.getName(), e)", IllegalStateException.class, "Failed to fetch the associations of ")
+            .endControlFlow()
+            .beginControlFlow("if (i >= 0)")
+            .addStatement("latencies[i] = $T.nanoTime() - operationStarted", System.class)
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("report($S, type, iterations, $T.nanoTime() - started, latencies, sessionFactory.getStatistics().getPrepareStatementCount() - statements)", "fetch", System.class)
+            .build();
+    }
+
+    private MethodSpec generateGetAssociations() {
+        return MethodSpec.methodBuilder("getAssociations")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addJavadoc("$L", "@return The getters of the associations of an entity, which load them when it is enhanced\n")
+            .returns(ParameterizedTypeName.get(List.class, Method.class))
+            .addParameter(ANY_CLASS, "type")
+            .addStatement("$T<$T> getters = new $T<>()", List.class, Method.class, ArrayList.class)
+            .beginControlFlow("for ($T field : type.getDeclaredFields())", Field.class)
+            .beginControlFlow("if (field.isAnnotationPresent($T.class) || field.isAnnotationPresent($T.class)\n"
+                + "|| field.isAnnotationPresent($T.class) || field.isAnnotationPresent($T.class))", catalog.manyToOne, catalog.oneToOne, catalog.oneToMany, catalog.manyToMany)
+            .beginControlFlow("try")
+            .addStatement("getters.add(type.getMethod($S + Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1)))", "get")
+            .nextControlFlow("catch ($T e)", NoSuchMethodException.class)
+            .addStatement("throw new $T($S + field, e)", IllegalStateException.class, "No getter of ")
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return getters")
+            .build();
+    }
+
+    private MethodSpec generateReport() {
+        return MethodSpec.methodBuilder("report")
+            .addModifiers(Modifier.PRIVATE)
+            .addParameter(String.class, "workload")
+            .addParameter(ANY_CLASS, "type")
+            .addParameter(int.class, "operations")
+            .addParameter(long.class, "elapsedNanos")
+            .addParameter(long[].class, "latencies")
+            .addParameter(long.class, "statements")
+            .beginControlFlow("if (operations <= 0 || latencies.length == 0)")
+            .addStatement("return")
+            .endControlFlow()
+            .addStatement("$T.sort(latencies)", Arrays.class)
+            .addStatement("out.println($T.format($T.ROOT, $S, workload, type.getSimpleName(), operations, operations * 1e9 / $T.max(1, elapsedNanos),\n"
+                    + "latencies[(latencies.length - 1) / 2] / 1e3, latencies[(int) ((latencies.length - 1) * 0.95)] / 1e3, latencies[(int) ((latencies.length - 1) * 0.99)] / 1e3,\n"
+                    + "statements / (double) operations))",
+                String.class, Locale.class, "%-8s %-32s %8d %12.1f %10.1f %10.1f %10.1f %8.2f", Math.class)
+            .build();
+    }
+}
@@ -0,0 +1,281 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.enums.SQL_DIALECT;
+import com.squareup.javapoet.ClassName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the Java and database names generated for the entities of a single model. Names are
+ * worked out once per entity id and cached, so the many lookups made while generating an entity and
+ * the entities it is related to are map accesses. Every class and table name handed out is recorded,
+ * so two entities that would generate the same class or table are reported rather than one silently
+ * overwriting the other.
+ * <p>
+ * Table and column names are upper cased, with every character that is not a letter, digit or
+ * underscore made an underscore, and shortened to fit the dialect, so they can be used unquoted
+ * unless they are reserved words.
+ * <p>
+ * A resolver is only valid for the model it was created for, as entity ids are not stable between
+ * versions of a model. It may be shared between generator threads.
+ */
+public class ERDPlusNameResolver {
+
+    private final String packageName;
+    private final SQL_DIALECT dialect;
+    private final Map<Integer, EntityNames> namesById = new ConcurrentHashMap<>();
+    private final Map<Long, String> joinTableNames = new ConcurrentHashMap<>();
+    private final Map<Long, ClassName> joinEntityTypes = new ConcurrentHashMap<>();
+    private final Map<String, ERDPlusShape> classNameOwners = new ConcurrentHashMap<>();
+    private final Map<String, ERDPlusShape> tableNameOwners = new ConcurrentHashMap<>();
+
+    /**
+     * @param packageName   The package the entity classes are generated in
+     * @param dialect       The database the table and column names have to fit
+     */
+    public ERDPlusNameResolver(String packageName, SQL_DIALECT dialect) {
+        this.packageName = packageName;
+        this.dialect = dialect;
+    }
+
+    /**
+     * Returns the names generated for the passed entity
+     *
+     * @param entity    The entity
+     * @return          Its names
+     * @throws RuntimeException if another entity in the model generates the same class or table name
+     */
+    public EntityNames names(ERDPlusShape entity) {
+        EntityNames names = namesById.get(entity.details.id);
+        if (names == null) {
+            names = namesById.computeIfAbsent(entity.details.id, id -> resolve(entity));
+        }
+        return names;
+    }
+
+    public String getClassName(ERDPlusShape entity) {
+        return names(entity).className;
+    }
+
+    public String getFieldName(ERDPlusShape entity) {
+        return names(entity).fieldName;
+    }
+
+    public String getTableName(ERDPlusShape entity) {
+        return names(entity).tableName;
+    }
+
+    public String getIdColumnName(ERDPlusShape entity) {
+        return names(entity).idColumnName;
+    }
+
+    /**
+     * @param entity        The entity on the join column side of the table
+     * @param foreignEntity The entity on the inverse join column side of the table
+     * @return              The name of the join table between the two entities
+     */
+    public String getJoinTableName(ERDPlusShape entity, ERDPlusShape foreignEntity) {
+        long key = joinKey(entity, foreignEntity);
+        String name = joinTableNames.get(key);
+        if (name == null) {
+            name = joinTableNames.computeIfAbsent(key, k -> dialect.shorten(getTableName(entity) + "_TO_" + getTableName(foreignEntity)));
+        }
+        return name;
+    }
+
+    /**
+     * @param entity        The entity on the join column side of the table
+     * @param foreignEntity The entity on the inverse join column side of the table
+     * @return              The class of the entity mapping the join table between the two entities
+     * @throws RuntimeException if an entity of the model generates the same class
+     */
+    public ClassName getJoinEntityType(ERDPlusShape entity, ERDPlusShape foreignEntity) {
+        long key = joinKey(entity, foreignEntity);
+        ClassName type = joinEntityTypes.get(key);
+        if (type == null) {
+            type = joinEntityTypes.computeIfAbsent(key, k -> {
+                String className = getClassName(entity) + "To" + getClassName(foreignEntity);
+                ERDPlusShape owner = classNameOwners.get(className);
+                if (owner != null) {
+                    throw new RuntimeException("Entity " + owner.details.name + " (" + owner.details.id + ") and the join entity of "
+                        + entity.details.name + " and " + foreignEntity.details.name + " both generate the class " + className);
+                }
+                return ClassName.get(packageName, className);
+            });
+        }
+        return type;
+    }
+
+    /**
+     * @param entity        The entity on the join column side of the table
+     * @param foreignEntity The entity on the inverse join column side of the table
+     * @return              The name of the collection of join entities each of the two entities holds
+     */
+    public String getJoinEntityCollectionFieldName(ERDPlusShape entity, ERDPlusShape foreignEntity) {
+        return toFieldName(getJoinEntityType(entity, foreignEntity).simpleName()) + "s";
+    }
+
+    private static long joinKey(ERDPlusShape entity, ERDPlusShape foreignEntity) {
+        return ((long) entity.details.id << 32) | (foreignEntity.details.id & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param attribute An attribute of an entity
+     * @return          The name of the field holding the attribute, with spaces treated as underscores
+     */
+    public String getAttributeFieldName(ERDPlusShape attribute) {
+        return toFieldName(toClassName(attribute.details.name.trim().replace(' ', '_')));
+    }
+
+    /**
+     * @param attribute An attribute of an entity
+     * @return          The name of the column holding the attribute, with spaces treated as underscores
+     */
+    public String getAttributeColumnName(ERDPlusShape attribute) {
+        return toIdentifier(attribute.details.name);
+    }
+
+    /**
+     * Resolves the names of every passed entity, so that all class and table name collisions in
+     * the model are reported together before anything is generated
+     *
+     * @param entities  Every entity in the model
+     * @throws RuntimeException describing each collision found
+     */
+    public void checkForCollisions(List<ERDPlusShape> entities) {
+        List<RuntimeException> collisions = new ArrayList<>();
+        for (ERDPlusShape entity : entities) {
+            try {
+                names(entity);
+            } catch (RuntimeException e) {
+                collisions.add(e);
+            }
+        }
+        if (collisions.size() == 1) {
+            throw collisions.get(0);
+        }
+        if (!collisions.isEmpty()) {
+            RuntimeException e = new RuntimeException("Found " + collisions.size() + " name collisions in the model");
+            collisions.forEach(e::addSuppressed);
+            throw e;
+        }
+    }
+
+    private EntityNames resolve(ERDPlusShape entity) {
+        String name = entity.details.name;
+        String className = toClassName(name);
+        String tableName = toIdentifier(name);
+        claim(classNameOwners, className, entity, "class");
+        claim(tableNameOwners, tableName, entity, "table");
+        return new EntityNames(ClassName.get(packageName, className), className, toFieldName(className), tableName,
+            dialect.shorten(tableName + "_ID"), dialect.shorten(tableName + "_SEQ"));
+    }
+
+    /**
+     * @param name  The name of an entity or attribute
+     * @return      The name of its table or column
+     */
+    private String toIdentifier(String name) {
+        char[] chars = name.trim().toUpperCase().toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (!Character.isLetterOrDigit(chars[i])) {
+                chars[i] = '_';
+            }
+        }
+        return dialect.shorten(new String(chars));
+    }
+
+    private static void claim(Map<String, ERDPlusShape> owners, String name, ERDPlusShape entity, String kind) {
+        ERDPlusShape owner = owners.putIfAbsent(name, entity);
+        if (owner != null && owner.details.id != entity.details.id) {
+            throw new RuntimeException("Entities " + owner.details.name + " (" + owner.details.id + ") and "
+                + entity.details.name + " (" + entity.details.id + ") both generate the " + kind + " " + name);
+        }
+    }
+
+    /**
+     * Converts the given name into a valid class name. A name that is all upper case is lower cased
+     * first. If the name holds underscores they separate its words, otherwise spaces do. The first
+     * letter of each word is upper cased and the separators are removed.
+     *
+     * @param name  The name of an entity
+     * @return      The class name
+     */
+    static String toClassName(String name) {
+
+        // Find out how the name is cased and how its words are separated in one scan
+        boolean allUpper = true;
+        boolean hasUnderscore = false;
+        boolean hasSpace = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLowerCase(c) && Character.isLetter(c)) {
+                allUpper = false;
+            } else if (c == '_') {
+                hasUnderscore = true;
+            } else if (c == ' ') {
+                hasSpace = true;
+            }
+        }
+        char separator = hasUnderscore ? '_' : hasSpace ? ' ' : 0;
+
+        char[] chars = new char[name.length()];
+        int length = 0;
+        boolean upperNext = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (separator != 0 && c == separator) {
+                upperNext = true;
+                continue;
+            }
+            if (allUpper) {
+                c = Character.toLowerCase(c);
+            }
+            if (upperNext) {
+                c = Character.toUpperCase(c);
+                upperNext = false;
+            }
+            chars[length++] = c;
+        }
+        if (length == 0) {
+            throw new RuntimeException("Can not make a class name from the name '" + name + "'");
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * @param className The class name of an entity
+     * @return          The name of a field referring to the entity
+     */
+    static String toFieldName(String className) {
+        char[] chars = className.toCharArray();
+        chars[0] = Character.toLowerCase(chars[0]);
+        return new String(chars);
+    }
+
+    /**
+     * The names generated for an entity
+     */
+    public static final class EntityNames {
+        public final ClassName type;
+        public final String className;
+        public final String fieldName;
+        public final String collectionFieldName;
+        public final String tableName;
+        public final String idColumnName;
+        public final String sequenceName;
+
+        private EntityNames(ClassName type, String className, String fieldName, String tableName, String idColumnName, String sequenceName) {
+            this.type = type;
+            this.className = className;
+            this.fieldName = fieldName;
+            this.collectionFieldName = fieldName + "s";
+            this.tableName = tableName;
+            this.idColumnName = idColumnName;
+            this.sequenceName = sequenceName;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusOutputSink;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes each file under a root directory. The root may be on any NIO file system, so as well as
+ * a directory on disk this can write into an in-memory file system or an opened zip file system.
+ */
+public class ERDPlusPathOutputSink implements ERDPlusOutputSink {
+
+    private final Path root;
+
+    public ERDPlusPathOutputSink(Path root) {
+        this.root = root;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    @Override
+    public void write(String path, byte[] content) throws IOException {
+        Path file = resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+    }
+
+    @Override
+    public byte[] read(String path) throws IOException {
+        Path file = resolve(path);
+        return Files.isRegularFile(file) ? Files.readAllBytes(file) : null;
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return Files.isRegularFile(resolve(path));
+    }
+
+    @Override
+    public boolean delete(String path) throws IOException {
+        return Files.deleteIfExists(resolve(path));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Path resolve(String path) {
+        Path file = root;
+        for (String part : path.split("/")) {
+            file = file.resolve(part);
+        }
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return root.toString();
+    }
+}
@@ -0,0 +1,243 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.enums.ID_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.SQL_DIALECT;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Builds plain JDBC read models of the entities, for read paths that can not afford Hibernate
+ * hydrating each row into the persistence context. Each entity gets an immutable row class holding
+ * the columns of its table, and a mapper with the SQL selecting them and the index of each column
+ * in it, so that a row is read by index without looking up column names.
+ * <p>
+ * The columns are those the entity maps, named as the entity names them: its id, the join column of
+ * each of its many to one associations and, when they are generated, its attributes. Besides
+ * selecting by id, a mapper selects by each join column, and by the id of each entity it is joined
+ * to by a join table. Table and column names that are reserved words are quoted in the SQL for the
+ * dialect of the schema.
+ */
+final class ERDPlusReadModel {
+
+    static final String ROW_SUFFIX = "Row";
+    static final String MAPPER_SUFFIX = "RowMapper";
+
+    private final ERDPlusNameResolver names;
+    private final ERDPlusGeneratorConfig config;
+    private final String packageName;
+    private final SQL_DIALECT dialect;
+
+    private ERDPlusReadModel(ERDPlusNameResolver names, ERDPlusGeneratorConfig config, String packageName) {
+        this.names = names;
+        this.config = config;
+        this.packageName = packageName;
+        this.dialect = config.getSchemaDialect();
+    }
+
+    /**
+     * @param index         The index of the read in entity model, with all of its connectors read
+     * @param names         The resolver of the names generated for the model
+     * @param config        The options the entities were generated with
+     * @param packageName   The package of the entities
+     * @return              The row and mapper type specs of every entity
+     */
+    static List<TypeSpec> generate(ERDPlusModelIndex index, ERDPlusNameResolver names, ERDPlusGeneratorConfig config, String packageName) {
+        ERDPlusReadModel readModel = new ERDPlusReadModel(names, config, packageName);
+        List<TypeSpec> specs = new ArrayList<>();
+        for (ERDPlusShape entity : index.getEntities()) {
+            Map<String, ReadColumn> columns = readModel.getColumns(index, entity);
+            specs.add(readModel.generateRowTypeSpec(entity, columns));
+            specs.add(readModel.generateMapperTypeSpec(index, entity, columns));
+        }
+        return specs;
+    }
+
+    /**
+     * @return  The columns of the entities table by name, in the order they are selected
+     */
+    private Map<String, ReadColumn> getColumns(ERDPlusModelIndex index, ERDPlusShape entity) {
+        Map<String, ReadColumn> columns = new LinkedHashMap<>();
+        columns.put("ID", new ReadColumn("ID", "id", getIdType(), false, "The Database identifier for this record"));
+        index.getRelationshipsForEntity(entity.details.id).forEach(rel -> rel.shape.details.slots.forEach(slot -> {
+            ERDPlusShape foreignEntity = index.getShape(slot.entityId);
+            if (slot.entityId != entity.details.id && foreignEntity != null
+                && RELATIONSHIP_TYPE.ONE_TO_MANY == rel.type && RELATIONSHIP_TYPE.CARDINALITY_MANY.equals(slot.cardinality)) {
+                String joinColumn = names.getIdColumnName(foreignEntity);
+                columns.putIfAbsent(joinColumn, new ReadColumn(joinColumn, names.getFieldName(foreignEntity) + "Id", getIdType(), true, rel.shape.details.name));
+            }
+        }));
+
+        // Read the attributes the entity maps, its warnings are given when the entity is generated
+        if (config.isAttributesGenerated()) {
+            for (ERDPlusShape attribute : index.getAttributesForShape(entity.details.id)) {
+                ERDPlusDetails details = attribute.details;
+                if (details.name == null || details.name.trim().isEmpty() || details.isDerived || details.isMultivalued || details.isCompostie) {
+                    continue;
+                }
+                String columnName = names.getAttributeColumnName(attribute);
+                columns.putIfAbsent(columnName, new ReadColumn(columnName, names.getAttributeFieldName(attribute), ClassName.get(String.class), false, details.name));
+            }
+        }
+        return columns;
+    }
+
+    private TypeSpec generateRowTypeSpec(ERDPlusShape entity, Map<String, ReadColumn> columns) {
+        TypeSpec.Builder builder = TypeSpec.classBuilder(names.getClassName(entity) + ROW_SUFFIX)
+            .addModifiers(Modifier.PUBLIC)
+            .addAnnotation(ERDPlusAnnotationCatalog.of(config.getPersistenceApi()).value)
+            .addJavadoc("$L", "A row of the " + names.getTableName(entity) + " table, read without Hibernate by {@link "
+                + names.getClassName(entity) + MAPPER_SUFFIX + "}\n");
+        columns.values().forEach(column -> builder.addField(FieldSpec.builder(column.type, column.fieldName, Modifier.PRIVATE, Modifier.FINAL)
+            .addJavadoc("$L", column.description + "\n")
+            .build()));
+        return builder.build();
+    }
+
+    private TypeSpec generateMapperTypeSpec(ERDPlusModelIndex index, ERDPlusShape entity, Map<String, ReadColumn> columns) {
+        String tableName = names.getTableName(entity);
+        ClassName rowType = ClassName.get(packageName, names.getClassName(entity) + ROW_SUFFIX);
+        String select = "SELECT " + columns.keySet().stream().map(dialect::quote).collect(Collectors.joining(", ")) + " FROM " + dialect.quote(tableName);
+
+        TypeSpec.Builder builder = TypeSpec.classBuilder(names.getClassName(entity) + MAPPER_SUFFIX)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addJavadoc("$L", "Reads {@link " + rowType.simpleName() + "}s with plain JDBC. Every select of this class selects the columns in the\n"
+                + "same order, so {@link #map(ResultSet)} reads each of them by its index.\n")
+            .addField(constant(String.class, "TABLE_NAME", CodeBlock.of("$S", tableName)));
+
+        // The index of each column in the selects
+        CodeBlock.Builder mapped = CodeBlock.builder().add("return new $T(", rowType);
+        int position = 1;
+        for (ReadColumn column : columns.values()) {
+            String indexConstant = "COLUMN_" + ERDPlusCachePlan.toConstantName(column.fieldName);
+            builder.addField(constant(int.class, indexConstant, CodeBlock.of("$L", position)));
+            mapped.add(position == 1 ? "" : ", ").add(read(column, indexConstant));
+            position++;
+        }
+
+        // The selects, by id, by each join column and through each join table
+        builder.addField(constant(String.class, "SELECT", CodeBlock.of("$S", select)));
+        Map<String, String> lookups = new LinkedHashMap<>();
+        lookups.put("SELECT_BY_ID", select + " WHERE ID = ?");
+        columns.values().stream().filter(column -> column.joinColumn)
+            .forEach(column -> lookups.putIfAbsent("SELECT_BY_" + ERDPlusCachePlan.toConstantName(column.fieldName), select + " WHERE " + dialect.quote(column.columnName) + " = ?"));
+        index.getRelationshipsForEntity(entity.details.id).forEach(rel -> rel.shape.details.slots.forEach(slot -> {
+            ERDPlusShape foreignEntity = index.getShape(slot.entityId);
+            if (slot.entityId != entity.details.id && foreignEntity != null && RELATIONSHIP_TYPE.MANY_TO_MANY == rel.type) {
+                String joinTable = slot.slotIndex == 0 ? names.getJoinTableName(foreignEntity, entity) : names.getJoinTableName(entity, foreignEntity);
+                String foreignColumn = names.getIdColumnName(foreignEntity);
+                lookups.putIfAbsent("SELECT_BY_" + ERDPlusCachePlan.toConstantName(names.getFieldName(foreignEntity) + "Id"), select + " WHERE ID IN (SELECT "
+                    + dialect.quote(names.getIdColumnName(entity)) + " FROM " + dialect.quote(joinTable) + " WHERE " + dialect.quote(foreignColumn) + " = ?)");
+            }
+        }));
+        lookups.forEach((name, sql) -> builder.addField(constant(String.class, name, CodeBlock.of("$S", sql))));
+
+        builder.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+        builder.addMethod(MethodSpec.methodBuilder("map")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(rowType)
+            .addParameter(ResultSet.class, "resultSet")
+            .addException(SQLException.class)
+            .addJavadoc("$L", "@param resultSet  A result set of one of the selects of this class, on a row\n@return           The row\n")
+            .addStatement("$L", mapped.add(")").build())
+            .build());
+        builder.addMethod(MethodSpec.methodBuilder("mapAll")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(ParameterizedTypeName.get(ClassName.get(List.class), rowType))
+            .addParameter(ResultSet.class, "resultSet")
+            .addException(SQLException.class)
+            .addJavadoc("$L", "@param resultSet  A result set of one of the selects of this class\n@return           Its remaining rows\n")
+            .addStatement("$T<$T> rows = new $T<>()", List.class, rowType, ArrayList.class)
+            .beginControlFlow("while (resultSet.next())")
+            .addStatement("rows.add(map(resultSet))")
+            .endControlFlow()
+            .addStatement("return rows")
+            .build());
+        if (config.getIdStrategy() == ID_STRATEGY.UUID_BINARY) {
+            builder.addMethod(MethodSpec.methodBuilder("toUuid")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(UUID.class)
+                .addParameter(byte[].class, "bytes")
+                .beginControlFlow("if (bytes == null)")
+                .addStatement("return null")
+                .endControlFlow()
+                .addStatement("long mostSigBits = 0")
+                .addStatement("long leastSigBits = 0")
+                .beginControlFlow("for (int i = 0; i < 8; i++)")
+                .addStatement("mostSigBits = (mostSigBits << 8) | (bytes[i] & 0xFF)")
+                .addStatement("leastSigBits = (leastSigBits << 8) | (bytes[i + 8] & 0xFF)")
+                .endControlFlow()
+                .addStatement("return new $T(mostSigBits, leastSigBits)", UUID.class)
+                .build());
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return  The code reading a column by its index, as the type of its field
+     */
+    private CodeBlock read(ReadColumn column, String indexConstant) {
+        if (column.type.equals(TypeName.LONG)) {
+            return CodeBlock.of("resultSet.getLong($L)", indexConstant);
+        }
+        if (column.type.equals(ClassName.get(UUID.class))) {
+            return CodeBlock.of("toUuid(resultSet.getBytes($L))", indexConstant);
+        }
+        return CodeBlock.of("resultSet.getString($L)", indexConstant);
+    }
+
+    /**
+     * Ids and the join columns referring to them are never null, so sequence ids are read as primitives
+     *
+     * @return  The type of the id column and the join columns
+     */
+    private TypeName getIdType() {
+        ID_STRATEGY strategy = config.getIdStrategy();
+        return strategy == ID_STRATEGY.SEQUENCE ? TypeName.LONG : strategy == ID_STRATEGY.UUID_BINARY ? ClassName.get(UUID.class) : ClassName.get(String.class);
+    }
+
+    private static FieldSpec constant(TypeName type, String name, CodeBlock initializer) {
+        return FieldSpec.builder(type, name, Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL).initializer(initializer).build();
+    }
+
+    private static FieldSpec constant(Class<?> type, String name, CodeBlock initializer) {
+        return constant(TypeName.get(type), name, initializer);
+    }
+
+    /**
+     * A column of an entities table and the field of its row holding it
+     */
+    private static final class ReadColumn {
+        private final String columnName;
+        private final String fieldName;
+        private final TypeName type;
+        private final boolean joinColumn;
+        private final String description;
+
+        private ReadColumn(String columnName, String fieldName, TypeName type, boolean joinColumn, String description) {
+            this.columnName = columnName;
+            this.fieldName = fieldName;
+            this.type = type;
+            this.joinColumn = joinColumn;
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.enums.ID_STRATEGY;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.SQL_DIALECT;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the SQL creating the schema the generated entities map to, so the schema can be created
+ * up front rather than by Hibernate at every start up. The tables, columns, indexes and unique
+ * constraints are named as the generated <code>@Table</code>, <code>@Column</code>,
+ * <code>@JoinColumn</code> and <code>@JoinTable</code> annotations name them.
+ * <p>
+ * Every table is created before any foreign key is added, as Hibernate does, so that the script
+ * works whatever order the tables refer to each other in, cycles included. The pair of columns of a
+ * join table is its primary key, which already makes each pair unique, so the unique constraint of
+ * the join table mapping is not created as well.
+ * <p>
+ * Constraints and indexes are named after their table and columns, shortened to fit the dialect as
+ * described by {@link #constraintName(SQL_DIALECT, String, String, List)}. Table and column names
+ * that are reserved words are quoted for the dialect, as the annotations quote them for Hibernate.
+ */
+final class ERDPlusSchemaScript {
+
+    /**
+     * The file name of the generated script
+     */
+    static final String SCHEMA_SQL = "schema.sql";
+
+    private final ERDPlusNameResolver names;
+    private final ERDPlusGeneratorConfig config;
+    private final SQL_DIALECT dialect;
+    private final StringBuilder sequences = new StringBuilder();
+    private final StringBuilder tables = new StringBuilder();
+    private final StringBuilder foreignKeys = new StringBuilder();
+    private final StringBuilder indexes = new StringBuilder();
+
+    private ERDPlusSchemaScript(ERDPlusNameResolver names, ERDPlusGeneratorConfig config) {
+        this.names = names;
+        this.config = config;
+        this.dialect = config.getSchemaDialect();
+    }
+
+    /**
+     * @param index         The index of the read in entity model, with all of its connectors read
+     * @param names         The resolver of the names generated for the model
+     * @param config        The options the entities were generated with
+     * @param packageName   The package of the entities
+     * @return              The script creating the schema of the models entities
+     */
+    static String generate(ERDPlusModelIndex index, ERDPlusNameResolver names, ERDPlusGeneratorConfig config, String packageName) {
+        ERDPlusSchemaScript script = new ERDPlusSchemaScript(names, config);
+        for (ERDPlusShape entity : index.getEntities()) {
+            script.addEntity(index, entity);
+        }
+        return "-- The schema of the entities of " + packageName + " for " + script.dialect + "\n"
+            + "-- Set hibernate.hbm2ddl.auto=none once it has been created\n"
+            + script.sequences + script.tables + script.foreignKeys + script.indexes;
+    }
+
+    /**
+     * Names a constraint or index by its prefix, table and columns, e.g. <code>UK_ORDER_ORDER_NUMBER</code>,
+     * shortened by {@link SQL_DIALECT#shorten(String)} if it is longer than the dialect allows.
+     *
+     * @param dialect       The database the name is for
+     * @param prefix        The kind of constraint, <code>PK</code>, <code>FK</code>, <code>UK</code> or <code>IDX</code>
+     * @param tableName     The table of the constraint
+     * @param columnNames   The columns of the constraint, none for a primary key
+     * @return              The name of the constraint
+     */
+    static String constraintName(SQL_DIALECT dialect, String prefix, String tableName, List<String> columnNames) {
+        StringBuilder name = new StringBuilder(prefix).append('_').append(tableName);
+        columnNames.forEach(column -> name.append('_').append(column));
+        return dialect.shorten(name.toString());
+    }
+
+    private void addEntity(ERDPlusModelIndex index, ERDPlusShape entity) {
+        String tableName = names.getTableName(entity);
+        Map<String, String> columns = new LinkedHashMap<>();
+        List<String> identifyingColumns = new ArrayList<>();
+        List<List<String>> uniqueConstraints = new ArrayList<>();
+        columns.put("ID", getIdType() + " NOT NULL");
+        if (config.getIdStrategy() == ID_STRATEGY.SEQUENCE) {
+            addSequence(names.names(entity).sequenceName);
+        }
+
+        index.getRelationshipsForEntity(entity.details.id).forEach(rel -> rel.shape.details.slots.forEach(slot -> {
+            if (slot.entityId == entity.details.id) {
+                return;
+            }
+            ERDPlusShape foreignEntity = index.getShape(slot.entityId);
+            if (RELATIONSHIP_TYPE.ONE_TO_MANY == rel.type && RELATIONSHIP_TYPE.CARDINALITY_MANY.equals(slot.cardinality)) {
+                String joinColumn = names.getIdColumnName(foreignEntity);
+                if (columns.putIfAbsent(joinColumn, getIdType() + " NOT NULL") == null) {
+                    addForeignKey(tableName, joinColumn, names.getTableName(foreignEntity));
+                    if (rel.shape.details.isIdentifying) {
+                        identifyingColumns.add(joinColumn);
+                    }
+                    if (config.isIndexesGenerated()) {
+                        addIndex(tableName, joinColumn);
+                    }
+                }
+            } else if (RELATIONSHIP_TYPE.MANY_TO_MANY == rel.type && slot.slotIndex == 0) {
+                addJoinTable(foreignEntity, entity);
+            } else if (RELATIONSHIP_TYPE.ONE_TO_ONE == rel.type && slot.slotIndex == 1) {
+                addForeignKey(tableName, "ID", names.getTableName(foreignEntity));
+            }
+        }));
+
+        // Map the attributes as the entity does, its warnings are given when the entity is generated
+        if (config.isAttributesGenerated()) {
+            List<String> uniqueColumns = new ArrayList<>();
+            for (ERDPlusShape attribute : index.getAttributesForShape(entity.details.id)) {
+                ERDPlusDetails details = attribute.details;
+                if (details.name == null || details.name.trim().isEmpty() || details.isDerived || details.isMultivalued || details.isCompostie) {
+                    continue;
+                }
+                String columnName = names.getAttributeColumnName(attribute);
+                if (columns.putIfAbsent(columnName, getStringType() + (details.isOptional ? "" : " NOT NULL")) == null && details.isUnique) {
+                    uniqueColumns.add(columnName);
+                }
+            }
+            if (!uniqueColumns.isEmpty() && !identifyingColumns.isEmpty()) {
+                List<String> key = new ArrayList<>(identifyingColumns);
+                key.addAll(uniqueColumns);
+                uniqueConstraints.add(key);
+            } else {
+                uniqueColumns.forEach(column -> uniqueConstraints.add(Collections.singletonList(column)));
+            }
+        }
+
+        List<String> definitions = new ArrayList<>();
+        columns.forEach((column, type) -> definitions.add(dialect.quote(column) + " " + type));
+        definitions.add("CONSTRAINT " + constraintName(dialect, "PK", tableName, Collections.emptyList()) + " PRIMARY KEY (ID)");
+        uniqueConstraints.forEach(key -> definitions.add("CONSTRAINT " + constraintName(dialect, "UK", tableName, key) + " UNIQUE (" + quote(key) + ")"));
+        addTable(tableName, definitions);
+    }
+
+    /**
+     * Creates the join table mapped by the entity on the inverse join column side of a many to many
+     */
+    private void addJoinTable(ERDPlusShape entity, ERDPlusShape foreignEntity) {
+        String joinTable = names.getJoinTableName(entity, foreignEntity);
+        String joinColumn = names.getIdColumnName(entity);
+        String inverseJoinColumn = names.getIdColumnName(foreignEntity);
+        List<String> definitions = new ArrayList<>();
+        definitions.add(dialect.quote(joinColumn) + " " + getIdType() + " NOT NULL");
+        definitions.add(dialect.quote(inverseJoinColumn) + " " + getIdType() + " NOT NULL");
+        definitions.add("CONSTRAINT " + constraintName(dialect, "PK", joinTable, Collections.emptyList()) + " PRIMARY KEY (" + quote(Arrays.asList(joinColumn, inverseJoinColumn)) + ")");
+        addTable(joinTable, definitions);
+        addForeignKey(joinTable, joinColumn, names.getTableName(entity));
+        addForeignKey(joinTable, inverseJoinColumn, names.getTableName(foreignEntity));
+        if (config.isIndexesGenerated()) {
+            addIndex(joinTable, inverseJoinColumn);
+        }
+    }
+
+    private void addTable(String tableName, List<String> definitions) {
+        tables.append("\nCREATE TABLE ").append(dialect.quote(tableName)).append(" (\n    ")
+            .append(String.join(",\n    ", definitions))
+            .append("\n)").append(dialect == SQL_DIALECT.MYSQL ? " ENGINE=InnoDB" : "").append(";\n");
+    }
+
+    /**
+     * Sequences are emulated by a table with a single row on a database without them, as the
+     * sequence style generator of Hibernate does
+     */
+    private void addSequence(String sequenceName) {
+        if (dialect == SQL_DIALECT.MYSQL) {
+            sequences.append("\nCREATE TABLE ").append(dialect.quote(sequenceName)).append(" (next_val BIGINT) ENGINE=InnoDB;\n")
+                .append("INSERT INTO ").append(dialect.quote(sequenceName)).append(" VALUES (1);\n");
+        } else {
+            sequences.append("\nCREATE SEQUENCE ").append(dialect.quote(sequenceName))
+                .append(" START WITH 1 INCREMENT BY ").append(config.getIdAllocationSize()).append(";\n");
+        }
+    }
+
+    private void addForeignKey(String tableName, String columnName, String referencedTableName) {
+        if (foreignKeys.length() == 0) {
+            foreignKeys.append('\n');
+        }
+        foreignKeys.append("ALTER TABLE ").append(dialect.quote(tableName))
+            .append(" ADD CONSTRAINT ").append(constraintName(dialect, "FK", tableName, Collections.singletonList(columnName)))
+            .append(" FOREIGN KEY (").append(dialect.quote(columnName)).append(") REFERENCES ").append(dialect.quote(referencedTableName)).append(" (ID);\n");
+    }
+
+    private void addIndex(String tableName, String columnName) {
+        if (indexes.length() == 0) {
+            indexes.append('\n');
+        }
+        indexes.append("CREATE INDEX ").append(constraintName(dialect, "IDX", tableName, Collections.singletonList(columnName)))
+            .append(" ON ").append(dialect.quote(tableName)).append(" (").append(dialect.quote(columnName)).append(");\n");
+    }
+
+    private String quote(List<String> columnNames) {
+        return columnNames.stream().map(dialect::quote).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * @return  The type of the id columns and the foreign keys referring to them
+     */
+    private String getIdType() {
+        switch (config.getIdStrategy()) {
+            case SEQUENCE:
+                return dialect == SQL_DIALECT.ORACLE ? "NUMBER(19)" : "BIGINT";
+            case UUID_BINARY:
+                return dialect.getBinaryUuidType();
+            default:
+                return getStringType();
+        }
+    }
+
+    private String getStringType() {
+        return dialect == SQL_DIALECT.ORACLE ? "VARCHAR2(255 CHAR)" : "VARCHAR(255)";
+    }
+}
@@ -0,0 +1,299 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sarm.tools.erdplus.model.ERDPlusConnector;
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.ERDPlusSlot;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads an ERDPlus export token by token straight into an {@link ERDPlusModelIndex}, keeping only
+ * the fields the generator uses and skipping layout and other details without binding them.
+ * <p>
+ * Every relationship slot is joined to its entity by one relationship connector, so once the shapes
+ * have been read the number of connectors each entity is waiting for is known. An entity is passed
+ * to the listener as soon as its last connector has been read, letting generation start while later
+ * connectors are still being parsed.
+ * <p>
+ * Nothing in the shapes tells how many attributes are joined to an entity, so listeners that need
+ * the attributes of each entity, or the relationships of the entities beyond its own, can ask for
+ * entities to be held back until every connector has been read.
+ */
+public class ERDPlusStreamingModelReader {
+
+    /**
+     * Notified of each entity once all of its relationships are in the index
+     */
+    public interface EntityListener {
+        void entityReady(ERDPlusModelIndex index, ERDPlusShape entity);
+
+        /**
+         * Notified once every shape is in the index, before any entity is passed on
+         *
+         * @param index The index holding every shape of the model
+         */
+        default void shapesRead(ERDPlusModelIndex index) {
+        }
+    }
+
+    private final JsonFactory factory;
+
+    public ERDPlusStreamingModelReader(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    public ERDPlusModelIndex read(File erModelExportFile) throws IOException {
+        return read(erModelExportFile, null);
+    }
+
+    /**
+     * Reads the export into an index
+     *
+     * @param erModelExportFile The ERDPlus export to read
+     * @param listener          Notified of each entity once it is complete, may be null
+     * @return                  The index of the read model
+     */
+    public ERDPlusModelIndex read(File erModelExportFile, EntityListener listener) throws IOException {
+        return read(erModelExportFile, listener, false);
+    }
+
+    /**
+     * Reads the export into an index
+     *
+     * @param erModelExportFile The ERDPlus export to read
+     * @param listener          Notified of each entity once it is complete, may be null
+     * @param holdUntilRead     True to only pass entities to the listener once every connector has
+     *                          been read, so their attributes and every relationship are in the index
+     * @return                  The index of the read model
+     */
+    public ERDPlusModelIndex read(File erModelExportFile, EntityListener listener, boolean holdUntilRead) throws IOException {
+        try (JsonParser parser = factory.createParser(erModelExportFile)) {
+            return new ReadState(listener, holdUntilRead).read(parser);
+        }
+    }
+
+    /**
+     * The state of a single read
+     */
+    private static final class ReadState {
+        private final EntityListener listener;
+        private final boolean holdUntilRead;
+        private final ERDPlusModelIndex index = new ERDPlusModelIndex();
+        private final Map<Integer, Integer> outstandingConnectors = new HashMap<>();
+        private final Set<ERDPlusShape> pendingEntities = new LinkedHashSet<>();
+        private final List<ERDPlusShape> relationships = new ArrayList<>();
+        private final List<ERDPlusConnector> earlyConnectors = new ArrayList<>();
+        private boolean shapesRead;
+
+        private ReadState(EntityListener listener, boolean holdUntilRead) {
+            this.listener = listener;
+            this.holdUntilRead = holdUntilRead;
+        }
+
+        private ERDPlusModelIndex read(JsonParser parser) throws IOException {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("shapes".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        shapeRead(readShape(parser));
+                    }
+                    shapesRead();
+                } else if ("connectors".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        connectorRead(readConnector(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            // Connectors that came before the shapes, and entities short of connectors in a
+            // malformed export, are only complete once the whole document has been read
+            if (!shapesRead) {
+                shapesRead();
+            }
+            new ArrayList<>(pendingEntities).forEach(this::entityReady);
+            return index;
+        }
+
+        private void shapesRead() {
+            shapesRead = true;
+            if (listener != null) {
+                listener.shapesRead(index);
+            }
+
+            // Count the connectors each entity needs, one for each relationship slot it fills
+            index.getEntities().forEach(entity -> {
+                outstandingConnectors.put(entity.details.id, 0);
+                pendingEntities.add(entity);
+            });
+            for (ERDPlusShape relationship : relationships) {
+                if (relationship.details != null && relationship.details.slots != null) {
+                    relationship.details.slots.forEach(slot -> outstandingConnectors.computeIfPresent(slot.entityId, (id, count) -> count + 1));
+                }
+            }
+
+            List<ERDPlusConnector> connectors = new ArrayList<>(earlyConnectors);
+            earlyConnectors.clear();
+            connectors.forEach(this::connectorRead);
+
+            new ArrayList<>(pendingEntities).forEach(entity -> {
+                if (!holdUntilRead && outstandingConnectors.get(entity.details.id) <= 0) {
+                    entityReady(entity);
+                }
+            });
+        }
+
+        private void shapeRead(ERDPlusShape shape) {
+            index.addShape(shape);
+            if (TYPE.RELATIONSHIP == shape.type) {
+                relationships.add(shape);
+            }
+        }
+
+        private void connectorRead(ERDPlusConnector connector) {
+            if (!shapesRead) {
+                earlyConnectors.add(connector);
+                return;
+            }
+            index.addConnector(connector);
+            if (TYPE.RELATIONSHIP_CONNECTOR == connector.type) {
+                Integer outstanding = outstandingConnectors.computeIfPresent(connector.source, (id, count) -> count - 1);
+                if (outstanding != null && outstanding == 0 && !holdUntilRead) {
+                    entityReady(index.getShape(connector.source));
+                }
+            }
+        }
+
+        private void entityReady(ERDPlusShape entity) {
+            if (pendingEntities.remove(entity) && listener != null) {
+                listener.entityReady(index, entity);
+            }
+        }
+    }
+
+    private static ERDPlusShape readShape(JsonParser parser) throws IOException {
+        ERDPlusShape shape = new ERDPlusShape();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("type".equals(field)) {
+                shape.type = TYPE.forValue(readText(parser));
+            } else if ("details".equals(field) && value == JsonToken.START_OBJECT) {
+                shape.details = readDetails(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return shape;
+    }
+
+    private static ERDPlusDetails readDetails(JsonParser parser) throws IOException {
+        ERDPlusDetails details = new ERDPlusDetails();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("name".equals(field)) {
+                details.name = readText(parser);
+            } else if ("type".equals(field)) {
+                details.type = readText(parser);
+            } else if ("isIdentifying".equals(field)) {
+                details.isIdentifying = readBoolean(parser);
+            } else if ("isUnique".equals(field)) {
+                details.isUnique = readBoolean(parser);
+            } else if ("isOptional".equals(field)) {
+                details.isOptional = readBoolean(parser);
+            } else if ("isDerived".equals(field)) {
+                details.isDerived = readBoolean(parser);
+            } else if ("isMultivalued".equals(field)) {
+                details.isMultivalued = readBoolean(parser);
+            } else if ("isComposite".equals(field)) {
+                details.isCompostie = readBoolean(parser);
+            } else if ("id".equals(field)) {
+                details.id = readInt(parser);
+            } else if ("slots".equals(field) && value == JsonToken.START_ARRAY) {
+                details.slots = new ArrayList<>(2);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    details.slots.add(readSlot(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return details;
+    }
+
+    private static ERDPlusSlot readSlot(JsonParser parser) throws IOException {
+        ERDPlusSlot slot = new ERDPlusSlot();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("slotIndex".equals(field)) {
+                slot.slotIndex = readInt(parser);
+            } else if ("cardinality".equals(field)) {
+                slot.cardinality = readText(parser);
+            } else if ("entityId".equals(field)) {
+                slot.entityId = readInt(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return slot;
+    }
+
+    private static ERDPlusConnector readConnector(JsonParser parser) throws IOException {
+        ERDPlusConnector connector = new ERDPlusConnector();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("type".equals(field)) {
+                connector.type = TYPE.forValue(readText(parser));
+            } else if ("source".equals(field)) {
+                connector.source = readInt(parser);
+            } else if ("destination".equals(field)) {
+                connector.destination = readInt(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return connector;
+    }
+
+    private static String readText(JsonParser parser) throws IOException {
+        String text = parser.getValueAsString();
+        parser.skipChildren();
+        return text;
+    }
+
+    private static boolean readBoolean(JsonParser parser) throws IOException {
+        boolean value = parser.getValueAsBoolean();
+        parser.skipChildren();
+        return value;
+    }
+
+    private static int readInt(JsonParser parser) throws IOException {
+        int value = parser.getValueAsInt();
+        parser.skipChildren();
+        return value;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, JsonParser parser) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual + " at " + parser.getCurrentLocation());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.sarm.tools.erdplus.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import java.io.File;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusModelIndexTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private ERDPlusModelIndex indexOf(String fixture) throws Exception {
+        return ERDPlusModelIndex.of(mapper.readValue(new File("src/test/resources/models/" + fixture), ERDPlusEntityRelationshipModel.class));
+    }
+
+    @Test
+    public void shouldIndexShapesAndEntities() throws Exception {
+        ERDPlusModelIndex index = indexOf("one_to_many_entity_model.json");
+
+        assertEquals(2, index.getEntities().size());
+        assertEquals("Mother", index.getEntities().get(0).details.name);
+        assertEquals("Child", index.getShape(2).details.name);
+        assertNull(index.getShape(42));
+    }
+
+    @Test
+    public void shouldGroupConnectorsBySourceAndType() throws Exception {
+        ERDPlusModelIndex index = indexOf("one_to_many_entity_model.json");
+
+        List<ERDPlusConnector> connectors = index.getConnectorsForSource(2, TYPE.RELATIONSHIP_CONNECTOR);
+        assertEquals(1, connectors.size());
+        assertEquals(3, connectors.get(0).destination);
+        assertTrue(index.getConnectorsForSource(3, TYPE.RELATIONSHIP_CONNECTOR).isEmpty());
+    }
+
+    @Test
+    public void shouldIndexTheAttributesOfEachEntity() throws Exception {
+        ERDPlusModelIndex index = indexOf("one_to_many_entity_model.json");
+
+        List<ERDPlusShape> attributes = index.getAttributesForShape(2);
+        assertEquals(1, attributes.size());
+        assertEquals("child_id", attributes.get(0).details.name);
+        assertTrue(attributes.get(0).details.isUnique);
+        assertTrue(index.getAttributesForShape(3).isEmpty());
+    }
+
+    @Test
+    public void shouldClassifyRelationshipsForEachEntity() throws Exception {
+        assertEquals(RELATIONSHIP_TYPE.ONE_TO_MANY, indexOf("one_to_many_entity_model.json").getRelationshipsForEntity(1).get(0).type);
+
+        ERDPlusModelIndex manyToMany = indexOf("many_to_many_entity_model.json");
+        manyToMany.getEntities().forEach(entity ->
+            assertEquals(RELATIONSHIP_TYPE.MANY_TO_MANY, manyToMany.getRelationshipsForEntity(entity.details.id).get(0).type));
+
+        ERDPlusModelIndex oneToOne = indexOf("one_to_one_entity_model.json");
+        oneToOne.getEntities().forEach(entity ->
+            assertEquals(RELATIONSHIP_TYPE.ONE_TO_ONE, oneToOne.getRelationshipsForEntity(entity.details.id).get(0).type));
+    }
+}
@@ -0,0 +1,59 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusBatchGeneratorTest {
+
+    private static final File TARGET_DIR = new File("target/test-batch-output");
+
+    @Before
+    public void initTargetDir() throws IOException {
+        FileUtils.deleteDirectory(TARGET_DIR);
+    }
+
+    private List<ERDPlusBatchGenerator.ModelResult> generate() throws IOException {
+        ERDPlusBatchGenerator batch = new ERDPlusBatchGenerator(TARGET_DIR, 3);
+        batch.setLog(new PrintStream(new NullOutputStream()));
+        batch.setIncremental(true);
+        batch.add("src/test/resources/models", "com.togondo.domain");
+        batch.add("src/test/resources/models/one_to_one_entity_model.json=com.togondo.domain.oneToOne", null);
+        return batch.generate();
+    }
+
+    @Test
+    public void shouldGenerateEachExportIntoItsOwnPackage() throws Exception {
+        List<ERDPlusBatchGenerator.ModelResult> results = generate();
+
+        assertEquals(3, results.size());
+        assertEquals("com.togondo.domain.many_to_many_entity_model", results.get(0).packageName);
+        assertEquals("com.togondo.domain.one_to_many_entity_model", results.get(1).packageName);
+        assertEquals("com.togondo.domain.oneToOne", results.get(2).packageName);
+        for (ERDPlusBatchGenerator.ModelResult result : results) {
+            assertTrue(result.isSuccessful());
+            assertEquals(2, result.report.written);
+            File packageDir = new File(TARGET_DIR, result.packageName.replace('.', '/'));
+            assertTrue(new File(packageDir, ERDPlusGenerationManifest.MANIFEST_FILE_NAME).isFile());
+        }
+
+        // Each model keeps its own manifest, so regenerating does not remove the others sources
+        for (ERDPlusBatchGenerator.ModelResult result : generate()) {
+            assertEquals(2, result.report.unchanged);
+            assertEquals(0, result.report.removed);
+        }
+    }
+
+    @Test
+    public void shouldDerivePackageSegmentsFromFileNames() {
+        assertEquals("order_management", ERDPlusBatchGenerator.getPackageSegment("Order-Management.json"));
+        assertEquals("_2019_model", ERDPlusBatchGenerator.getPackageSegment("2019 model.json"));
+    }
+}
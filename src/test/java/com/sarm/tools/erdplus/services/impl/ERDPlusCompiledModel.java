@@ -0,0 +1,48 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusGenerationReport;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import com.sarm.tools.erdplus.services.ERDPlusOutputSink;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The classes compiled from the sources generated for a model, held in memory and loaded from
+ * there, so that a test can load the generated classes without writing them out
+ */
+final class ERDPlusCompiledModel extends ClassLoader {
+
+    static final String PACKAGE_NAME = "com.togondo.domain.model";
+
+    final ERDPlusInMemoryOutputSink classes = new ERDPlusInMemoryOutputSink();
+    final ERDPlusGenerationReport report;
+
+    /**
+     * @param modelFile The model to generate the sources of
+     * @param config    The options to generate them with
+     */
+    ERDPlusCompiledModel(File modelFile, ERDPlusGeneratorConfig config) throws IOException {
+        super(ERDPlusCompiledModel.class.getClassLoader());
+        report = generator(new ERDPlusCompilingOutputSink(classes), config).generateEntityBeans(modelFile);
+    }
+
+    /**
+     * @param sink      The sink to write the generated sources to
+     * @param config    The options to generate them with
+     * @return          A single threaded generator of the entities of the test package
+     */
+    static ERDPlusImportServiceImpl generator(ERDPlusOutputSink sink, ERDPlusGeneratorConfig config) {
+        ERDPlusImportServiceImpl service = new ERDPlusImportServiceImpl(sink, PACKAGE_NAME, 1);
+        service.setConfig(config);
+        return service;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.getFiles().get(name.replace('.', '/') + ".class");
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+}
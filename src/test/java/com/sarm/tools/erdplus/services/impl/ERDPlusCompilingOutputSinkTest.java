@@ -0,0 +1,89 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.enums.PERSISTENCE_API;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.BootstrapServiceRegistryBuilder;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusCompilingOutputSinkTest {
+
+    @Test
+    public void shouldCompileTheGeneratedSourcesWithLombok() throws Exception {
+        for (String model : Arrays.asList("one_to_many", "many_to_many", "one_to_one")) {
+            ERDPlusCompiledModel compiled = new ERDPlusCompiledModel(new File("src/test/resources/models/" + model + "_entity_model.json"),
+                new ERDPlusGeneratorConfig().set("bulk.loader", "true").set("graphs", "true").set("cache.entities", "ALL"));
+
+            assertEquals(0, compiled.report.failed);
+            assertTrue(compiled.classes.getFiles().keySet().stream().noneMatch(path -> path.endsWith(".java")));
+            assertTrue(compiled.classes.getFiles().containsKey("com/togondo/domain/model/BulkLoader.class"));
+            assertTrue(compiled.classes.getFiles().containsKey("com/togondo/domain/model/bulk-loader.properties"));
+        }
+
+        ERDPlusCompiledModel loader = new ERDPlusCompiledModel(new File("src/test/resources/models/one_to_many_entity_model.json"), new ERDPlusGeneratorConfig());
+        Class<?> mother = loader.loadClass("com.togondo.domain.model.Mother");
+        assertEquals(java.util.Set.class, mother.getMethod("getChilds").getReturnType());
+        assertNotNull(loader.loadClass("com.togondo.domain.model.Child").getMethod("setMother", mother));
+    }
+
+    @Test
+    public void shouldBootHibernateOnTheDefaultManyToManyMapping() throws Exception {
+        ERDPlusCompiledModel loader = new ERDPlusCompiledModel(new File("src/test/resources/models/many_to_many_entity_model.json"), new ERDPlusGeneratorConfig());
+
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder(new BootstrapServiceRegistryBuilder().applyClassLoader(loader).build())
+            .applySetting("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+            .applySetting("hibernate.temp.use_jdbc_metadata_defaults", "false")
+            .build();
+        try {
+            Metadata metadata = new MetadataSources(registry)
+                .addAnnotatedClass(loader.loadClass("com.togondo.domain.model.Shop"))
+                .addAnnotatedClass(loader.loadClass("com.togondo.domain.model.Product"))
+                .buildMetadata();
+            assertFalse(metadata.getCollectionBinding("com.togondo.domain.model.Product.shops").isInverse());
+            assertTrue(metadata.getCollectionBinding("com.togondo.domain.model.Shop.products").isInverse());
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    @Test
+    public void shouldReportSourcesThatDoNotCompile() throws Exception {
+        ERDPlusInMemoryOutputSink classes = new ERDPlusInMemoryOutputSink();
+        ERDPlusCompilingOutputSink compiling = new ERDPlusCompilingOutputSink(classes);
+        compiling.write("com/x/Broken.java", "package com.x; public class Broken { Missing missing; }".getBytes("UTF-8"));
+        try {
+            compiling.close();
+            fail("Expected the broken source to fail to compile");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("com/x/Broken.java:1: "));
+            assertTrue(e.getMessage().contains("Missing"));
+        }
+        assertTrue(classes.getFiles().isEmpty());
+    }
+
+    @Test
+    public void shouldNameTheLibrariesMissingFromTheCompileClassPath() throws Exception {
+        Map<String, String> artifacts = ERDPlusAnnotationCatalog.of(PERSISTENCE_API.JAVAX).getLibraryArtifacts();
+        new ERDPlusCompilingOutputSink(new ERDPlusInMemoryOutputSink()).requireOnClassPath(artifacts);
+
+        String withoutHibernate = Arrays.stream(ERDPlusCompilingOutputSink.expandClassPath(System.getProperty("java.class.path")).split(File.pathSeparator))
+            .filter(entry -> !entry.contains("hibernate-core"))
+            .collect(Collectors.joining(File.pathSeparator));
+        try {
+            new ERDPlusCompilingOutputSink(new ERDPlusInMemoryOutputSink(), withoutHibernate).requireOnClassPath(artifacts);
+            fail("Expected the missing Hibernate jar to be reported");
+        } catch (IOException e) {
+            assertEquals("Compiling the generated sources needs org.hibernate:hibernate-core:5.4.25.Final on the class path, add their jars with --classpath=<jars>", e.getMessage());
+        }
+    }
+}
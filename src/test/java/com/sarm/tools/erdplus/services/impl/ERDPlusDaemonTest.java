@@ -0,0 +1,52 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusDaemonTest {
+
+    @Test
+    public void shouldAnswerEachRequestWithOneLineOfJson() throws Exception {
+        ERDPlusInMemoryOutputSink output = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl service = new ERDPlusImportServiceImpl(output, "com.togondo.domain.model", 1);
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        String requests = "{\"id\":1,\"command\":\"ping\"}\n"
+            + "{\"id\":2,\"command\":\"regenerate\"}\n"
+            + "{\"id\":3}\n"
+            + "not json\n"
+            + "{\"id\":4,\"command\":\"shutdown\"}\n"
+            + "{\"id\":5,\"command\":\"ping\"}\n";
+
+        try (ERDPlusDaemon daemon = new ERDPlusDaemon(service, new File("src/test/resources/models/one_to_many_entity_model.json"), new PrintStream(responses, true, "UTF-8"))) {
+            daemon.serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)));
+            assertFalse(daemon.isRunning());
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        String[] lines = new String(responses.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+
+        assertEquals("ok", mapper.readTree(lines[0]).get("status").asText());
+
+        JsonNode first = mapper.readTree(lines[1]);
+        assertEquals(2, first.get("id").asInt());
+        assertEquals(2, first.get("report").get("written").asInt());
+
+        // The daemon regenerates incrementally so nothing has changed the second time
+        JsonNode second = mapper.readTree(lines[2]);
+        assertEquals(0, second.get("report").get("written").asInt());
+        assertEquals(2, second.get("report").get("unchanged").asInt());
+
+        assertEquals("error", mapper.readTree(lines[3]).get("status").asText());
+        assertEquals(4, mapper.readTree(lines[4]).get("id").asInt());
+        assertNotNull(output.getContent("com/togondo/domain/model/Mother.java"));
+    }
+}
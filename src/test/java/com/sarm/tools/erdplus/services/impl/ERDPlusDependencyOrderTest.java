@@ -0,0 +1,86 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.ERDPlusConnector;
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.ERDPlusSlot;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusDependencyOrderTest {
+
+    private final ERDPlusModelIndex index = new ERDPlusModelIndex();
+
+    private void entity(int id, String name) {
+        ERDPlusShape entity = new ERDPlusShape();
+        entity.type = TYPE.ENTITY;
+        entity.details = new ERDPlusDetails();
+        entity.details.id = id;
+        entity.details.name = name;
+        index.addShape(entity);
+    }
+
+    /**
+     * Adds a one to many relationship whose 'many' entity holds a foreign key to its 'one' entity
+     */
+    private void oneToMany(int id, int oneId, int manyId) {
+        ERDPlusShape relationship = new ERDPlusShape();
+        relationship.type = TYPE.RELATIONSHIP;
+        relationship.details = new ERDPlusDetails();
+        relationship.details.id = id;
+        relationship.details.name = "rel" + id;
+        relationship.details.slots = Arrays.asList(slot(0, manyId, "one"), slot(1, oneId, "many"));
+        index.addShape(relationship);
+        relationship.details.slots.forEach(slot -> {
+            ERDPlusConnector connector = new ERDPlusConnector();
+            connector.type = TYPE.RELATIONSHIP_CONNECTOR;
+            connector.source = slot.entityId;
+            connector.destination = id;
+            index.addConnector(connector);
+        });
+    }
+
+    private static ERDPlusSlot slot(int slotIndex, int entityId, String cardinality) {
+        ERDPlusSlot slot = new ERDPlusSlot();
+        slot.slotIndex = slotIndex;
+        slot.entityId = entityId;
+        slot.cardinality = cardinality;
+        return slot;
+    }
+
+    private static List<String> names(List<ERDPlusShape> entities) {
+        return entities.stream().map(entity -> entity.details.name).collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldInsertEntitiesAfterTheEntitiesTheyReferTo() throws Exception {
+        ERDPlusDependencyOrder order = ERDPlusDependencyOrder.of(new ERDPlusStreamingModelReader(ERDPlusImportServiceImpl.newMapper().getFactory())
+            .read(new File("src/test/resources/models/one_to_many_entity_model.json")));
+        assertEquals(Arrays.asList("Mother", "Child"), names(order.getOrder()));
+        assertTrue(order.getCycles().isEmpty());
+    }
+
+    @Test
+    public void shouldReportCyclesAndBreakThemInModelOrder() {
+        entity(1, "Child");
+        entity(2, "Mother");
+        entity(3, "X");
+        entity(4, "Y");
+        entity(5, "Z");
+        oneToMany(10, 2, 1);
+        oneToMany(11, 3, 4);
+        oneToMany(12, 4, 3);
+        oneToMany(13, 3, 5);
+
+        ERDPlusDependencyOrder order = ERDPlusDependencyOrder.of(index);
+        assertEquals(Arrays.asList("Mother", "Child", "X", "Y", "Z"), names(order.getOrder()));
+        assertEquals(Arrays.asList("X", "Y"), names(order.getCycles()));
+    }
+}
@@ -2,14 +2,27 @@ package com.sarm.tools.erdplus.services.impl;
 
 import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.CompilationUnit;
+import com.sarm.tools.erdplus.model.ERDPlusConnector;
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
 import com.sarm.tools.erdplus.model.ERDPlusEntityRelationshipModel;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.ERDPlusSlot;
+import com.sarm.tools.erdplus.model.enums.RELATIONSHIP_TYPE;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import com.sarm.tools.erdplus.services.ERDPlusGenerationReport;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
 import java.util.Objects;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.zip.ZipFile;
 
 import static org.junit.Assert.*;
 
@@ -81,6 +94,370 @@ public class ERDPlusImportServiceImplTest {
         });
     }
 
+    @Test
+    public void shouldGenerateIdenticalEntitiesInParallel() throws Exception {
+        File sequentialDir = new File(TARGET_DIR, "sequential");
+        File parallelDir = new File(TARGET_DIR, "parallel");
+        File streamedDir = new File(TARGET_DIR, "streamed");
+        for (String fixture : Arrays.asList("one_to_many", "many_to_many", "one_to_one")) {
+            File modelFile = new File("src/test/resources/models/" + fixture + "_entity_model.json");
+            ERDPlusImportServiceImpl sequential = new ERDPlusImportServiceImpl(new File(sequentialDir, fixture), service.getPackageName());
+            sequential.generateEntityBeans(sequential.readModel(modelFile));
+            ERDPlusImportServiceImpl parallel = new ERDPlusImportServiceImpl(new File(parallelDir, fixture), service.getPackageName(), 4);
+            parallel.generateEntityBeans(parallel.readModel(modelFile));
+            // Entities are generated on the pool while the reader is still adding connectors
+            new ERDPlusImportServiceImpl(new File(streamedDir, fixture), service.getPackageName(), 4).generateEntityBeans(modelFile);
+        }
+
+        Collection<File> sequentialFiles = FileUtils.listFiles(sequentialDir, null, true);
+        assertFalse(sequentialFiles.isEmpty());
+        for (File sequentialFile : sequentialFiles) {
+            File parallelFile = new File(parallelDir, sequentialDir.toURI().relativize(sequentialFile.toURI()).getPath());
+            File streamedFile = new File(streamedDir, sequentialDir.toURI().relativize(sequentialFile.toURI()).getPath());
+            assertTrue(FileUtils.contentEquals(sequentialFile, parallelFile));
+            assertTrue(FileUtils.contentEquals(sequentialFile, streamedFile));
+        }
+        assertEquals(sequentialFiles.size(), FileUtils.listFiles(parallelDir, null, true).size());
+        assertEquals(sequentialFiles.size(), FileUtils.listFiles(streamedDir, null, true).size());
+    }
+
+    @Test
+    public void shouldOnlyRegenerateChangedEntitiesIncrementally() throws Exception {
+        service.setIncremental(true);
+        service.generateEntityBeans(service.readModel(new File("src/test/resources/models/one_to_many_entity_model.json")));
+
+        File classesDir = new File(TARGET_DIR, service.getPackageName().replace('.', File.separatorChar));
+        File mother = new File(classesDir, "Mother.java");
+        assertTrue(new File(TARGET_DIR, ERDPlusGenerationManifest.MANIFEST_FILE_NAME).isFile());
+        assertTrue(mother.setLastModified(1000L));
+
+        // Nothing changed so nothing is touched
+        service.generateEntityBeans(service.readModel(new File("src/test/resources/models/one_to_many_entity_model.json")));
+        assertEquals(1000L, mother.lastModified());
+
+        // A different model replaces the entities, removing the ones no longer in it
+        service.generateEntityBeans(service.readModel(new File("src/test/resources/models/one_to_one_entity_model.json")));
+        assertFalse(mother.exists());
+        assertFalse(new File(classesDir, "Child.java").exists());
+        assertEquals(2, Objects.requireNonNull(classesDir.listFiles()).length);
+    }
+
+    @Test
+    public void shouldWriteTheSameSourcesToEverySink() throws Exception {
+        File modelFile = new File("src/test/resources/models/one_to_many_entity_model.json");
+        service.generateEntityBeans(service.readModel(modelFile));
+
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        new ERDPlusImportServiceImpl(memory, service.getPackageName(), 1).generateEntityBeans(modelFile);
+
+        File jar = new File(TARGET_DIR, "sources.jar");
+        new ERDPlusImportServiceImpl(new ERDPlusJarOutputSink(jar), service.getPackageName(), 1).generateEntityBeans(modelFile);
+
+        assertEquals(Arrays.asList("com/togondo/domain/model/Child.java", "com/togondo/domain/model/Mother.java"), new ArrayList<>(memory.getFiles().keySet()));
+        try (ZipFile zip = new ZipFile(jar)) {
+            for (String path : memory.getFiles().keySet()) {
+                byte[] written = FileUtils.readFileToByteArray(new File(TARGET_DIR, path));
+                assertArrayEquals(written, memory.getFiles().get(path));
+                assertArrayEquals(written, IOUtils.toByteArray(zip.getInputStream(zip.getEntry(path))));
+            }
+        }
+    }
+
+    @Test
+    public void shouldRecordMetricsForEachRun() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusGenerationReport report = new ERDPlusImportServiceImpl(memory, service.getPackageName(), 1)
+            .generateEntityBeans(new File("src/test/resources/models/one_to_many_entity_model.json"));
+
+        assertEquals(Collections.singletonMap(RELATIONSHIP_TYPE.ONE_TO_MANY, 1), report.metrics.relationships);
+        assertEquals(6, report.metrics.fields);
+        assertEquals(memory.getFiles().values().stream().mapToInt(content -> content.length).sum(), report.metrics.bytesWritten);
+    }
+
+    @Test
+    public void shouldApplyTheFetchProfile() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl lazy = ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig()
+            .set("fetch.lazy", "true")
+            .set("fetch.batchSize", "25")
+            .set("fetch.relationship.has.batchSize", "10")
+            .set("fetch.relationship.has.subselect", "true"));
+        lazy.generateEntityBeans(new File("src/test/resources/models/one_to_many_entity_model.json"));
+
+        String child = memory.getContent("com/togondo/domain/model/Child.java");
+        assertTrue(child.contains("public class Child"));
+        assertTrue(child.contains("@ManyToOne(\n      fetch = FetchType.LAZY\n  )"));
+        assertTrue(child.contains("@BatchSize(\n    size = 25\n)\npublic class Child"));
+
+        String mother = memory.getContent("com/togondo/domain/model/Mother.java");
+        assertTrue(mother.contains("@BatchSize(\n      size = 10\n  )\n  @Fetch(FetchMode.SUBSELECT)\n  private Set<Child> childs"));
+    }
+
+    @Test
+    public void shouldGenerateIdsWithTheConfiguredStrategy() throws Exception {
+        File modelFile = new File("src/test/resources/models/many_to_many_entity_model.json");
+
+        ERDPlusInMemoryOutputSink sequence = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl sequenceService = ERDPlusCompiledModel.generator(sequence, new ERDPlusGeneratorConfig().set("id.strategy", "SEQUENCE").set("id.optimizer", "pooled-lo"));
+        sequenceService.generateEntityBeans(modelFile);
+        String shop = sequence.getContent("com/togondo/domain/model/Shop.java");
+        assertTrue(shop.contains("private Long id;"));
+        assertTrue(shop.contains("@Parameter(name = \"sequence_name\", value = \"SHOP_SEQ\")"));
+        assertTrue(shop.contains("@Parameter(name = \"optimizer\", value = \"pooled-lo\")"));
+
+        ERDPlusInMemoryOutputSink binary = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl binaryService = ERDPlusCompiledModel.generator(binary, new ERDPlusGeneratorConfig().set("id.strategy", "UUID_BINARY"));
+        binaryService.generateEntityBeans(modelFile);
+        String product = binary.getContent("com/togondo/domain/model/Product.java");
+        assertTrue(product.contains("private UUID id;"));
+        assertTrue(product.contains("inverseJoinColumns = @JoinColumn(name = \"SHOP_ID\", columnDefinition = \"BINARY(16)\")"));
+        assertNotNull(binary.getContent("com/togondo/domain/model/TimeOrderedUuidGenerator.java"));
+
+        ERDPlusInMemoryOutputSink postgres = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl postgresService = ERDPlusCompiledModel.generator(postgres, new ERDPlusGeneratorConfig().set("id.strategy", "UUID_BINARY").set("schema.dialect", "POSTGRESQL").set("schema.ddl", "true"));
+        postgresService.generateEntityBeans(modelFile);
+        assertTrue(postgres.getContent("com/togondo/domain/model/Product.java").contains("inverseJoinColumns = @JoinColumn(name = \"SHOP_ID\", columnDefinition = \"BYTEA\")"));
+        assertTrue(postgres.getContent("com/togondo/domain/model/schema.sql").contains("SHOP_ID BYTEA NOT NULL"));
+    }
+
+    @Test
+    public void shouldCacheReferenceEntitiesAndTheirCollections() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl cached = ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("cache.entities", "REFERENCE"));
+        cached.generateEntityBeans(new File("src/test/resources/models/one_to_many_entity_model.json"));
+
+        // The mother is only on the 'one' side, the child holds a foreign key to it
+        String mother = memory.getContent("com/togondo/domain/model/Mother.java");
+        assertTrue(mother.contains("@Cacheable\n@Cache(\n    usage = CacheConcurrencyStrategy.READ_WRITE,\n    region = CacheRegions.MOTHER\n)"));
+        assertFalse(mother.contains("CacheRegions.MOTHER_CHILDS"));
+        assertFalse(memory.getContent("com/togondo/domain/model/Child.java").contains("@Cacheable"));
+
+        // Configuring the child caches the mothers collection of them too
+        memory = new ERDPlusInMemoryOutputSink();
+        cached = ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("cache.entities", "REFERENCE").set("cache.entity.Child", "READ_ONLY"));
+        cached.generateEntityBeans(new File("src/test/resources/models/one_to_many_entity_model.json"));
+        assertTrue(memory.getContent("com/togondo/domain/model/Mother.java").contains("region = CacheRegions.MOTHER_CHILDS"));
+        assertTrue(memory.getContent("com/togondo/domain/model/Child.java").contains("usage = CacheConcurrencyStrategy.READ_ONLY"));
+        String regions = memory.getContent("com/togondo/domain/model/CacheRegions.java");
+        assertTrue(regions.contains("MOTHER_CHILDS = \"com.togondo.domain.model.Mother.childs\""));
+        assertTrue(regions.contains("Arrays.asList(MOTHER, MOTHER_CHILDS, CHILD)"));
+    }
+
+    @Test
+    public void shouldGenerateABulkLoaderInForeignKeyOrder() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl bulk = ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("bulk.loader", "true").set("bulk.batchSize", "100"));
+        bulk.generateEntityBeans(new File("src/test/resources/models/one_to_many_entity_model.json"));
+
+        String loader = memory.getContent("com/togondo/domain/model/BulkLoader.java");
+        assertTrue(loader.contains("public static final int BATCH_SIZE = 100;"));
+        assertTrue(loader.contains("Arrays.<Class<?>>asList(Mother.class, Child.class)"));
+        assertTrue(loader.contains("sessionFactory.openStatelessSession()"));
+        assertTrue(memory.getContent("com/togondo/domain/model/bulk-loader.properties").contains("hibernate.jdbc.batch_size=100\nhibernate.order_inserts=true\nhibernate.order_updates=true\n"));
+    }
+
+    @Test
+    public void shouldGenerateNamedEntityGraphs() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl graphs = ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("graphs", "true"));
+        graphs.generateEntityBeans(new File("src/test/resources/models/chain/order_entity_model.json"));
+
+        String order = memory.getContent("com/togondo/domain/model/Order.java");
+        assertTrue(order.contains("public static final String GRAPH_CUSTOMER = \"Order.customer\";"));
+        assertTrue(order.contains("@NamedEntityGraph(name = Order.GRAPH_PRODUCTS, attributeNodes = @NamedAttributeNode(\"products\"))"));
+
+        // The association graph follows the customer to its country, but not back to its orders
+        assertTrue(order.contains("@NamedEntityGraph(name = Order.ASSOCIATION_GRAPH, attributeNodes = {@NamedAttributeNode(value = \"customer\", subgraph = \"customer\"), @NamedAttributeNode(\"products\")}, "
+            + "subgraphs = @NamedSubgraph(name = \"customer\", attributeNodes = @NamedAttributeNode(\"country\")))"));
+        assertTrue(memory.getContent("com/togondo/domain/model/Product.java").contains("@NamedSubgraph(name = \"orders\", attributeNodes = @NamedAttributeNode(\"customer\"))"));
+    }
+
+    @Test
+    public void shouldIndexForeignKeysAndConstrainUniqueAttributes() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl attributes = ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("schema.attributes", "true"));
+        attributes.generateEntityBeans(new File("src/test/resources/models/one_to_many_entity_model.json"));
+
+        String child = memory.getContent("com/togondo/domain/model/Child.java");
+        assertTrue(child.contains("indexes = @Index(name = \"IDX_CHILD_MOTHER_ID\", columnList = \"MOTHER_ID\")"));
+        assertTrue(child.contains("uniqueConstraints = @UniqueConstraint(name = \"UK_CHILD_CHILD_ID\", columnNames = \"CHILD_ID\")"));
+        assertTrue(child.contains("private String childId;"));
+
+        ERDPlusInMemoryOutputSink joined = new ERDPlusInMemoryOutputSink();
+        new ERDPlusImportServiceImpl(joined, service.getPackageName(), 1)
+            .generateEntityBeans(new File("src/test/resources/models/many_to_many_entity_model.json"));
+        String product = joined.getContent("com/togondo/domain/model/Product.java");
+        assertTrue(product.contains("columnNames = {\"SHOP_ID\", \"PRODUCT_ID\"}"));
+        assertTrue(product.contains("indexes = @Index(name = \"IDX_SHOP_TO_PRODUCT_PRODUCT_ID\", columnList = \"PRODUCT_ID\")"));
+        assertFalse(product.contains("private String productId;"));
+    }
+
+    @Test
+    public void shouldGenerateTheMetamodelAndEntityRegistry() throws Exception {
+        ERDPlusImportServiceImpl bootstrap = new ERDPlusImportServiceImpl(TARGET_DIR, service.getPackageName());
+        bootstrap.setConfig(new ERDPlusGeneratorConfig().set("metamodel", "true").set("registry", "true"));
+        bootstrap.setIncremental(true);
+        File modelFile = new File("src/test/resources/models/one_to_many_entity_model.json");
+        bootstrap.generateEntityBeans(modelFile);
+
+        File classesDir = new File(TARGET_DIR, "com/togondo/domain/model");
+        String mother = FileUtils.readFileToString(new File(classesDir, "Mother_.java"), "UTF-8");
+        assertTrue(mother.contains("@StaticMetamodel(Mother.class)\npublic abstract class Mother_ {"));
+        assertTrue(mother.contains("public static volatile SetAttribute<Mother, Child> childs;"));
+        assertTrue(mother.contains("public static final String CHILDS = \"childs\";"));
+        assertTrue(FileUtils.readFileToString(new File(classesDir, "Child_.java"), "UTF-8").contains("public static volatile SingularAttribute<Child, Mother> mother;"));
+        assertTrue(FileUtils.readFileToString(new File(classesDir, "EntityRegistry.java"), "UTF-8")
+            .contains("Arrays.<Class<?>>asList(Mother.class, Child.class)"));
+
+        ERDPlusGenerationReport report = bootstrap.generateEntityBeans(modelFile);
+        assertEquals(2, report.unchanged);
+        assertTrue(new File(classesDir, "Mother_.java").exists());
+
+        bootstrap.setConfig(new ERDPlusGeneratorConfig());
+        bootstrap.generateEntityBeans(modelFile);
+        assertFalse(new File(classesDir, "Mother_.java").exists());
+        assertFalse(new File(classesDir, "EntityRegistry.java").exists());
+    }
+
+    @Test
+    public void shouldMapOneToOnesWithTheConfiguredStrategy() throws Exception {
+        File modelFile = new File("src/test/resources/models/one_to_one_entity_model.json");
+
+        ERDPlusInMemoryOutputSink mapsId = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl sharedKey = ERDPlusCompiledModel.generator(mapsId, new ERDPlusGeneratorConfig().set("oneToOne.strategy", "MAPS_ID"));
+        sharedKey.generateEntityBeans(modelFile);
+        String husband = mapsId.getContent("com/togondo/domain/model/Husband.java");
+        assertTrue(husband.contains("@MapsId\n  @JoinColumn(\n      name = \"ID\"\n  )\n  private Wife wife;"));
+        assertFalse(husband.contains("@GeneratedValue"));
+        assertTrue(husband.contains("public class Husband"));
+        String wife = mapsId.getContent("com/togondo/domain/model/Wife.java");
+        assertFalse(wife.contains("private Husband husband;"));
+        assertTrue(wife.contains("@GeneratedValue"));
+
+        ERDPlusInMemoryOutputSink noProxy = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl enhanced = ERDPlusCompiledModel.generator(noProxy, new ERDPlusGeneratorConfig().set("oneToOne.strategy", "NO_PROXY"));
+        enhanced.generateEntityBeans(modelFile);
+        assertTrue(noProxy.getContent("com/togondo/domain/model/Wife.java").contains("@LazyToOne(LazyToOneOption.NO_PROXY)\n  private Husband husband;"));
+        assertTrue(noProxy.getContent("com/togondo/domain/model/Husband.java").contains("@LazyToOne(LazyToOneOption.NO_PROXY)\n  @PrimaryKeyJoinColumn"));
+        assertTrue(noProxy.getContent("com/togondo/domain/model/hibernate-enhance-plugin.xml").contains("<enableLazyInitialization>true</enableLazyInitialization>"));
+    }
+
+    @Test
+    public void shouldRegenerateTheOtherSideWhenASharedKeyMovesIncrementally() throws Exception {
+        File modelFile = new File("src/test/resources/models/one_to_one_entity_model.json");
+        service.setConfig(new ERDPlusGeneratorConfig().set("oneToOne.strategy", "MAPS_ID"));
+        service.setIncremental(true);
+        service.generateEntityBeans(service.readModel(modelFile));
+        File wife = new File(TARGET_DIR, "com/togondo/domain/model/Wife.java");
+        assertFalse(FileUtils.readFileToString(wife, "UTF-8").contains("private Husband husband;"));
+
+        // Only the husband's relationships change, but he now takes his id from his passport so
+        // the wife has to map him again
+        ERDPlusEntityRelationshipModel model = service.readModel(modelFile);
+        ERDPlusShape passport = new ERDPlusShape();
+        passport.type = TYPE.ENTITY;
+        passport.details = new ERDPlusDetails();
+        passport.details.id = 10;
+        passport.details.name = "Passport";
+        ERDPlusShape holds = new ERDPlusShape();
+        holds.type = TYPE.RELATIONSHIP;
+        holds.details = new ERDPlusDetails();
+        holds.details.id = 11;
+        holds.details.name = "holds";
+        holds.details.slots = Arrays.asList(slot(0, 6), slot(1, 10));
+        model.shapes.add(passport);
+        model.shapes.add(holds);
+        model.connectors.add(0, relationshipConnector(6, 11));
+        model.connectors.add(1, relationshipConnector(10, 11));
+
+        ERDPlusGenerationReport report = service.generateEntityBeans(model);
+        assertEquals(0, report.unchanged);
+        assertTrue(FileUtils.readFileToString(wife, "UTF-8").contains("private Husband husband;"));
+    }
+
+    private static ERDPlusSlot slot(int slotIndex, int entityId) {
+        ERDPlusSlot slot = new ERDPlusSlot();
+        slot.slotIndex = slotIndex;
+        slot.cardinality = "one";
+        slot.entityId = entityId;
+        return slot;
+    }
+
+    private static ERDPlusConnector relationshipConnector(int source, int destination) {
+        ERDPlusConnector connector = new ERDPlusConnector();
+        connector.type = TYPE.RELATIONSHIP_CONNECTOR;
+        connector.source = source;
+        connector.destination = destination;
+        return connector;
+    }
+
+    @Test
+    public void shouldMapManyToManysByAJoinEntity() throws Exception {
+        ERDPlusInMemoryOutputSink sink = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl joinEntities = ERDPlusCompiledModel.generator(sink, new ERDPlusGeneratorConfig().set("manyToMany.strategy", "JOIN_ENTITY").set("registry", "true").set("bulk.loader", "true"));
+        joinEntities.generateEntityBeans(new File("src/test/resources/models/many_to_many_entity_model.json"));
+
+        String join = sink.getContent("com/togondo/domain/model/ShopToProduct.java");
+        assertTrue(join.contains("public static final String TABLE_NAME = \"SHOP_TO_PRODUCT\";"));
+        assertTrue(join.contains("@EmbeddedId\n  private Key id = new Key();"));
+        assertTrue(join.contains("@MapsId(\"shopId\")\n  @JoinColumn(\n      name = \"SHOP_ID\"\n  )\n  private Shop shop;"));
+        assertTrue(join.contains("@MapsId(\"productId\")\n  @JoinColumn(\n      name = \"PRODUCT_ID\"\n  )\n  private Product product;"));
+        assertTrue(join.contains("public static class Key implements Serializable"));
+        String shop = sink.getContent("com/togondo/domain/model/Shop.java");
+        assertTrue(shop.contains("@OneToMany(\n      mappedBy = \"shop\"\n  )\n  private Set<ShopToProduct> shopToProducts"));
+        assertFalse(shop.contains("@ManyToMany"));
+        assertTrue(sink.getContent("com/togondo/domain/model/Product.java").contains("mappedBy = \"product\""));
+        assertTrue(sink.getContent("com/togondo/domain/model/EntityRegistry.java").contains("Shop.class, Product.class, ShopToProduct.class"));
+        assertTrue(sink.getContent("com/togondo/domain/model/BulkLoader.java").contains("Shop.class, Product.class, ShopToProduct.class"));
+
+        ERDPlusCompiledModel compiled = new ERDPlusCompiledModel(new File("src/test/resources/models/many_to_many_entity_model.json"),
+            new ERDPlusGeneratorConfig().set("manyToMany.strategy", "JOIN_ENTITY").set("graphs", "true").set("metamodel", "true"));
+        assertEquals(0, compiled.report.failed);
+        assertTrue(compiled.classes.getFiles().containsKey("com/togondo/domain/model/ShopToProduct$Key.class"));
+        assertTrue(compiled.classes.getFiles().containsKey("com/togondo/domain/model/ShopToProduct_.class"));
+    }
+
+    @Test
+    public void shouldTuneHowEntitiesAreWritten() throws Exception {
+        File modelFile = new File("src/test/resources/models/one_to_many_entity_model.json");
+        ERDPlusInMemoryOutputSink sink = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl tuned = ERDPlusCompiledModel.generator(sink, new ERDPlusGeneratorConfig().set("write.immutablePattern", "Moth.*").set("write.dynamicColumns", "2"));
+        tuned.generateEntityBeans(modelFile);
+        String mother = sink.getContent("com/togondo/domain/model/Mother.java");
+        assertTrue(mother.contains("@Getter\n@Entity\n@Immutable\npublic final class Mother"));
+        assertFalse(mother.contains("@Setter"));
+        assertTrue(sink.getContent("com/togondo/domain/model/Child.java").contains("@Setter\n@Entity\n@DynamicInsert\n@DynamicUpdate\npublic final class Child"));
+
+        ERDPlusInMemoryOutputSink overridden = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl configured = ERDPlusCompiledModel.generator(overridden, new ERDPlusGeneratorConfig().set("write.immutablePattern", "Moth.*").set("write.entity.Mother", "DYNAMIC").set("write.entity.Child", "IMMUTABLE"));
+        configured.generateEntityBeans(modelFile);
+        assertTrue(overridden.getContent("com/togondo/domain/model/Mother.java").contains("@DynamicUpdate"));
+        assertTrue(overridden.getContent("com/togondo/domain/model/Child.java").contains("@Immutable"));
+    }
+
+    @Test
+    public void shouldGenerateEntitiesForJakartaPersistence() throws Exception {
+        ERDPlusInMemoryOutputSink javax = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl javaxService = ERDPlusCompiledModel.generator(javax, new ERDPlusGeneratorConfig().set("metamodel", "true"));
+        javaxService.generateEntityBeans(new File("src/test/resources/models/many_to_many_entity_model.json"));
+
+        ERDPlusInMemoryOutputSink jakarta = new ERDPlusInMemoryOutputSink();
+        ERDPlusImportServiceImpl jakartaService = ERDPlusCompiledModel.generator(jakarta, new ERDPlusGeneratorConfig().set("metamodel", "true").set("persistence.api", "JAKARTA"));
+        jakartaService.generateEntityBeans(new File("src/test/resources/models/many_to_many_entity_model.json"));
+
+        for (String file : new String[]{"Shop.java", "Product.java", "Shop_.java"}) {
+            String source = jakarta.getContent("com/togondo/domain/model/" + file);
+            assertFalse(source.contains("javax.persistence"));
+            // jakarta imports sort before the java ones, the javax ones after them
+            String[] expected = javax.getContent("com/togondo/domain/model/" + file).replace("javax.persistence", "jakarta.persistence").split("\n");
+            String[] actual = source.split("\n");
+            Arrays.sort(expected);
+            Arrays.sort(actual);
+            assertArrayEquals(expected, actual);
+        }
+        assertTrue(jakarta.getContent("com/togondo/domain/model/Product.java").contains("import jakarta.persistence.JoinTable;"));
+    }
+
     private CompilationUnit parseJavaFile( File file, String packageName ) {
         InputStream in = null;
         CompilationUnit cu = null;
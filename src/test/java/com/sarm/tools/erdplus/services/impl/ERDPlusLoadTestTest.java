@@ -0,0 +1,46 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Properties;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusLoadTestTest {
+
+    @Test
+    public void shouldGenerateALoadTestOfTheEntities() throws Exception {
+        ERDPlusCompiledModel loader = new ERDPlusCompiledModel(new File("src/test/resources/models/many_to_many_entity_model.json"),
+            new ERDPlusGeneratorConfig().set("loadTest", "true").set("manyToMany.strategy", "JOIN_ENTITY"));
+        assertEquals(0, loader.report.failed);
+
+        Class<?> loadTest = loader.loadClass("com.togondo.domain.model.LoadTest");
+        Properties properties = new Properties();
+        properties.setProperty("loadtest.url", "jdbc:h2:mem:shouldGenerateALoadTestOfTheEntities");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Thread thread = Thread.currentThread();
+        ClassLoader contextLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try (SessionFactory sessionFactory = (SessionFactory) loadTest.getMethod("buildSessionFactory", Properties.class).invoke(null, properties)) {
+            Object harness = loadTest.getConstructor(SessionFactory.class, PrintStream.class).newInstance(sessionFactory, new PrintStream(out, true));
+            loadTest.getMethod("run", int.class, int.class, int.class, int.class, String.class).invoke(harness, 20, 10, 10, 0, "select,fetch");
+            try (Session session = sessionFactory.openSession()) {
+                assertEquals(20L, session.createQuery("select count(*) from ShopToProduct").uniqueResult());
+            }
+        } finally {
+            thread.setContextClassLoader(contextLoader);
+        }
+
+        String report = out.toString();
+        assertTrue(report.startsWith("workload entity"));
+        assertTrue(report.contains("insert   Shop "));
+        assertTrue(report.contains("insert   ShopToProduct "));
+        assertTrue(report.contains("select   Product "));
+        assertTrue(report.contains("fetch    ShopToProduct "));
+    }
+}
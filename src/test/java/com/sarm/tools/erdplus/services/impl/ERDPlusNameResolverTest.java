@@ -0,0 +1,83 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.ERDPlusDetails;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.enums.SQL_DIALECT;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusNameResolverTest {
+
+    private final ERDPlusNameResolver resolver = new ERDPlusNameResolver("com.togondo.domain.model", SQL_DIALECT.H2);
+
+    private static ERDPlusShape entity(int id, String name) {
+        ERDPlusShape entity = new ERDPlusShape();
+        entity.type = TYPE.ENTITY;
+        entity.details = new ERDPlusDetails();
+        entity.details.id = id;
+        entity.details.name = name;
+        return entity;
+    }
+
+    @Test
+    public void shouldConvertNamesToClassNames() {
+        assertEquals("Mother", ERDPlusNameResolver.toClassName("Mother"));
+        assertEquals("Child", ERDPlusNameResolver.toClassName("child"));
+        assertEquals("OrderItem", ERDPlusNameResolver.toClassName("ORDER_ITEM"));
+        assertEquals("OrderItem", ERDPlusNameResolver.toClassName("order__item"));
+        assertEquals("Order itemLine", ERDPlusNameResolver.toClassName("order item_line"));
+        assertEquals("OrderItem", ERDPlusNameResolver.toClassName("order item"));
+        assertEquals("OrderITEM", ERDPlusNameResolver.toClassName("order ITEM"));
+        assertEquals("orderItem", ERDPlusNameResolver.toFieldName("OrderItem"));
+    }
+
+    @Test
+    public void shouldResolveEachEntitiesNamesOnce() {
+        ERDPlusShape entity = entity(1, "Order Item");
+
+        ERDPlusNameResolver.EntityNames names = resolver.names(entity);
+        assertSame(names, resolver.names(entity));
+        assertEquals("OrderItem", names.className);
+        assertEquals("orderItem", names.fieldName);
+        assertEquals("orderItems", names.collectionFieldName);
+        assertEquals("ORDER_ITEM", names.tableName);
+        assertEquals("ORDER_ITEM_ID", names.idColumnName);
+        assertEquals("com.togondo.domain.model.OrderItem", names.type.toString());
+        assertEquals("ORDER_ITEM_TO_CHILD", resolver.getJoinTableName(entity, entity(2, "Child")));
+    }
+
+    @Test
+    public void shouldReportEntitiesGeneratingTheSameClass() {
+        try {
+            resolver.checkForCollisions(Arrays.asList(entity(1, "ORDER_ITEM"), entity(2, "Mother"), entity(3, "order item")));
+            fail("Expected the collision to be reported");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("ORDER_ITEM (1) and order item (3) both generate the class OrderItem"));
+        }
+    }
+
+    @Test
+    public void shouldReportCollisionsBeforeStreamingAnyEntity() throws Exception {
+        File modelFile = new File("target/colliding_entity_model.json");
+        Files.write(modelFile.toPath(), ("{\"shapes\": ["
+            + "{\"type\": \"Entity\", \"details\": {\"name\": \"ORDER_ITEM\", \"id\": 1}},"
+            + "{\"type\": \"Entity\", \"details\": {\"name\": \"Mother\", \"id\": 2}},"
+            + "{\"type\": \"Entity\", \"details\": {\"name\": \"order item\", \"id\": 3}}"
+            + "], \"connectors\": []}").getBytes(StandardCharsets.UTF_8));
+
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        try {
+            new ERDPlusImportServiceImpl(memory, "com.togondo.domain.model", 4).generateEntityBeans(modelFile);
+            fail("Expected the collision to be reported");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("ORDER_ITEM (1) and order item (3) both generate the class OrderItem"));
+        }
+        assertTrue(memory.getFiles().isEmpty());
+    }
+}
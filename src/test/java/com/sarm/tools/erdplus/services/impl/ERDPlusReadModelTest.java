@@ -0,0 +1,79 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusReadModelTest {
+
+    @Test
+    public void shouldGenerateJdbcReadModels() throws Exception {
+        ERDPlusCompiledModel loader = new ERDPlusCompiledModel(new File("src/test/resources/models/one_to_many_entity_model.json"),
+            new ERDPlusGeneratorConfig().set("jdbc.readModels", "true").set("id.strategy", "SEQUENCE"));
+        assertEquals(0, loader.report.failed);
+
+        Class<?> mapper = loader.loadClass("com.togondo.domain.model.ChildRowMapper");
+        assertEquals("SELECT ID, MOTHER_ID FROM CHILD WHERE MOTHER_ID = ?", mapper.getField("SELECT_BY_MOTHER_ID").get(null));
+        assertEquals(2, mapper.getField("COLUMN_MOTHER_ID").get(null));
+        ResultSet resultSet = (ResultSet) Proxy.newProxyInstance(loader, new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> "getLong".equals(method.getName()) ? 10L * (Integer) args[0] : null);
+        Object row = mapper.getMethod("map", ResultSet.class).invoke(null, resultSet);
+        assertEquals(10L, row.getClass().getMethod("getId").invoke(row));
+        assertEquals(20L, row.getClass().getMethod("getMotherId").invoke(row));
+    }
+
+    @Test
+    public void shouldSelectFromTablesNamedByReservedWordsAndSpaces() throws Exception {
+        File modelFile = new File("target/order_item_entity_model.json");
+        String model = new String(Files.readAllBytes(Paths.get("src/test/resources/models/chain/order_entity_model.json")), StandardCharsets.UTF_8)
+            .replace("\"name\": \"Product\"", "\"name\": \"Order Item\"");
+        Files.write(modelFile.toPath(), model.getBytes(StandardCharsets.UTF_8));
+        ERDPlusCompiledModel loader = new ERDPlusCompiledModel(modelFile,
+            new ERDPlusGeneratorConfig().set("jdbc.readModels", "true").set("schema.ddl", "true").set("schema.attributes", "true"));
+        assertEquals(0, loader.report.failed);
+
+        Class<?> mapper = loader.loadClass("com.togondo.domain.model.OrderRowMapper");
+        assertEquals("SELECT ID, CUSTOMER_ID, ORDER_NUMBER FROM \"ORDER\" WHERE ID IN (SELECT ORDER_ID FROM ORDER_TO_ORDER_ITEM WHERE ORDER_ITEM_ID = ?)",
+            mapper.getField("SELECT_BY_ORDER_ITEM_ID").get(null));
+        String url = "jdbc:h2:mem:shouldSelectFromTablesNamedByReservedWordsAndSpaces;DB_CLOSE_DELAY=-1";
+        ERDPlusSchemaScriptTest.execute(url, new String(loader.classes.getFiles().get("com/togondo/domain/model/schema.sql"), StandardCharsets.UTF_8));
+        try (Connection connection = DriverManager.getConnection(url)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("INSERT INTO COUNTRY (ID) VALUES ('country')");
+                statement.execute("INSERT INTO CUSTOMER (ID, COUNTRY_ID) VALUES ('customer', 'country')");
+                statement.execute("INSERT INTO \"ORDER\" (ID, CUSTOMER_ID, ORDER_NUMBER) VALUES ('order', 'customer', '42')");
+                statement.execute("INSERT INTO ORDER_ITEM (ID) VALUES ('item')");
+                statement.execute("INSERT INTO ORDER_TO_ORDER_ITEM (ORDER_ID, ORDER_ITEM_ID) VALUES ('order', 'item')");
+            }
+            for (String select : new String[]{"SELECT_BY_ID", "SELECT_BY_CUSTOMER_ID", "SELECT_BY_ORDER_ITEM_ID"}) {
+                try (PreparedStatement statement = connection.prepareStatement((String) mapper.getField(select).get(null))) {
+                    statement.setString(1, select.equals("SELECT_BY_ID") ? "order" : select.equals("SELECT_BY_CUSTOMER_ID") ? "customer" : "item");
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        List<?> rows = (List<?>) mapper.getMethod("mapAll", ResultSet.class).invoke(null, resultSet);
+                        assertEquals(1, rows.size());
+                        assertEquals("42", rows.get(0).getClass().getMethod("getOrderNumber").invoke(rows.get(0)));
+                    }
+                }
+            }
+            Class<?> itemMapper = loader.loadClass("com.togondo.domain.model.OrderItemRowMapper");
+            try (PreparedStatement statement = connection.prepareStatement((String) itemMapper.getField("SELECT_BY_ORDER_ID").get(null))) {
+                statement.setString(1, "order");
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertEquals(1, ((List<?>) itemMapper.getMethod("mapAll", ResultSet.class).invoke(null, resultSet)).size());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.sarm.tools.erdplus.model.enums.SQL_DIALECT;
+import com.sarm.tools.erdplus.services.ERDPlusGeneratorConfig;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.BootstrapServiceRegistryBuilder;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusSchemaScriptTest {
+
+    private static final String SCHEMA_SQL = "com/togondo/domain/model/" + ERDPlusSchemaScript.SCHEMA_SQL;
+
+    /**
+     * Writes the chain model with entity and attribute names holding spaces, and longer than
+     * Oracle allows once they are made into table, join table and column names
+     */
+    private static File writeLongNamedModel() throws Exception {
+        File modelFile = new File("target/long_named_entity_model.json");
+        String model = new String(Files.readAllBytes(Paths.get("src/test/resources/models/chain/order_entity_model.json")), StandardCharsets.UTF_8)
+            .replace("\"name\": \"Customer\"", "\"name\": \"Customer Account Holder Of Orders\"")
+            .replace("\"name\": \"Product\"", "\"name\": \"Order Item Of The Catalogue\"")
+            .replace("\"name\": \"order number\"", "\"name\": \"order number given by the shop\"");
+        Files.write(modelFile.toPath(), model.getBytes(StandardCharsets.UTF_8));
+        return modelFile;
+    }
+
+    /**
+     * Runs each statement of a generated script, skipping its comments
+     */
+    static void execute(String url, String script) throws Exception {
+        String statements = Arrays.stream(script.split("\n"))
+            .filter(line -> !line.startsWith("--"))
+            .collect(Collectors.joining("\n"));
+        try (Connection connection = DriverManager.getConnection(url); Statement statement = connection.createStatement()) {
+            for (String sql : statements.split(";\n")) {
+                if (!sql.trim().isEmpty()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldWriteTheSchemaScriptForTheDialect() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("schema.ddl", "true").set("schema.attributes", "true").set("schema.dialect", "postgresql"))
+            .generateEntityBeans(new File("src/test/resources/models/chain/order_entity_model.json"));
+
+        // ORDER is a reserved word, so it is quoted in the script and the entities alike
+        String schema = memory.getContent(SCHEMA_SQL);
+        assertTrue(schema.contains("CREATE TABLE \"ORDER\" (\n    ID VARCHAR(255) NOT NULL,\n    CUSTOMER_ID VARCHAR(255) NOT NULL,\n    ORDER_NUMBER VARCHAR(255) NOT NULL,\n"
+            + "    CONSTRAINT PK_ORDER PRIMARY KEY (ID),\n    CONSTRAINT UK_ORDER_ORDER_NUMBER UNIQUE (ORDER_NUMBER)\n);"));
+        assertTrue(schema.contains("CONSTRAINT PK_ORDER_TO_PRODUCT PRIMARY KEY (ORDER_ID, PRODUCT_ID)"));
+        assertTrue(schema.contains("ALTER TABLE \"ORDER\" ADD CONSTRAINT FK_ORDER_CUSTOMER_ID FOREIGN KEY (CUSTOMER_ID) REFERENCES CUSTOMER (ID);"));
+        assertTrue(schema.contains("CREATE INDEX IDX_ORDER_TO_PRODUCT_PRODUCT_ID ON ORDER_TO_PRODUCT (PRODUCT_ID);"));
+        assertTrue(schema.indexOf("ALTER TABLE") > schema.lastIndexOf("CREATE TABLE"));
+        String order = memory.getContent("com/togondo/domain/model/Order.java");
+        assertTrue(order.contains("@Table(\n    name = \"`ORDER`\","));
+        assertTrue(order.contains("public static final String TABLE_NAME = \"ORDER\";"));
+        assertTrue(order.contains("@UniqueConstraint(name = \"UK_ORDER_ORDER_NUMBER\", columnNames = \"ORDER_NUMBER\")"));
+
+        ERDPlusInMemoryOutputSink mysql = new ERDPlusInMemoryOutputSink();
+        ERDPlusCompiledModel.generator(mysql, new ERDPlusGeneratorConfig().set("schema.ddl", "true").set("schema.dialect", "MYSQL"))
+            .generateEntityBeans(new File("src/test/resources/models/chain/order_entity_model.json"));
+        assertTrue(mysql.getContent(SCHEMA_SQL).contains("CREATE TABLE `ORDER` ("));
+
+        ERDPlusInMemoryOutputSink oracle = new ERDPlusInMemoryOutputSink();
+        ERDPlusCompiledModel.generator(oracle, new ERDPlusGeneratorConfig().set("schema.ddl", "true").set("schema.dialect", "ORACLE").set("id.strategy", "SEQUENCE"))
+            .generateEntityBeans(new File("src/test/resources/models/one_to_one_entity_model.json"));
+        schema = oracle.getContent(SCHEMA_SQL);
+        assertTrue(schema.contains("CREATE SEQUENCE WIFE_SEQ START WITH 1 INCREMENT BY 50;"));
+        assertTrue(schema.contains("ID NUMBER(19) NOT NULL"));
+        assertTrue(schema.contains("ALTER TABLE HUSBAND ADD CONSTRAINT FK_HUSBAND_ID FOREIGN KEY (ID) REFERENCES WIFE (ID);"));
+
+        // Oracle names are cut to 30 characters, ending in a hash of the whole name, in the script and the entities alike
+        ERDPlusInMemoryOutputSink shortNames = new ERDPlusInMemoryOutputSink();
+        ERDPlusCompiledModel.generator(shortNames, new ERDPlusGeneratorConfig().set("schema.ddl", "true").set("schema.dialect", "ORACLE"))
+            .generateEntityBeans(new File("src/test/resources/models/chain/order_entity_model.json"));
+        schema = shortNames.getContent(SCHEMA_SQL);
+        assertTrue(schema.contains("CREATE INDEX IDX_ORDER_TO_PRODUCT_1AD0F34C ON ORDER_TO_PRODUCT (PRODUCT_ID);"));
+        assertTrue(schema.contains("ADD CONSTRAINT FK_ORDER_TO_PRODUCT_PRODUCT_ID FOREIGN KEY"));
+        assertTrue(shortNames.getContent("com/togondo/domain/model/Product.java").contains("indexes = @Index(name = \"IDX_ORDER_TO_PRODUCT_1AD0F34C\", columnList = \"PRODUCT_ID\")"));
+        assertEquals("UK_ORDER_TO_PRODUCT_O_7D2C50E4", ERDPlusSchemaScript.constraintName(SQL_DIALECT.ORACLE, "UK", "ORDER_TO_PRODUCT", Arrays.asList("ORDER_ID", "PRODUCT_ID")));
+        assertEquals("UK_ORDER_TO_PRODUCT_ORDER_ID_PRODUCT_ID", ERDPlusSchemaScript.constraintName(SQL_DIALECT.POSTGRESQL, "UK", "ORDER_TO_PRODUCT", Arrays.asList("ORDER_ID", "PRODUCT_ID")));
+    }
+
+    @Test
+    public void shouldFitLongNamesWithSpacesToTheDialect() throws Exception {
+        ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+        ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("schema.ddl", "true").set("schema.attributes", "true").set("schema.dialect", "ORACLE"))
+            .generateEntityBeans(writeLongNamedModel());
+
+        String schema = memory.getContent(SCHEMA_SQL);
+        assertTrue(schema.contains("CREATE TABLE CUSTOMER_ACCOUNT_HOLD_450010AD ("));
+        assertTrue(schema.contains("    CUSTOMER_ACCOUNT_HOLD_ED59FE4A VARCHAR2(255 CHAR) NOT NULL,\n    ORDER_NUMBER_GIVEN_BY_THE_SHOP VARCHAR2(255 CHAR) NOT NULL,\n"));
+        assertTrue(schema.contains("CREATE TABLE ORDER_TO_ORDER_ITEM_O_F93B1E3B ("));
+        String order = memory.getContent("com/togondo/domain/model/Order.java");
+        assertTrue(order.contains("name = \"CUSTOMER_ACCOUNT_HOLD_ED59FE4A\""));
+        assertTrue(order.contains("columnNames = \"ORDER_NUMBER_GIVEN_BY_THE_SHOP\""));
+        assertTrue(memory.getContent("com/togondo/domain/model/CustomerAccountHolderOfOrders.java").contains("TABLE_NAME = \"CUSTOMER_ACCOUNT_HOLD_450010AD\""));
+        assertTrue(memory.getContent("com/togondo/domain/model/OrderItemOfTheCatalogue.java").contains("name = \"ORDER_TO_ORDER_ITEM_O_F93B1E3B\""));
+    }
+
+    @Test
+    public void shouldCreateTheSchemaTheEntitiesMap() throws Exception {
+        File modelFile = writeLongNamedModel();
+        String[] modes = {"REGULAR", "PostgreSQL", "MySQL", "Oracle"};
+        for (SQL_DIALECT dialect : SQL_DIALECT.values()) {
+            ERDPlusInMemoryOutputSink memory = new ERDPlusInMemoryOutputSink();
+            ERDPlusCompiledModel.generator(memory, new ERDPlusGeneratorConfig().set("schema.ddl", "true").set("schema.attributes", "true")
+                .set("schema.dialect", dialect.name()).set("id.strategy", "SEQUENCE")).generateEntityBeans(modelFile);
+            execute("jdbc:h2:mem:" + dialect + ";MODE=" + modes[dialect.ordinal()], memory.getContent(SCHEMA_SQL));
+        }
+
+        // Hibernate finds every table, column and sequence the entities map in the schema the script creates
+        ERDPlusCompiledModel loader = new ERDPlusCompiledModel(modelFile,
+            new ERDPlusGeneratorConfig().set("schema.ddl", "true").set("schema.attributes", "true").set("id.strategy", "SEQUENCE"));
+        assertEquals(0, loader.report.failed);
+        String url = "jdbc:h2:mem:shouldCreateTheSchemaTheEntitiesMap;DB_CLOSE_DELAY=-1";
+        execute(url, new String(loader.classes.getFiles().get(SCHEMA_SQL), StandardCharsets.UTF_8));
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder(new BootstrapServiceRegistryBuilder().applyClassLoader(loader).build())
+            .applySetting("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+            .applySetting("hibernate.connection.url", url)
+            .applySetting("hibernate.hbm2ddl.auto", "validate")
+            .build();
+        try {
+            MetadataSources sources = new MetadataSources(registry);
+            for (String entity : Arrays.asList("Order", "CustomerAccountHolderOfOrders", "Country", "OrderItemOfTheCatalogue")) {
+                sources.addAnnotatedClass(loader.loadClass("com.togondo.domain.model." + entity));
+            }
+            try (SessionFactory sessionFactory = sources.buildMetadata().buildSessionFactory()) {
+                assertTrue(sessionFactory.isOpen());
+            }
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sarm.tools.erdplus.services.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sarm.tools.erdplus.model.ERDPlusEntityRelationshipModel;
+import com.sarm.tools.erdplus.model.ERDPlusModelIndex;
+import com.sarm.tools.erdplus.model.ERDPlusRelationship;
+import com.sarm.tools.erdplus.model.ERDPlusShape;
+import com.sarm.tools.erdplus.model.enums.TYPE;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ERDPlusStreamingModelReaderTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final ERDPlusStreamingModelReader reader = new ERDPlusStreamingModelReader(mapper.getFactory());
+
+    @Test
+    public void shouldIndexTheSameAsTheBoundModel() throws Exception {
+        for (String fixture : Arrays.asList("one_to_many", "many_to_many", "one_to_one")) {
+            File modelFile = new File("src/test/resources/models/" + fixture + "_entity_model.json");
+            ERDPlusModelIndex bound = ERDPlusModelIndex.of(mapper.readValue(modelFile, ERDPlusEntityRelationshipModel.class));
+            ERDPlusModelIndex streamed = reader.read(modelFile);
+
+            assertEquals(bound.getEntities().size(), streamed.getEntities().size());
+            for (int i = 0; i < bound.getEntities().size(); i++) {
+                ERDPlusShape entity = bound.getEntities().get(i);
+                assertEquals(entity.details.name, streamed.getEntities().get(i).details.name);
+
+                List<ERDPlusShape> boundAttributes = bound.getAttributesForShape(entity.details.id);
+                List<ERDPlusShape> streamedAttributes = streamed.getAttributesForShape(entity.details.id);
+                assertEquals(boundAttributes.size(), streamedAttributes.size());
+                for (int a = 0; a < boundAttributes.size(); a++) {
+                    assertEquals(boundAttributes.get(a).details.name, streamedAttributes.get(a).details.name);
+                    assertEquals(boundAttributes.get(a).details.isUnique, streamedAttributes.get(a).details.isUnique);
+                }
+
+                List<ERDPlusRelationship> boundRelationships = bound.getRelationshipsForEntity(entity.details.id);
+                List<ERDPlusRelationship> streamedRelationships = streamed.getRelationshipsForEntity(entity.details.id);
+                assertEquals(boundRelationships.size(), streamedRelationships.size());
+                for (int r = 0; r < boundRelationships.size(); r++) {
+                    assertEquals(boundRelationships.get(r).type, streamedRelationships.get(r).type);
+                    assertEquals(boundRelationships.get(r).shape.details.name, streamedRelationships.get(r).shape.details.name);
+                    assertEquals(boundRelationships.get(r).shape.details.slots.size(), streamedRelationships.get(r).shape.details.slots.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldReleaseEntitiesBeforeLaterConnectorsAreRead() throws Exception {
+        List<String> ready = new ArrayList<>();
+        reader.read(new File("src/test/resources/models/one_to_many_entity_model.json"), (index, entity) -> {
+            if (ready.isEmpty()) {
+                // The child's connector comes first, the mother's has not been read yet
+                assertEquals("Child", entity.details.name);
+                assertEquals(1, index.getRelationshipsForEntity(entity.details.id).size());
+                assertTrue(index.getConnectorsForSource(1, TYPE.RELATIONSHIP_CONNECTOR).isEmpty());
+            }
+            ready.add(entity.details.name);
+        });
+
+        assertEquals(Arrays.asList("Child", "Mother"), ready);
+    }
+}